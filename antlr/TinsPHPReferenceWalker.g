@@ -38,6 +38,8 @@ import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
 import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
 import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
 import ch.tsphp.tinsphp.common.inference.IReferencePhaseController;
+import ch.tsphp.tinsphp.inference_engine.DeferredFunctionDefinitionDto;
+import ch.tsphp.tinsphp.inference_engine.IMethodFinishedListener;
 }
 
 @members {
@@ -47,6 +49,8 @@ private boolean hasAtLeastOneReturnOrThrow;
 private boolean doesNotReachThisStatement;
 private boolean inSwitch;
 private IConstraintCollection currentScope;
+private List<DeferredFunctionDefinitionDto> deferredFunctionDefinitions;
+private boolean isWalkingDeferredFunctionDefinition;
 
 public TinsPHPReferenceWalker(
         TreeNodeStream input,
@@ -58,6 +62,24 @@ public TinsPHPReferenceWalker(
     adaptor = theAdaptor;
     currentScope = globalDefaultNamespaceScope;
 }
+
+/**
+ * Function definitions are not walked but added to the given list instead, they can be walked separately afterwards
+ * with {@link #deferredFunctionDefinition}. Their method symbols are added to the controller nonetheless in order that
+ * they are in the same order as if the function definitions had been walked directly.
+ */
+public void deferFunctionDefinitions(List<DeferredFunctionDefinitionDto> theDeferredFunctionDefinitions) {
+    deferredFunctionDefinitions = theDeferredFunctionDefinitions;
+}
+
+/**
+ * Walks a function definition which was deferred, the input of this walker has to start at the given definition.
+ */
+public void deferredFunctionDefinition(DeferredFunctionDefinitionDto dto) throws RecognitionException {
+    doesNotReachThisStatement = dto.doesNotReachThisStatement;
+    isWalkingDeferredFunctionDefinition = true;
+    functionDefinition();
+}
 }
 
 compilationUnit
@@ -311,6 +333,7 @@ constructDefinition
 */
   
 //TODO TINS-221 - reference phase - double definition check methods 
+//once methods are walked, their bodies need to be deferred like the ones of functions (see functionDefinition)
 /*        
 methodDefinition
 
@@ -337,6 +360,11 @@ methodDefinition
         //Warning! end duplicated code as in functionDeclaration
                 controller.checkReturnsFromMethod($block.isReturning, hasAtLeastOneReturnOrThrow, $identifier);
             }
+
+            // the constraints of the method are complete now
+            if (controller instanceof IMethodFinishedListener) {
+                ((IMethodFinishedListener) controller).methodFinished(methodSymbol);
+            }
         }
 
     ;    
@@ -374,6 +402,15 @@ accessModifier
 functionDefinition
 //Warning! start duplicated code as in methodDefinition
 @init{
+    if (deferredFunctionDefinitions != null) {
+        ITSPHPAst function = (ITSPHPAst) input.LT(1);
+        // the third child is the identifier of the function
+        controller.addMethodSymbol((IMethodSymbol) function.getChild(2).getSymbol());
+        deferredFunctionDefinitions.add(new DeferredFunctionDefinitionDto(function, doesNotReachThisStatement));
+        // skips the whole function definition
+        matchAny(input);
+        return;
+    }
     boolean tmpDoesNotReachThisStatement = doesNotReachThisStatement;
     //defined above as field
     hasAtLeastOneReturnOrThrow = false;
@@ -387,7 +424,9 @@ functionDefinition
             {
                 IMethodSymbol methodSymbol = (IMethodSymbol) $identifier.getSymbol();
                 currentScope = methodSymbol;
-                controller.addMethodSymbol(methodSymbol);
+                if (!isWalkingDeferredFunctionDefinition) {
+                    controller.addMethodSymbol(methodSymbol);
+                }
             }
             parameterDeclarationList 
             block
@@ -400,6 +439,11 @@ functionDefinition
         
             controller.addImplicitReturnStatementIfRequired(
                 $block.isReturning, hasAtLeastOneReturnOrThrow, $identifier, $block.start);
+
+            // the constraints of the function are complete now
+            if (controller instanceof IMethodFinishedListener) {
+                ((IMethodFinishedListener) controller).methodFinished((IMethodSymbol) $identifier.getSymbol());
+            }
         }
     ;
 finally{
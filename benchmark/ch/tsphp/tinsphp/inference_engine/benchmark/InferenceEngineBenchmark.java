@@ -0,0 +1,115 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the phases of the inference engine on programs created by the {@link SyntheticProgramGenerator}.
+ * <p/>
+ * Each phase operates on a freshly parsed program for which the previous phases already ran, parsing and the previous
+ * phases are not part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InferenceEngineBenchmark
+{
+    public abstract static class AProgramState
+    {
+        @Param({"50"})
+        public int functionCount;
+
+        @Param({"5"})
+        public int callDepth;
+
+        @Param({"0", "3"})
+        public int recursionCycleSize;
+
+        @Param({"8"})
+        public int operatorDensity;
+
+        @Param({"4"})
+        public int numberOfThreads;
+
+        protected InferenceEngineFixture fixture;
+        protected String program;
+
+        @Setup(Level.Trial)
+        public void setUpFixture() {
+            fixture = new InferenceEngineFixture(numberOfThreads);
+            program = new SyntheticProgramGenerator(
+                    functionCount, callDepth, recursionCycleSize, operatorDensity).generate();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownFixture() {
+            fixture.tearDown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DefinitionPhaseState extends AProgramState
+    {
+        @Setup(Level.Invocation)
+        public void setUp() {
+            fixture.parse(program);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReferencePhaseState extends AProgramState
+    {
+        @Setup(Level.Invocation)
+        public void setUp() {
+            fixture.parse(program);
+            fixture.enrichWithDefinitions();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SolvingState extends AProgramState
+    {
+        @Setup(Level.Invocation)
+        public void setUp() {
+            fixture.parse(program);
+            fixture.enrichWithDefinitions();
+            fixture.enrichWithReferences();
+        }
+    }
+
+    @Benchmark
+    public void enrichWithDefinitions(DefinitionPhaseState state) {
+        state.fixture.enrichWithDefinitions();
+    }
+
+    @Benchmark
+    public void enrichWithReferences(ReferencePhaseState state) {
+        state.fixture.enrichWithReferences();
+    }
+
+    @Benchmark
+    public void solveConstraints(SolvingState state) {
+        state.fixture.solveConstraints();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.benchmark;
+
+import ch.tsphp.common.AstHelper;
+import ch.tsphp.common.IAstHelper;
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.common.ITSPHPAstAdaptor;
+import ch.tsphp.common.ParserUnitDto;
+import ch.tsphp.common.TSPHPAstAdaptor;
+import ch.tsphp.tinsphp.common.IInferenceEngine;
+import ch.tsphp.tinsphp.common.IParser;
+import ch.tsphp.tinsphp.common.config.ICoreInitialiser;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
+import ch.tsphp.tinsphp.common.issues.EIssueSeverity;
+import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
+import ch.tsphp.tinsphp.inference_engine.config.HardCodedInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.parser.config.HardCodedParserInitialiser;
+import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
+import org.antlr.runtime.tree.CommonTreeNodeStream;
+
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sets up the parser and the inference engine once and runs the phases of the inference engine on fresh ASTs.
+ * <p/>
+ * The engine is reset before each program, this way the core is only initialised once.
+ */
+public class InferenceEngineFixture
+{
+    private final ITSPHPAstAdaptor astAdaptor;
+    private final ISymbolsInitialiser symbolsInitialiser;
+    private final IParser parser;
+    private final ExecutorService executorService;
+    private final IInferenceEngineInitialiser inferenceEngineInitialiser;
+    private final IInferenceEngine inferenceEngine;
+    private ITSPHPAst ast;
+    private CommonTreeNodeStream treeNodeStream;
+
+    public InferenceEngineFixture(int numberOfThreads) {
+        astAdaptor = new TSPHPAstAdaptor();
+        IAstHelper astHelper = new AstHelper(astAdaptor);
+        symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        ICoreInitialiser coreInitialiser = new HardCodedCoreInitialiser(astHelper, symbolsInitialiser);
+        parser = new HardCodedParserInitialiser(astAdaptor).getParser();
+        executorService = Executors.newFixedThreadPool(numberOfThreads);
+        inferenceEngineInitialiser = new HardCodedInferenceEngineInitialiser(
+                astAdaptor, astHelper, symbolsInitialiser, coreInitialiser, executorService);
+        inferenceEngine = inferenceEngineInitialiser.getEngine();
+    }
+
+    public ISymbolsInitialiser getSymbolsInitialiser() {
+        return symbolsInitialiser;
+    }
+
+    public IInferenceEngineInitialiser getInferenceEngineInitialiser() {
+        return inferenceEngineInitialiser;
+    }
+
+    /**
+     * Resets the inference engine and parses the given program (without php tags).
+     */
+    public void parse(String program) {
+        inferenceEngineInitialiser.reset();
+        ParserUnitDto parserUnit = parser.parse("<?php" + program + "?>");
+        if (parser.hasFound(EnumSet.allOf(EIssueSeverity.class))) {
+            throw new IllegalStateException("the generated program could not be parsed:\n" + program);
+        }
+        ast = parserUnit.compilationUnit;
+        treeNodeStream = new CommonTreeNodeStream(astAdaptor, ast);
+        treeNodeStream.setTokenStream(parserUnit.tokenStream);
+    }
+
+    public void enrichWithDefinitions() {
+        inferenceEngine.enrichWithDefinitions(ast, treeNodeStream);
+    }
+
+    public void enrichWithReferences() {
+        inferenceEngine.enrichWithReferences(ast, treeNodeStream);
+    }
+
+    public void solveConstraints() {
+        inferenceEngine.solveConstraints();
+    }
+
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.benchmark;
+
+import ch.tsphp.tinsphp.common.inference.constraints.BoundException;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.scopes.IGlobalNamespaceScope;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.utils.ITypeHelper;
+import ch.tsphp.tinsphp.inference_engine.constraints.AggregateBindingDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.IMostSpecificOverloadDecider;
+import ch.tsphp.tinsphp.inference_engine.constraints.MostSpecificOverloadDecider;
+import ch.tsphp.tinsphp.inference_engine.constraints.OverloadRankingDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverHelper;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolverHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks for the hot spots of the constraint solving, namely the aggregation of an overload's bindings and
+ * the selection of the most specific overload.
+ * <p/>
+ * Both operate on the first constraint of the global namespace of the given program (the addition by default).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OverloadResolutionBenchmark
+{
+    @State(Scope.Thread)
+    public static class ConstraintState
+    {
+        @Param({"$a = 1 + 2;", "$a = 1 + 2.5;", "$a = 'a' . 1;"})
+        public String program;
+
+        private InferenceEngineFixture fixture;
+        private ISymbolFactory symbolFactory;
+        private ITypeHelper typeHelper;
+        private IMostSpecificOverloadDecider mostSpecificOverloadDecider;
+        private IConstraintSolverHelper constraintSolverHelper;
+        private IConstraint constraint;
+        private WorkItemDto workItemDto;
+        private List<OverloadRankingDto> applicableOverloads;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = new InferenceEngineFixture(1);
+            fixture.parse(program);
+            fixture.enrichWithDefinitions();
+            fixture.enrichWithReferences();
+
+            symbolFactory = fixture.getSymbolsInitialiser().getSymbolFactory();
+            typeHelper = fixture.getSymbolsInitialiser().getTypeHelper();
+            mostSpecificOverloadDecider = new MostSpecificOverloadDecider(symbolFactory, typeHelper);
+            constraintSolverHelper = new ConstraintSolverHelper(
+                    symbolFactory, typeHelper, mostSpecificOverloadDecider);
+
+            IGlobalNamespaceScope globalDefaultNamespace
+                    = fixture.getInferenceEngineInitialiser().getGlobalDefaultNamespace();
+            constraint = globalDefaultNamespace.getConstraints().get(0);
+            workItemDto = new WorkItemDto(
+                    new ArrayDeque<WorkItemDto>(),
+                    globalDefaultNamespace,
+                    0,
+                    false,
+                    symbolFactory.createBindingCollection());
+            constraintSolverHelper.createBindingsIfNecessary(
+                    workItemDto, constraint.getLeftHandSide(), constraint.getArguments());
+
+            applicableOverloads = new ArrayList<>();
+            for (IFunctionType overload : constraint.getMethodSymbol().getOverloads()) {
+                AggregateBindingDto dto = aggregateBinding(overload);
+                if (dto != null) {
+                    applicableOverloads.add(new OverloadRankingDto(dto));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.tearDown();
+        }
+
+        private AggregateBindingDto aggregateBinding(IFunctionType overload) {
+            if (constraint.getArguments().size() < overload.getNumberOfNonOptionalParameters()) {
+                return null;
+            }
+            IBindingCollection bindings = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
+            AggregateBindingDto dto = new AggregateBindingDto(constraint, overload, bindings, workItemDto);
+            try {
+                constraintSolverHelper.aggregateBinding(dto);
+            } catch (BoundException ex) {
+                return null;
+            }
+            return dto;
+        }
+
+        /**
+         * Returns fresh copies of the applicable overloads since the decider modifies the counters of the dtos.
+         */
+        private List<OverloadRankingDto> copyApplicableOverloads() {
+            List<OverloadRankingDto> copies = new ArrayList<>(applicableOverloads.size());
+            for (OverloadRankingDto dto : applicableOverloads) {
+                copies.add(new OverloadRankingDto(dto, dto.overload));
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * Aggregates the bindings of all overloads of the constraint, i.e. checks which ones are applicable.
+     */
+    @Benchmark
+    public void aggregateBinding(ConstraintState state, Blackhole blackhole) {
+        for (IFunctionType overload : state.constraint.getMethodSymbol().getOverloads()) {
+            blackhole.consume(state.aggregateBinding(overload));
+        }
+    }
+
+    /**
+     * Selects the most specific overload with a long-lived decider, previous decisions are cached.
+     */
+    @Benchmark
+    public OverloadRankingDto inNormalMode(ConstraintState state) {
+        List<OverloadRankingDto> overloads = state.copyApplicableOverloads();
+        if (overloads.size() == 1) {
+            return overloads.get(0);
+        }
+        return state.mostSpecificOverloadDecider.inNormalMode(state.workItemDto, overloads, null);
+    }
+
+    /**
+     * Selects the most specific overload with a new decider, i.e. without cached decisions and fixed overloads.
+     */
+    @Benchmark
+    public OverloadRankingDto inNormalModeWithoutCache(ConstraintState state) {
+        List<OverloadRankingDto> overloads = state.copyApplicableOverloads();
+        if (overloads.size() == 1) {
+            return overloads.get(0);
+        }
+        IMostSpecificOverloadDecider decider = new MostSpecificOverloadDecider(state.symbolFactory, state.typeHelper);
+        return decider.inNormalMode(state.workItemDto, overloads, null);
+    }
+}
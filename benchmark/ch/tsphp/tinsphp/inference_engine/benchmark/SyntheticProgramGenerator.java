@@ -0,0 +1,84 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.benchmark;
+
+/**
+ * Generates PHP programs of a given shape for the benchmarks.
+ * <p/>
+ * The functions are arranged in call chains of length callDepth (f0 calls f1 calls f2 ...). If recursionCycleSize is
+ * bigger than 0, then the first recursionCycleSize functions of each chain form a cycle, the last of them calls the
+ * first one again. Each function has one parameter and contains operatorDensity assignments with binary operators
+ * (each to a fresh variable) and the global namespace calls the head of each chain.
+ * <p/>
+ * Multiple parameters in indirect recursive functions and many reassignments of the same variable are avoided on
+ * purpose, the engine cannot cope with them yet.
+ */
+public class SyntheticProgramGenerator
+{
+    private static final String[] OPERATORS = new String[]{"+", "-", "*", "+", "."};
+
+    private final int functionCount;
+    private final int callDepth;
+    private final int recursionCycleSize;
+    private final int operatorDensity;
+
+    public SyntheticProgramGenerator(
+            int theFunctionCount, int theCallDepth, int theRecursionCycleSize, int theOperatorDensity) {
+        if (theFunctionCount < 1 || theCallDepth < 1 || theRecursionCycleSize < 0 || theOperatorDensity < 0) {
+            throw new IllegalArgumentException("functionCount and callDepth need to be at least 1, "
+                    + "recursionCycleSize and operatorDensity cannot be negative.");
+        }
+        functionCount = theFunctionCount;
+        callDepth = theCallDepth;
+        recursionCycleSize = Math.min(theRecursionCycleSize, theCallDepth);
+        operatorDensity = theOperatorDensity;
+    }
+
+    /**
+     * Returns the program without the surrounding php tags.
+     */
+    public String generate() {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < functionCount; ++i) {
+            appendFunction(stringBuilder, i);
+        }
+        for (int i = 0; i < functionCount; i += callDepth) {
+            stringBuilder.append("$r").append(i).append(" = f").append(i).append("(").append(i).append(");\n");
+        }
+        return stringBuilder.toString();
+    }
+
+    private void appendFunction(StringBuilder stringBuilder, int index) {
+        int positionInChain = index % callDepth;
+        boolean isLastInChain = positionInChain == callDepth - 1 || index == functionCount - 1;
+
+        stringBuilder.append("function f").append(index).append("($x){\n");
+        String result = "$x";
+        for (int i = 0; i < operatorDensity; ++i) {
+            String operator = OPERATORS[i % OPERATORS.length];
+            if (operator.equals(".")) {
+                //string concatenation does not contribute to the result, otherwise the result would be a string
+                stringBuilder.append("    $s").append(i).append(" = 'v' . ").append(result).append(";\n");
+            } else {
+                stringBuilder.append("    $v").append(i).append(" = ").append(result)
+                        .append(" ").append(operator).append(i % 2 == 0 ? " $x;\n" : " 1;\n");
+                result = "$v" + i;
+            }
+        }
+
+        if (recursionCycleSize > 0 && positionInChain == recursionCycleSize - 1) {
+            int firstOfCycle = index - positionInChain;
+            stringBuilder.append("    if ($x > 0) { return f").append(firstOfCycle).append("($x - 1); }\n");
+        }
+        if (isLastInChain) {
+            stringBuilder.append("    return ").append(result).append(";\n");
+        } else {
+            stringBuilder.append("    return f").append(index + 1).append("(").append(result).append(");\n");
+        }
+        stringBuilder.append("}\n");
+    }
+}
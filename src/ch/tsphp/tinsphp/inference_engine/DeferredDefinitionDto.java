@@ -0,0 +1,21 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine;
+
+import ch.tsphp.common.IScope;
+import ch.tsphp.common.symbols.ISymbol;
+
+public class DeferredDefinitionDto
+{
+    public IScope scope;
+    public ISymbol symbol;
+
+    public DeferredDefinitionDto(IScope theScope, ISymbol theSymbol) {
+        scope = theScope;
+        symbol = theSymbol;
+    }
+}
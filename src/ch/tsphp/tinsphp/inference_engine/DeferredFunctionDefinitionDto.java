@@ -0,0 +1,20 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine;
+
+import ch.tsphp.common.ITSPHPAst;
+
+public class DeferredFunctionDefinitionDto
+{
+    public ITSPHPAst functionDefinition;
+    public boolean doesNotReachThisStatement;
+
+    public DeferredFunctionDefinitionDto(ITSPHPAst theFunctionDefinition, boolean isNotReachingThisStatement) {
+        functionDefinition = theFunctionDefinition;
+        doesNotReachThisStatement = isNotReachingThisStatement;
+    }
+}
@@ -27,6 +27,10 @@ import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
 import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
 import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class DefinitionPhaseController implements IDefinitionPhaseController
 {
@@ -34,15 +38,74 @@ public class DefinitionPhaseController implements IDefinitionPhaseController
     private final ISymbolFactory symbolFactory;
     private final IScopeFactory scopeFactory;
 
-    private final ILowerCaseStringMap<IGlobalNamespaceScope> globalNamespaceScopes = new LowerCaseStringMap<>();
+    private final ILowerCaseStringMap<IGlobalNamespaceScope> globalNamespaceScopes;
     private final IGlobalNamespaceScope globalDefaultNamespace;
 
+    /**
+     * Definitions in namespaces which are deferred until they are merged, null if they are done immediately.
+     */
+    private final List<DeferredDefinitionDto> deferredDefinitions;
+    private final Set<String> usedNamespaces;
+
     public DefinitionPhaseController(ISymbolFactory aSymbolFactory, IScopeFactory aScopeFactory) {
         symbolFactory = aSymbolFactory;
         scopeFactory = aScopeFactory;
+        globalNamespaceScopes = new LowerCaseStringMap<>();
+        deferredDefinitions = null;
+        usedNamespaces = null;
         globalDefaultNamespace = getOrCreateGlobalNamespace("\\");
     }
 
+    private DefinitionPhaseController(DefinitionPhaseController parentController) {
+        symbolFactory = parentController.symbolFactory;
+        scopeFactory = parentController.scopeFactory;
+        globalNamespaceScopes = parentController.globalNamespaceScopes;
+        globalDefaultNamespace = parentController.globalDefaultNamespace;
+        deferredDefinitions = new ArrayList<>();
+        usedNamespaces = new LinkedHashSet<>();
+    }
+
+    /**
+     * Creates a controller for the definition phase of one compilation unit which can run concurrently with the
+     * definition phases of other compilation units.
+     * <p/>
+     * The global namespaces are shared with this controller but the definitions in them are deferred until they are
+     * merged with {@link #mergeCompilationUnitControllers}, all other definitions concern only the compilation unit.
+     */
+    public DefinitionPhaseController createCompilationUnitController() {
+        return new DefinitionPhaseController(this);
+    }
+
+    /**
+     * Defines the deferred definitions of the given compilation unit controllers in the given order.
+     * <p/>
+     * The global namespaces are ordered as if the compilation units had been processed one after the other. Hence,
+     * the outcome, including which definition counts as double definition, does not depend on the order in which
+     * the compilation units were processed.
+     */
+    public void mergeCompilationUnitControllers(List<DefinitionPhaseController> controllers) {
+        ILowerCaseStringMap<IGlobalNamespaceScope> orderedScopes = new LowerCaseStringMap<>();
+        orderedScopes.put("\\", globalDefaultNamespace);
+        for (DefinitionPhaseController controller : controllers) {
+            for (String namespace : controller.usedNamespaces) {
+                if (!orderedScopes.containsKey(namespace)) {
+                    orderedScopes.put(namespace, globalNamespaceScopes.get(namespace));
+                }
+            }
+            for (DeferredDefinitionDto dto : controller.deferredDefinitions) {
+                dto.scope.define(dto.symbol);
+            }
+            controller.deferredDefinitions.clear();
+        }
+
+        synchronized (globalNamespaceScopes) {
+            //namespaces which were created in another way keep their relative order at the end
+            orderedScopes.putAll(globalNamespaceScopes);
+            globalNamespaceScopes.clear();
+            globalNamespaceScopes.putAll(orderedScopes);
+        }
+    }
+
     @Override
     public ILowerCaseStringMap<IGlobalNamespaceScope> getGlobalNamespaceScopes() {
         return globalNamespaceScopes;
@@ -60,11 +123,17 @@ public class DefinitionPhaseController implements IDefinitionPhaseController
 
     private IGlobalNamespaceScope getOrCreateGlobalNamespace(String name) {
         IGlobalNamespaceScope scope;
-        if (globalNamespaceScopes.containsKey(name)) {
-            scope = globalNamespaceScopes.get(name);
-        } else {
-            scope = scopeFactory.createGlobalNamespaceScope(name);
-            globalNamespaceScopes.put(name, scope);
+        //compilation unit controllers share the global namespaces
+        synchronized (globalNamespaceScopes) {
+            if (globalNamespaceScopes.containsKey(name)) {
+                scope = globalNamespaceScopes.get(name);
+            } else {
+                scope = scopeFactory.createGlobalNamespaceScope(name);
+                globalNamespaceScopes.put(name, scope);
+            }
+        }
+        if (usedNamespaces != null) {
+            usedNamespaces.add(name);
         }
         return scope;
     }
@@ -108,7 +177,12 @@ public class DefinitionPhaseController implements IDefinitionPhaseController
     private void define(IScope currentScope, ITSPHPAst identifier, ISymbol symbol) {
         identifier.setSymbol(symbol);
         identifier.setScope(currentScope);
-        currentScope.define(symbol);
+        //namespace scopes define their symbols in the shared global namespace
+        if (deferredDefinitions != null && currentScope instanceof INamespaceScope) {
+            deferredDefinitions.add(new DeferredDefinitionDto(currentScope, symbol));
+        } else {
+            currentScope.define(symbol);
+        }
     }
 //
 //
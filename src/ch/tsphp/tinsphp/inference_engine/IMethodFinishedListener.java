@@ -0,0 +1,17 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine;
+
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+
+/**
+ * Represents a reference phase controller which is informed as soon as the reference walker finished a method.
+ */
+public interface IMethodFinishedListener
+{
+    void methodFinished(IMethodSymbol methodSymbol);
+}
@@ -19,16 +19,24 @@ import ch.tsphp.tinsphp.common.issues.IssueReporterHelper;
 import ch.tsphp.tinsphp.inference_engine.antlrmod.ErrorReportingTinsPHPDefinitionWalker;
 import ch.tsphp.tinsphp.inference_engine.antlrmod.ErrorReportingTinsPHPReferenceWalker;
 import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.tree.CommonTreeNodeStream;
 import org.antlr.runtime.tree.TreeNodeStream;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class InferenceEngine implements IInferenceEngine, IIssueLogger
 {
     private final ITSPHPAstAdaptor astAdaptor;
     private final IInferenceIssueReporter inferenceIssueReporter;
+    private final ExecutorService executorService;
     private IDefinitionPhaseController definitionPhaseController;
     private IReferencePhaseController referencePhaseController;
 
@@ -40,10 +48,28 @@ public class InferenceEngine implements IInferenceEngine, IIssueLogger
             IInferenceIssueReporter theInferenceIssueReporter,
             IDefinitionPhaseController theDefinitionPhaseController,
             IReferencePhaseController theReferencePhaseController) {
+        this(theAstAdaptor,
+                theInferenceIssueReporter,
+                theDefinitionPhaseController,
+                theReferencePhaseController,
+                null);
+    }
+
+    /**
+     * The given executor service is used to process several compilation units concurrently, see
+     * {@link #enrichWithDefinitions(List, List)}.
+     */
+    public InferenceEngine(
+            ITSPHPAstAdaptor theAstAdaptor,
+            IInferenceIssueReporter theInferenceIssueReporter,
+            IDefinitionPhaseController theDefinitionPhaseController,
+            IReferencePhaseController theReferencePhaseController,
+            ExecutorService theExecutorService) {
         astAdaptor = theAstAdaptor;
         inferenceIssueReporter = theInferenceIssueReporter;
         definitionPhaseController = theDefinitionPhaseController;
         referencePhaseController = theReferencePhaseController;
+        executorService = theExecutorService;
     }
 
     public void setDefinitionPhaseController(IDefinitionPhaseController theDefinitionPhaseController) {
@@ -56,9 +82,61 @@ public class InferenceEngine implements IInferenceEngine, IIssueLogger
 
     @Override
     public void enrichWithDefinitions(ITSPHPAst ast, TreeNodeStream treeNodeStream) {
+        enrichWithDefinitions(ast, treeNodeStream, definitionPhaseController);
+    }
+
+    /**
+     * Runs the definition phase for the given compilation units, concurrently if an executor service was passed to
+     * this engine and the definition phase controller supports it.
+     * <p/>
+     * The outcome is the same as if {@link #enrichWithDefinitions(ITSPHPAst, TreeNodeStream)} was called for each
+     * compilation unit in the given order, including which definitions are reported as double definitions later on.
+     * Registered issue loggers might be called concurrently.
+     */
+    public void enrichWithDefinitions(List<ITSPHPAst> asts, List<TreeNodeStream> treeNodeStreams) {
+        checkOneTreeNodeStreamPerCompilationUnit(asts, treeNodeStreams);
+
+        int numberOfCompilationUnits = asts.size();
+        if (executorService == null || !(definitionPhaseController instanceof DefinitionPhaseController)) {
+            for (int i = 0; i < numberOfCompilationUnits; ++i) {
+                enrichWithDefinitions(asts.get(i), treeNodeStreams.get(i));
+            }
+        } else {
+            DefinitionPhaseController controller = (DefinitionPhaseController) definitionPhaseController;
+            List<DefinitionPhaseController> controllers = new ArrayList<>(numberOfCompilationUnits);
+            List<Callable<Void>> tasks = new ArrayList<>(numberOfCompilationUnits);
+            for (int i = 0; i < numberOfCompilationUnits; ++i) {
+                DefinitionPhaseController compilationUnitController = controller.createCompilationUnitController();
+                controllers.add(compilationUnitController);
+                tasks.add(new DefinitionTask(asts.get(i), treeNodeStreams.get(i), compilationUnitController));
+            }
+            invokeAll(tasks);
+            controller.mergeCompilationUnitControllers(controllers);
+        }
+    }
+
+    private void checkOneTreeNodeStreamPerCompilationUnit(List<ITSPHPAst> asts, List<TreeNodeStream> treeNodeStreams) {
+        if (asts.size() != treeNodeStreams.size()) {
+            throw new IllegalArgumentException("each compilation unit requires exactly one tree node stream, "
+                    + asts.size() + " compilation units but " + treeNodeStreams.size() + " tree node streams given");
+        }
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void enrichWithDefinitions(
+            ITSPHPAst ast, TreeNodeStream treeNodeStream, IDefinitionPhaseController controller) {
         treeNodeStream.reset();
         ErrorReportingTinsPHPDefinitionWalker definitionWalker = new ErrorReportingTinsPHPDefinitionWalker(
-                treeNodeStream, definitionPhaseController);
+                treeNodeStream, controller);
 
         for (IIssueLogger logger : issueLoggers) {
             definitionWalker.registerIssueLogger(logger);
@@ -69,7 +147,63 @@ public class InferenceEngine implements IInferenceEngine, IIssueLogger
 
     @Override
     public void enrichWithReferences(ITSPHPAst ast, TreeNodeStream treeNodeStream) {
+        enrichWithReferences(ast, treeNodeStream, null);
+    }
+
+    /**
+     * Runs the reference phase for the given compilation units, the function definitions concurrently if an executor
+     * service was passed to this engine.
+     * <p/>
+     * The code outside of function definitions is walked sequentially in the given order since it shares the
+     * constraints of the global default namespace. The function definitions are walked afterwards on the executor
+     * service, they only read the symbols of the global namespaces and write the constraints of their own method
+     * symbol. The method symbols are registered in the same order as if each compilation unit was passed to
+     * {@link #enrichWithReferences(ITSPHPAst, TreeNodeStream)} in the given order. Registered issue loggers might be
+     * called concurrently.
+     * <p/>
+     * Only function definitions are deferred. The reference phase does not walk class and interface definitions yet
+     * (TINS-210, TINS-211), hence there are no method definitions which could be deferred. Once it does, their bodies
+     * need to be deferred in the same way as function definitions.
+     */
+    public void enrichWithReferences(List<ITSPHPAst> asts, List<TreeNodeStream> treeNodeStreams) {
+        checkOneTreeNodeStreamPerCompilationUnit(asts, treeNodeStreams);
+
+        int numberOfCompilationUnits = asts.size();
+        if (executorService == null) {
+            for (int i = 0; i < numberOfCompilationUnits; ++i) {
+                enrichWithReferences(asts.get(i), treeNodeStreams.get(i));
+            }
+        } else {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < numberOfCompilationUnits; ++i) {
+                TreeNodeStream treeNodeStream = treeNodeStreams.get(i);
+                List<DeferredFunctionDefinitionDto> deferredFunctionDefinitions = new ArrayList<>();
+                enrichWithReferences(asts.get(i), treeNodeStream, deferredFunctionDefinitions);
+                for (DeferredFunctionDefinitionDto dto : deferredFunctionDefinitions) {
+                    tasks.add(new FunctionDefinitionTask(dto, treeNodeStream));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private void enrichWithReferences(ITSPHPAst ast, TreeNodeStream treeNodeStream,
+            List<DeferredFunctionDefinitionDto> deferredFunctionDefinitions) {
         treeNodeStream.reset();
+        ErrorReportingTinsPHPReferenceWalker referenceWalker = createReferenceWalker(treeNodeStream);
+        if (deferredFunctionDefinitions != null) {
+            referenceWalker.deferFunctionDefinitions(deferredFunctionDefinitions);
+        }
+        try {
+            referenceWalker.compilationUnit();
+        } catch (RecognitionException ex) {
+            // should never happen, ErrorReportingTSPHPReferenceWalker should catch it already.
+            // but just in case and to be complete
+            logRecognitionException(ex);
+        }
+    }
+
+    private ErrorReportingTinsPHPReferenceWalker createReferenceWalker(TreeNodeStream treeNodeStream) {
         ErrorReportingTinsPHPReferenceWalker referenceWalker = new ErrorReportingTinsPHPReferenceWalker(
                 treeNodeStream,
                 referencePhaseController,
@@ -80,15 +214,13 @@ public class InferenceEngine implements IInferenceEngine, IIssueLogger
             referenceWalker.registerIssueLogger(logger);
         }
         referenceWalker.registerIssueLogger(this);
-        try {
-            referenceWalker.compilationUnit();
-        } catch (RecognitionException ex) {
-            // should never happen, ErrorReportingTSPHPReferenceWalker should catch it already.
-            // but just in case and to be complete
-            log(new TSPHPException(ex), EIssueSeverity.FatalError);
-            for (IIssueLogger logger : issueLoggers) {
-                logger.log(new TSPHPException(ex), EIssueSeverity.FatalError);
-            }
+        return referenceWalker;
+    }
+
+    private void logRecognitionException(RecognitionException ex) {
+        log(new TSPHPException(ex), EIssueSeverity.FatalError);
+        for (IIssueLogger logger : issueLoggers) {
+            logger.log(new TSPHPException(ex), EIssueSeverity.FatalError);
         }
     }
 
@@ -104,18 +236,65 @@ public class InferenceEngine implements IInferenceEngine, IIssueLogger
     }
 
     @Override
-    public boolean hasFound(EnumSet<EIssueSeverity> severities) {
+    public synchronized boolean hasFound(EnumSet<EIssueSeverity> severities) {
         return IssueReporterHelper.hasFound(foundIssues, severities)
                 || inferenceIssueReporter.hasFound(severities);
     }
 
     @Override
-    public void reset() {
+    public synchronized void reset() {
         foundIssues = EnumSet.noneOf(EIssueSeverity.class);
     }
 
+    //synchronized since the definition and reference phase of several compilation units might run concurrently
     @Override
-    public void log(TSPHPException ex, EIssueSeverity severity) {
+    public synchronized void log(TSPHPException ex, EIssueSeverity severity) {
         foundIssues.add(severity);
     }
+
+    private class DefinitionTask implements Callable<Void>
+    {
+        private final ITSPHPAst ast;
+        private final TreeNodeStream treeNodeStream;
+        private final IDefinitionPhaseController controller;
+
+        public DefinitionTask(
+                ITSPHPAst theAst, TreeNodeStream theTreeNodeStream, IDefinitionPhaseController theController) {
+            ast = theAst;
+            treeNodeStream = theTreeNodeStream;
+            controller = theController;
+        }
+
+        @Override
+        public Void call() {
+            enrichWithDefinitions(ast, treeNodeStream, controller);
+            return null;
+        }
+    }
+
+    private class FunctionDefinitionTask implements Callable<Void>
+    {
+        private final DeferredFunctionDefinitionDto dto;
+        private final TreeNodeStream treeNodeStream;
+
+        public FunctionDefinitionTask(DeferredFunctionDefinitionDto theDto, TreeNodeStream theTreeNodeStream) {
+            dto = theDto;
+            treeNodeStream = theTreeNodeStream;
+        }
+
+        @Override
+        public Void call() {
+            CommonTreeNodeStream functionTreeNodeStream =
+                    new CommonTreeNodeStream(treeNodeStream.getTreeAdaptor(), dto.functionDefinition);
+            functionTreeNodeStream.setTokenStream(treeNodeStream.getTokenStream());
+            ErrorReportingTinsPHPReferenceWalker referenceWalker = createReferenceWalker(functionTreeNodeStream);
+            try {
+                referenceWalker.deferredFunctionDefinition(dto);
+            } catch (RecognitionException ex) {
+                // should never happen, see enrichWithReferences
+                logRecognitionException(ex);
+            }
+            return null;
+        }
+    }
 }
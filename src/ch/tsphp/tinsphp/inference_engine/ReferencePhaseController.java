@@ -53,7 +53,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class ReferencePhaseController implements IReferencePhaseController
+public class ReferencePhaseController implements IReferencePhaseController, IMethodFinishedListener
 {
     private final ISymbolFactory symbolFactory;
     private final IInferenceIssueReporter inferenceErrorReporter;
@@ -613,6 +613,11 @@ public class ReferencePhaseController implements IReferencePhaseController
         return methodSymbols;
     }
 
+    @Override
+    public void methodFinished(IMethodSymbol methodSymbol) {
+        constraintSolver.methodFinished(methodSymbol);
+    }
+
     @Override
     public void solveConstraints() {
         constraintSolver.solveConstraints(methodSymbols, globalDefaultNamespace);
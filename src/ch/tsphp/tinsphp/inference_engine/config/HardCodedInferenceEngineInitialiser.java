@@ -37,9 +37,12 @@ import ch.tsphp.tinsphp.inference_engine.constraints.MostSpecificOverloadDecider
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolver;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverHelper;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolver;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolverHelper;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ISoftTypingConstraintSolver;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.OverloadApplicabilityCache;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.PersistentSignatureCache;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.SoftTypingConstraintSolver;
 import ch.tsphp.tinsphp.inference_engine.issues.HardCodedIssueMessageProvider;
 import ch.tsphp.tinsphp.inference_engine.issues.InferenceIssueReporter;
@@ -77,6 +80,7 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
     private final ConcurrentMap<String, Set<String>> methodsWithDependents;
     private final ConcurrentMap<String, Set<WorkItemDto>> dependentMethods;
     private final ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> directDependencies;
+    private final OverloadApplicabilityCache overloadApplicabilityCache;
 
     public HardCodedInferenceEngineInitialiser(
             ITSPHPAstAdaptor theAstAdaptor,
@@ -84,6 +88,27 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
             ISymbolsInitialiser symbolsInitialiser,
             ICoreInitialiser coreInitialiser,
             ExecutorService theExecutorService) {
+        this(theAstAdaptor,
+                astHelper,
+                symbolsInitialiser,
+                coreInitialiser,
+                theExecutorService,
+                new ConstraintSolverSettingsDto());
+    }
+
+    /**
+     * Use this constructor in order to change the default behaviour of the constraint solver. For instance, pass a
+     * ForkJoinPool as executor service and set {@link ConstraintSolverSettingsDto#useWorkStealing} in order that
+     * the constraint solver uses work stealing. The issue reporter of the engine is set as
+     * {@link ConstraintSolverSettingsDto#issueReporter} of the given settings.
+     */
+    public HardCodedInferenceEngineInitialiser(
+            ITSPHPAstAdaptor theAstAdaptor,
+            IAstHelper astHelper,
+            ISymbolsInitialiser symbolsInitialiser,
+            ICoreInitialiser coreInitialiser,
+            ExecutorService theExecutorService,
+            ConstraintSolverSettingsDto constraintSolverSettings) {
 
         scopeHelper = symbolsInitialiser.getScopeHelper();
         modifierHelper = symbolsInitialiser.getModifierHelper();
@@ -94,7 +119,8 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
         symbolFactory = symbolsInitialiser.getSymbolFactory();
         scopeFactory = symbolsInitialiser.getScopeFactory();
 
-        inferenceIssueReporter = new InferenceIssueReporter(new HardCodedIssueMessageProvider());
+        InferenceIssueReporter issueReporter = new InferenceIssueReporter(new HardCodedIssueMessageProvider());
+        inferenceIssueReporter = issueReporter;
         constraintCreator = new ConstraintCreator(symbolFactory);
 
         astModificationHelper = new AstModificationHelper(astHelper);
@@ -103,16 +129,19 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
         additionalSymbolResolvers.add(coreInitialiser.getCoreSymbolResolver());
 
         IMostSpecificOverloadDecider mostSpecificOverloadDecider
-                = new MostSpecificOverloadDecider(symbolFactory, typeHelper);
+                = new MostSpecificOverloadDecider(symbolFactory, typeHelper, constraintSolverSettings.metricsListener);
 
         methodsWithDependents = new ConcurrentHashMap<>();
         dependentMethods = new ConcurrentHashMap<>();
         directDependencies = new ConcurrentHashMap<>();
+        overloadApplicabilityCache = new OverloadApplicabilityCache();
 
         IConstraintSolverHelper constraintSolverHelper = new ConstraintSolverHelper(
                 symbolFactory,
                 typeHelper,
-                mostSpecificOverloadDecider
+                mostSpecificOverloadDecider,
+                overloadApplicabilityCache,
+                constraintSolverSettings.metricsListener
         );
 
         ISoftTypingConstraintSolver softTypingConstraintSolver = new SoftTypingConstraintSolver(
@@ -120,9 +149,17 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
                 typeHelper,
                 inferenceIssueReporter,
                 constraintSolverHelper,
-                mostSpecificOverloadDecider
+                mostSpecificOverloadDecider,
+                constraintSolverSettings.metricsListener
         );
 
+        constraintSolverSettings.issueReporter = issueReporter;
+        PersistentSignatureCache signatureCache = null;
+        if (constraintSolverSettings.signatureCacheFile != null) {
+            signatureCache = new PersistentSignatureCache(
+                    constraintSolverSettings.signatureCacheFile, symbolFactory, core.getPrimitiveTypes());
+        }
+
         constraintSolver = new ConstraintSolver(
                 symbolFactory,
                 softTypingConstraintSolver,
@@ -130,12 +167,18 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
                 executorService,
                 directDependencies,
                 methodsWithDependents,
-                dependentMethods);
+                dependentMethods,
+                constraintSolverSettings,
+                signatureCache);
 
         init();
 
         engine = new InferenceEngine(
-                theAstAdaptor, inferenceIssueReporter, definitionPhaseController, referencePhaseController);
+                theAstAdaptor,
+                inferenceIssueReporter,
+                definitionPhaseController,
+                referencePhaseController,
+                executorService);
     }
 
     private void init() {
@@ -179,8 +222,12 @@ public class HardCodedInferenceEngineInitialiser implements IInferenceEngineInit
         methodsWithDependents.clear();
         dependentMethods.clear();
         directDependencies.clear();
+        //the overloads of user defined functions are recreated, entries for them would only occupy memory
+        overloadApplicabilityCache.clear();
+        constraintSolver.reset();
 
         inferenceIssueReporter.reset();
+        //the core is not rebuilt, it is immutable. Only the controllers which hold the state of a run are recreated
         init();
         engine.setDefinitionPhaseController(definitionPhaseController);
         engine.setReferencePhaseController(referencePhaseController);
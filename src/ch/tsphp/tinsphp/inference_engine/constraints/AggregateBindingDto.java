@@ -24,9 +24,9 @@ public class AggregateBindingDto
     public IBindingCollection bindings;
     public WorkItemDto workItemDto;
     public int iterateCount = 0;
-    public Map<String, ITypeVariableReference> mapping;
+    public TypeVariableMapping mapping;
     public IVariable bindingVariable;
-    public String overloadVariableId;
+    public int overloadTypeVariableIndex;
     public boolean needToReIterate;
     /**
      * Key equals argument number, and pair corresponds [argument type, implicit conversion provider].
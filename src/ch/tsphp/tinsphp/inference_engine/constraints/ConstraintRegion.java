@@ -0,0 +1,60 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of the constraints of a constraint collection which does not share variables with the remaining constraints
+ * and can hence be solved on its own. It has the same absolute name as the constraint collection it belongs to.
+ */
+public class ConstraintRegion implements IConstraintCollection
+{
+    private final IConstraintCollection constraintCollection;
+    private final List<IConstraint> constraints;
+    private List<IBindingCollection> bindings = new ArrayList<>(1);
+
+    public ConstraintRegion(IConstraintCollection theConstraintCollection, List<IConstraint> theConstraints) {
+        constraintCollection = theConstraintCollection;
+        constraints = theConstraints;
+    }
+
+    @Override
+    public String getAbsoluteName() {
+        return constraintCollection.getAbsoluteName();
+    }
+
+    @Override
+    public List<IConstraint> getConstraints() {
+        return constraints;
+    }
+
+    @Override
+    public void addConstraint(IConstraint constraint) {
+        constraints.add(constraint);
+    }
+
+    @Override
+    public List<IBindingCollection> getBindings() {
+        return bindings;
+    }
+
+    @Override
+    public void addBindingCollection(IBindingCollection bindingCollection) {
+        bindings.add(bindingCollection);
+    }
+
+    @Override
+    public void setBindings(List<IBindingCollection> theBindings) {
+        bindings = theBindings;
+    }
+}
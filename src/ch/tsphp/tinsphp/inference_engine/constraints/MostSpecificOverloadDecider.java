@@ -8,6 +8,7 @@ package ch.tsphp.tinsphp.inference_engine.constraints;
 
 import ch.tsphp.common.symbols.ITypeSymbol;
 import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
 import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
 import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
 import ch.tsphp.tinsphp.common.symbols.IIntersectionTypeSymbol;
@@ -17,24 +18,45 @@ import ch.tsphp.tinsphp.common.utils.ERelation;
 import ch.tsphp.tinsphp.common.utils.ITypeHelper;
 import ch.tsphp.tinsphp.common.utils.Pair;
 import ch.tsphp.tinsphp.common.utils.TypeHelperDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+import ch.tsphp.tinsphp.inference_engine.metrics.NoOpSolverMetricsListener;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import static ch.tsphp.tinsphp.common.utils.Pair.pair;
 
 public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
 {
+    public static final int MAXIMUM_NUMBER_OF_CACHED_DECISIONS = 10000;
 
     private final ISymbolFactory symbolFactory;
     private final ITypeHelper typeHelper;
     private final ITypeSymbol mixedTypeSymbol;
+    private final ISolverMetricsListener metricsListener;
+    private final Map<DecisionKey, Integer> decisions = Collections.synchronizedMap(new DecisionCache());
+    /**
+     * Fixed copies of overloads, function types do not override equals, hence it is an identity map. Temp overloads
+     * are recreated for each iteration in the iterative mode and thus get a new fixed copy per iteration.
+     */
+    private final Map<IFunctionType, IFunctionType> fixedOverloadCopies
+            = Collections.synchronizedMap(new WeakHashMap<IFunctionType, IFunctionType>());
 
     public MostSpecificOverloadDecider(ISymbolFactory theSymbolFactory, ITypeHelper theTypeHelper) {
+        this(theSymbolFactory, theTypeHelper, new NoOpSolverMetricsListener());
+    }
+
+    public MostSpecificOverloadDecider(
+            ISymbolFactory theSymbolFactory, ITypeHelper theTypeHelper, ISolverMetricsListener theMetricsListener) {
         symbolFactory = theSymbolFactory;
         typeHelper = theTypeHelper;
+        metricsListener = theMetricsListener;
         mixedTypeSymbol = symbolFactory.getMixedTypeSymbol();
     }
 
@@ -45,25 +67,90 @@ public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
         List<OverloadRankingDto> overloadRankingDtos = preFilterOverloads(workItemDto, applicableOverloads);
         OverloadRankingDto overloadRankingDto = overloadRankingDtos.get(0);
         if (overloadRankingDtos.size() > 1) {
-            overloadRankingDtos = fixOverloads(workItemDto, overloadRankingDtos);
-            overloadRankingDtos = filterOverloads(overloadRankingDtos);
-            overloadRankingDto = overloadRankingDtos.get(0);
-            if (overloadRankingDtos.size() > 1) {
+            DecisionKey decisionKey = createDecisionKey(workItemDto, overloadRankingDtos);
+            Integer index = decisionKey != null ? decisions.get(decisionKey) : null;
+            if (index != null) {
+                overloadRankingDto = overloadRankingDtos.get(index);
+            } else {
+                overloadRankingDto = decide(workItemDto, overloadRankingDtos, argumentTypes);
+                if (decisionKey != null) {
+                    rememberDecision(decisionKey, overloadRankingDtos, overloadRankingDto);
+                }
+            }
+        }
+        return overloadRankingDto;
+    }
 
-                int numberOfParameters = overloadRankingDto.overload.getParameters().size();
-                List<Pair<ITypeSymbol, ITypeSymbol>> bounds = getParameterBounds(
-                        overloadRankingDtos, numberOfParameters);
+    private OverloadRankingDto decide(
+            WorkItemDto workItemDto, List<OverloadRankingDto> preFilteredDtos, List<ITypeSymbol> argumentTypes) {
+        List<OverloadRankingDto> overloadRankingDtos = fixOverloads(workItemDto, preFilteredDtos);
+        overloadRankingDtos = filterOverloads(overloadRankingDtos);
+        OverloadRankingDto overloadRankingDto = overloadRankingDtos.get(0);
+        if (overloadRankingDtos.size() > 1) {
 
-                overloadRankingDtos = getMostSpecificApplicableOverload(overloadRankingDtos, bounds);
-                overloadRankingDto = overloadRankingDtos.get(0);
-                if (overloadRankingDtos.size() != 1 && !workItemDto.isInIterativeMode) {
-                    throw new AmbiguousOverloadException(argumentTypes, overloadRankingDtos);
-                }
+            int numberOfParameters = overloadRankingDto.overload.getParameters().size();
+            List<Pair<ITypeSymbol, ITypeSymbol>> bounds = getParameterBounds(
+                    overloadRankingDtos, numberOfParameters);
+
+            overloadRankingDtos = getMostSpecificApplicableOverload(overloadRankingDtos, bounds);
+            overloadRankingDto = overloadRankingDtos.get(0);
+            if (overloadRankingDtos.size() != 1 && !workItemDto.isInIterativeMode) {
+                throw new AmbiguousOverloadException(argumentTypes, overloadRankingDtos);
             }
         }
         return overloadRankingDto;
     }
 
+    /**
+     * Creates the key under which the decision for the given overloads is cached or returns null if the decision
+     * cannot be cached.
+     * <p/>
+     * The ranking depends on the bounds of the overloads as such and on how they were applied (narrowed arguments,
+     * implicit conversions) but not on the bindings of the work item. Overloads which were not yet simplified
+     * (iterative mode) still change, hence decisions involving them are not cached.
+     */
+    private DecisionKey createDecisionKey(WorkItemDto workItemDto, List<OverloadRankingDto> overloadRankingDtos) {
+        DecisionKey decisionKey = null;
+        if (!workItemDto.isInIterativeMode) {
+            int size = overloadRankingDtos.size();
+            IFunctionType[] overloads = new IFunctionType[size];
+            int[] applications = new int[size];
+            boolean allSimplified = true;
+            for (int i = 0; allSimplified && i < size; ++i) {
+                OverloadRankingDto dto = overloadRankingDtos.get(i);
+                allSimplified = dto.overload.wasSimplified();
+                overloads[i] = dto.overload;
+                int numberOfImplicitConversions = dto.implicitConversions == null ? 0 : dto.implicitConversions.size();
+                applications[i] = dto.hasNarrowedArguments
+                        ? -1 - numberOfImplicitConversions
+                        : numberOfImplicitConversions;
+            }
+            if (allSimplified) {
+                decisionKey = new DecisionKey(overloads, applications);
+            }
+        }
+        return decisionKey;
+    }
+
+    private void rememberDecision(
+            DecisionKey decisionKey, List<OverloadRankingDto> preFilteredDtos, OverloadRankingDto decision) {
+        //decision might be a fixed copy, it shares the bindings with the dto it was created from though
+        int index = -1;
+        boolean isUnique = true;
+        int size = preFilteredDtos.size();
+        for (int i = 0; isUnique && i < size; ++i) {
+            OverloadRankingDto dto = preFilteredDtos.get(i);
+            if (dto == decision || dto.bindings == decision.bindings) {
+                //we rather do not cache it if it is not unique
+                isUnique = index == -1;
+                index = i;
+            }
+        }
+        if (isUnique && index != -1) {
+            decisions.put(decisionKey, index);
+        }
+    }
+
     //Warning! start code duplication, more or less the same as in inNormalMode
     @Override
     public List<OverloadRankingDto> inSoftTypingMode(
@@ -147,9 +234,9 @@ public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
         for (OverloadRankingDto dto : applicableOverloads) {
             OverloadRankingDto overloadRankingDto;
             if (dto.overload.wasSimplified()) {
-                overloadRankingDto = fixOverload(dto);
+                overloadRankingDto = fixOverload(workItemDto.constraintCollection, dto);
             } else if (workItemDto.isInIterativeMode) {
-                overloadRankingDto = fixOverloadInIterativeMode(dto);
+                overloadRankingDto = fixOverloadInIterativeMode(workItemDto.constraintCollection, dto);
             } else {
                 throw new IllegalStateException("function " + dto.overload.getName() + " was not simplified "
                         + "and we are not in iterative mode.");
@@ -162,16 +249,21 @@ public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
     }
 
 
-    private OverloadRankingDto fixOverload(OverloadRankingDto dto) {
+    private OverloadRankingDto fixOverload(IConstraintCollection constraintCollection, OverloadRankingDto dto) {
         OverloadRankingDto fixedDto = dto;
 
         IFunctionType overload = dto.overload;
         if (!overload.isFixed()) {
-            Collection<String> nonFixedTypeParameters = new ArrayList<>(overload.getNonFixedTypeParameters());
-            IFunctionType copyOverload = copyAndFixOverload(overload);
+            IFunctionType copyOverload = fixedOverloadCopies.get(overload);
+            if (copyOverload == null) {
+                copyOverload = copyAndFixOverload(overload);
+                metricsListener.bindingCollectionCopied(constraintCollection);
+                //another thread might have fixed the same overload in the meantime, both copies are equivalent
+                fixedOverloadCopies.put(overload, copyOverload);
+            }
 
             fixedDto = new OverloadRankingDto(dto, copyOverload);
-            fixedDto.numberOfTypeParameters = nonFixedTypeParameters.size();
+            fixedDto.numberOfTypeParameters = overload.getNonFixedTypeParameters().size();
         }
         fixedDto.usesConvertibleTypes = overload.hasConvertibleParameterTypes();
         return fixedDto;
@@ -195,12 +287,19 @@ public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
         return copyOverload;
     }
 
-    private OverloadRankingDto fixOverloadInIterativeMode(OverloadRankingDto dto) {
-        IBindingCollection bindingCollection = symbolFactory.createBindingCollection(dto.overload
-                .getBindingCollection());
-        bindingCollection.fixTypeParameters();
-        IFunctionType copyOverload = symbolFactory.createFunctionType(
-                dto.overload.getName(), bindingCollection, dto.overload.getParameters());
+    private OverloadRankingDto fixOverloadInIterativeMode(
+            IConstraintCollection constraintCollection, OverloadRankingDto dto) {
+        IFunctionType overload = dto.overload;
+        IFunctionType copyOverload = fixedOverloadCopies.get(overload);
+        if (copyOverload == null) {
+            IBindingCollection bindingCollection = symbolFactory.createBindingCollection(
+                    overload.getBindingCollection());
+            metricsListener.bindingCollectionCopied(constraintCollection);
+            bindingCollection.fixTypeParameters();
+            copyOverload = symbolFactory.createFunctionType(
+                    overload.getName(), bindingCollection, overload.getParameters());
+            fixedOverloadCopies.put(overload, copyOverload);
+        }
 
         return new OverloadRankingDto(dto, copyOverload);
     }
@@ -351,4 +450,69 @@ public class MostSpecificOverloadDecider implements IMostSpecificOverloadDecider
         }
         return diff;
     }
+
+    /**
+     * Keeps the most recently used decisions, the least recently used one is dropped once the maximum is reached.
+     */
+    private static final class DecisionCache extends LinkedHashMap<DecisionKey, Integer>
+    {
+        private static final int INITIAL_CAPACITY = 16;
+        private static final float LOAD_FACTOR = 0.75f;
+
+        DecisionCache() {
+            super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DecisionKey, Integer> eldest) {
+            return size() > MAXIMUM_NUMBER_OF_CACHED_DECISIONS;
+        }
+    }
+
+    /**
+     * Identifies a decision by the identity of the candidate overloads (in order) and how they were applied.
+     */
+    private static final class DecisionKey
+    {
+        private static final int HASH_MULTIPLIER = 31;
+
+        private final IFunctionType[] overloads;
+        private final int[] applications;
+        private final int hashCode;
+
+        DecisionKey(IFunctionType[] theOverloads, int[] theApplications) {
+            overloads = theOverloads;
+            applications = theApplications;
+            int hash = Arrays.hashCode(applications);
+            for (IFunctionType overload : overloads) {
+                hash = HASH_MULTIPLIER * hash + System.identityHashCode(overload);
+            }
+            hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey key = (DecisionKey) obj;
+            if (overloads.length != key.overloads.length || !Arrays.equals(applications, key.applications)) {
+                return false;
+            }
+            for (int i = 0; i < overloads.length; ++i) {
+                if (overloads[i] != key.overloads[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
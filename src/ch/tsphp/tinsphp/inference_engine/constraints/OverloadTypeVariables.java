@@ -0,0 +1,132 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints;
+
+import ch.tsphp.tinsphp.common.TinsPHPConstants;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interns the type variables of an overload to dense indices.
+ * <p/>
+ * Covers the type variables of the return variable and the parameters as well as the type variables they refer to
+ * via lower or upper reference bounds. Other type variables (e.g. type parameters of parametric types) have no index.
+ * The lower reference bounds of the interned type variables are resolved to indices as well, so that applying an
+ * overload does not need to look them up by name.
+ */
+public class OverloadTypeVariables
+{
+    public static final int NO_INDEX = -1;
+
+    private static final int[] NO_INDICES = new int[0];
+
+    private final List<String> typeVariables = new ArrayList<>();
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final int[][] lowerRefBoundIndices;
+    private final int returnTypeVariableIndex;
+    private final int[] parameterTypeVariableIndices;
+
+    public OverloadTypeVariables(IFunctionType overload) {
+        IBindingCollection bindings = overload.getBindingCollection();
+        Deque<String> typeVariablesToVisit = new ArrayDeque<>();
+
+        returnTypeVariableIndex = intern(
+                bindings.getTypeVariable(TinsPHPConstants.RETURN_VARIABLE_NAME), typeVariablesToVisit);
+        List<IVariable> parameters = overload.getParameters();
+        int numberOfParameters = parameters.size();
+        parameterTypeVariableIndices = new int[numberOfParameters];
+        for (int i = 0; i < numberOfParameters; ++i) {
+            String typeVariable = bindings.getTypeVariable(parameters.get(i).getAbsoluteName());
+            parameterTypeVariableIndices[i] = intern(typeVariable, typeVariablesToVisit);
+        }
+
+        while (!typeVariablesToVisit.isEmpty()) {
+            String typeVariable = typeVariablesToVisit.pop();
+            if (bindings.hasLowerRefBounds(typeVariable)) {
+                for (String refTypeVariable : bindings.getLowerRefBounds(typeVariable)) {
+                    intern(refTypeVariable, typeVariablesToVisit);
+                }
+            }
+            if (bindings.hasUpperRefBounds(typeVariable)) {
+                for (String refTypeVariable : bindings.getUpperRefBounds(typeVariable)) {
+                    intern(refTypeVariable, typeVariablesToVisit);
+                }
+            }
+        }
+
+        int size = typeVariables.size();
+        lowerRefBoundIndices = new int[size][];
+        for (int i = 0; i < size; ++i) {
+            lowerRefBoundIndices[i] = resolveLowerRefBounds(bindings, typeVariables.get(i));
+        }
+    }
+
+    private int[] resolveLowerRefBounds(IBindingCollection bindings, String typeVariable) {
+        int[] refIndices = NO_INDICES;
+        if (bindings.hasLowerRefBounds(typeVariable)) {
+            Set<String> refTypeVariables = bindings.getLowerRefBounds(typeVariable);
+            refIndices = new int[refTypeVariables.size()];
+            int i = 0;
+            for (String refTypeVariable : refTypeVariables) {
+                refIndices[i++] = indices.get(refTypeVariable);
+            }
+        }
+        return refIndices;
+    }
+
+    private int intern(String typeVariable, Deque<String> typeVariablesToVisit) {
+        Integer index = indices.get(typeVariable);
+        if (index == null) {
+            index = typeVariables.size();
+            typeVariables.add(typeVariable);
+            indices.put(typeVariable, index);
+            typeVariablesToVisit.add(typeVariable);
+        }
+        return index;
+    }
+
+    public int size() {
+        return typeVariables.size();
+    }
+
+    /**
+     * Returns the index of the given type variable or NO_INDEX if it was not interned.
+     */
+    public int getIndex(String typeVariable) {
+        Integer index = indices.get(typeVariable);
+        return index != null ? index : NO_INDEX;
+    }
+
+    public String getTypeVariable(int index) {
+        return typeVariables.get(index);
+    }
+
+    /**
+     * Returns the indices of the lower reference bounds of the type variable with the given index, in the order the
+     * binding collection of the overload returns them.
+     */
+    public int[] getLowerRefBoundIndices(int index) {
+        return lowerRefBoundIndices[index];
+    }
+
+    public int getReturnTypeVariableIndex() {
+        return returnTypeVariableIndex;
+    }
+
+    public int getParameterTypeVariableIndex(int parameterNumber) {
+        return parameterTypeVariableIndices[parameterNumber];
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints;
+
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the type variables of an overload to the type variable references of the bindings the overload is applied to.
+ * <p/>
+ * Interned type variables (see {@link OverloadTypeVariables}) are stored in an array, the others in an overflow map
+ * which is only created if needed.
+ */
+public class TypeVariableMapping
+{
+    private final OverloadTypeVariables overloadTypeVariables;
+    private final ITypeVariableReference[] references;
+    private Map<String, ITypeVariableReference> overflow;
+
+    public TypeVariableMapping(OverloadTypeVariables theOverloadTypeVariables) {
+        overloadTypeVariables = theOverloadTypeVariables;
+        references = new ITypeVariableReference[overloadTypeVariables.size()];
+    }
+
+    public OverloadTypeVariables getOverloadTypeVariables() {
+        return overloadTypeVariables;
+    }
+
+    public ITypeVariableReference get(int index) {
+        return references[index];
+    }
+
+    public void put(int index, ITypeVariableReference reference) {
+        references[index] = reference;
+    }
+
+    public boolean containsKey(String typeVariable) {
+        return get(typeVariable) != null;
+    }
+
+    public ITypeVariableReference get(String typeVariable) {
+        int index = overloadTypeVariables.getIndex(typeVariable);
+        if (index != OverloadTypeVariables.NO_INDEX) {
+            return references[index];
+        }
+        return overflow != null ? overflow.get(typeVariable) : null;
+    }
+
+    public void put(String typeVariable, ITypeVariableReference reference) {
+        int index = overloadTypeVariables.getIndex(typeVariable);
+        if (index != OverloadTypeVariables.NO_INDEX) {
+            references[index] = reference;
+        } else {
+            if (overflow == null) {
+                overflow = new HashMap<>(2);
+            }
+            overflow.put(typeVariable, reference);
+        }
+    }
+
+    public void putAll(Map<String, ITypeVariableReference> mapping) {
+        for (Map.Entry<String, ITypeVariableReference> entry : mapping.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+}
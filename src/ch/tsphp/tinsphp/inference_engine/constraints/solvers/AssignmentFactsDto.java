@@ -0,0 +1,26 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import java.util.Map;
+import java.util.Set;
+
+public class AssignmentFactsDto
+{
+    public final Map<String, Integer> numberOfDefinitions;
+    public final Set<String> usedByOtherConstraints;
+    public final Set<String> signatureVariables;
+
+    public AssignmentFactsDto(
+            Map<String, Integer> theNumberOfDefinitions,
+            Set<String> theUsedByOtherConstraints,
+            Set<String> theSignatureVariables) {
+        numberOfDefinitions = theNumberOfDefinitions;
+        usedByOtherConstraints = theUsedByOtherConstraints;
+        signatureVariables = theSignatureVariables;
+    }
+}
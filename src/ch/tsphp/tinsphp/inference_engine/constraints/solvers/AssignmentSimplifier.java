@@ -0,0 +1,189 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IExpressionVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static ch.tsphp.tinsphp.common.TinsPHPConstants.RETURN_VARIABLE_NAME;
+
+/**
+ * Eliminates trivial ref constraints (lhs = rhs using the identity overload, e.g. the ones created for return
+ * statements) by unifying the lhs with the rhs, i.e. the lhs is replaced by the rhs in the remaining constraints.
+ * <p/>
+ * Only expression variables which are defined by this single ref constraint are eliminated, hence the lhs does not
+ * have other lower bounds and is not visible outside of the constraint collection. The rhs must not be the return
+ * variable (direct recursion) and a literal is only substituted if the lhs is used by ref constraints exclusively,
+ * otherwise operators would be applied to a literal instead of a variable. Assignments in the code are not
+ * eliminated since the assign operator supports implicit conversions.
+ */
+public class AssignmentSimplifier
+{
+    private final ISymbolFactory symbolFactory;
+
+    public AssignmentSimplifier(ISymbolFactory theSymbolFactory) {
+        symbolFactory = theSymbolFactory;
+    }
+
+    /**
+     * Simplifies the constraints of the given collection in place and returns the eliminated variables mapped to
+     * the absolute name of the variable which replaced them.
+     */
+    public Map<String, String> simplify(IConstraintCollection constraintCollection) {
+        List<IConstraint> constraints = constraintCollection.getConstraints();
+        Map<String, Integer> numberOfDefinitions = new HashMap<>();
+        Set<String> usedByOtherConstraints = new HashSet<>();
+        for (IConstraint constraint : constraints) {
+            String lhs = constraint.getLeftHandSide().getAbsoluteName();
+            Integer count = numberOfDefinitions.get(lhs);
+            numberOfDefinitions.put(lhs, count == null ? 1 : count + 1);
+            if (!isRefConstraint(constraint)) {
+                for (IVariable argument : constraint.getArguments()) {
+                    usedByOtherConstraints.add(argument.getAbsoluteName());
+                }
+            }
+        }
+
+        AssignmentFactsDto facts = new AssignmentFactsDto(
+                numberOfDefinitions, usedByOtherConstraints, getSignatureVariables(constraintCollection));
+        Map<String, IVariable> replacements = new HashMap<>();
+        List<IConstraint> remainingConstraints = new ArrayList<>(constraints.size());
+        for (IConstraint constraint : constraints) {
+            if (isRefConstraint(constraint)) {
+                //resolved already, hence chains are collapsed and cycles detected
+                IVariable rhs = resolve(replacements, constraint.getArguments().get(1));
+                if (isEliminable(constraint.getLeftHandSide(), rhs, facts)) {
+                    replacements.put(constraint.getLeftHandSide().getAbsoluteName(), rhs);
+                    continue;
+                }
+            }
+            remainingConstraints.add(constraint);
+        }
+
+        Map<String, String> eliminatedVariables = new HashMap<>();
+        if (!replacements.isEmpty()) {
+            for (String variableId : replacements.keySet()) {
+                IVariable replacement = resolve(replacements, replacements.get(variableId));
+                eliminatedVariables.put(variableId, replacement.getAbsoluteName());
+            }
+            constraints.clear();
+            for (IConstraint constraint : remainingConstraints) {
+                constraints.add(substitute(constraint, replacements));
+            }
+        }
+        return eliminatedVariables;
+    }
+
+    /**
+     * Adds the eliminated variables to the given bindings, they share the type variable of the variable which
+     * replaced them.
+     */
+    public void addEliminatedVariables(IBindingCollection bindings, Map<String, String> eliminatedVariables) {
+        for (Map.Entry<String, String> entry : eliminatedVariables.entrySet()) {
+            String variableId = entry.getKey();
+            String replacement = entry.getValue();
+            if (!bindings.containsVariable(variableId) && bindings.containsVariable(replacement)) {
+                bindings.addVariable(variableId, bindings.getTypeVariableReference(replacement));
+            }
+        }
+    }
+
+    private boolean isRefConstraint(IConstraint constraint) {
+        List<IVariable> arguments = constraint.getArguments();
+        return constraint.getMethodSymbol().getAbsoluteName().equals("=")
+                && arguments.size() == 2
+                && arguments.get(0) == constraint.getLeftHandSide();
+    }
+
+    private boolean isEliminable(IVariable lhs, IVariable rhs, AssignmentFactsDto facts) {
+        return isSubstitutable(lhs, rhs) && isLocalDefinition(lhs, rhs, facts);
+    }
+
+    private boolean isSubstitutable(IVariable lhs, IVariable rhs) {
+        return isUntypedExpressionVariable(lhs) && (isLiteral(rhs) || !(rhs instanceof IExpressionVariableSymbol));
+    }
+
+    private boolean isLocalDefinition(IVariable lhs, IVariable rhs, AssignmentFactsDto facts) {
+        return isDefinedOnlyOnce(lhs, rhs, facts)
+                && !isPartOfSignature(lhs, rhs, facts)
+                && (!isLiteral(rhs) || !facts.usedByOtherConstraints.contains(lhs.getAbsoluteName()));
+    }
+
+    private boolean isLiteral(IVariable variable) {
+        return variable.getType() != null && !variable.getName().startsWith("$");
+    }
+
+    private boolean isUntypedExpressionVariable(IVariable variable) {
+        return variable instanceof IExpressionVariableSymbol && variable.getType() == null;
+    }
+
+    private boolean isDefinedOnlyOnce(IVariable lhs, IVariable rhs, AssignmentFactsDto facts) {
+        String lhsId = lhs.getAbsoluteName();
+        return facts.numberOfDefinitions.get(lhsId) == 1 && !lhsId.equals(rhs.getAbsoluteName());
+    }
+
+    private boolean isPartOfSignature(IVariable lhs, IVariable rhs, AssignmentFactsDto facts) {
+        return facts.signatureVariables.contains(lhs.getAbsoluteName())
+                || facts.signatureVariables.contains(rhs.getAbsoluteName());
+    }
+
+    private Set<String> getSignatureVariables(IConstraintCollection constraintCollection) {
+        Set<String> signatureVariables = new HashSet<>();
+        if (constraintCollection instanceof IMethodSymbol) {
+            IMethodSymbol methodSymbol = (IMethodSymbol) constraintCollection;
+            for (IVariableSymbol parameter : methodSymbol.getParameters()) {
+                signatureVariables.add(parameter.getAbsoluteName());
+            }
+            IMinimalVariableSymbol returnVariable = methodSymbol.getReturnVariable();
+            if (returnVariable != null) {
+                signatureVariables.add(returnVariable.getAbsoluteName());
+            }
+        }
+        signatureVariables.add(RETURN_VARIABLE_NAME);
+        return signatureVariables;
+    }
+
+    private IVariable resolve(Map<String, IVariable> replacements, IVariable variable) {
+        IVariable current = variable;
+        IVariable replacement = replacements.get(current.getAbsoluteName());
+        while (replacement != null) {
+            current = replacement;
+            replacement = replacements.get(current.getAbsoluteName());
+        }
+        return current;
+    }
+
+    private IConstraint substitute(IConstraint constraint, Map<String, IVariable> replacements) {
+        boolean isChanged = false;
+        List<IVariable> arguments = new ArrayList<>(constraint.getArguments().size());
+        for (IVariable argument : constraint.getArguments()) {
+            IVariable variable = resolve(replacements, argument);
+            isChanged = isChanged || variable != argument;
+            arguments.add(variable);
+        }
+        IConstraint newConstraint = constraint;
+        if (isChanged) {
+            newConstraint = symbolFactory.createConstraint(
+                    constraint.getOperator(), constraint.getLeftHandSide(), arguments, constraint.getMethodSymbol());
+        }
+        return newConstraint;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.EBindingCollectionMode;
+import ch.tsphp.tinsphp.common.inference.constraints.FixedTypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.OverloadApplicationDto;
+import ch.tsphp.tinsphp.common.symbols.IContainerTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IIntersectionTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IUnionTypeSymbol;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Merges binding collections which do not share variables into one binding collection.
+ * <p/>
+ * The type variables of the merged binding collection are renamed to fresh type variables of the target, hence
+ * binding collections which use the same names for different type variables (e.g. the ones of independently solved
+ * regions) can be merged. Variables are processed in sorted order which makes the names deterministic.
+ * <p/>
+ * Helper variables, which the solver creates during solving, are not taken over. Their names are only unique within
+ * a binding collection and they are not visible outside the solver.
+ * <p/>
+ * The type bounds are copied into new containers, hence modifying the bounds of the merged binding collection does
+ * not affect the source and vice versa.
+ */
+public class BindingCollectionMerger
+{
+    //see BindingCollection.createHelperVariable
+    private static final String HELPER_VARIABLE_PREFIX = "!help";
+
+    private final ISymbolFactory symbolFactory;
+
+    public BindingCollectionMerger(ISymbolFactory theSymbolFactory) {
+        symbolFactory = theSymbolFactory;
+    }
+
+    public void merge(IBindingCollection source, IBindingCollection target) {
+        Map<String, ITypeVariableReference> typeVariables = new LinkedHashMap<>();
+        for (String variableId : new TreeSet<>(source.getVariableIds())) {
+            if (variableId.startsWith(HELPER_VARIABLE_PREFIX)) {
+                continue;
+            }
+            if (target.containsVariable(variableId)) {
+                throw new IllegalArgumentException("variable " + variableId + " is bound in both binding collections.");
+            }
+            ITypeVariableReference sourceReference = source.getTypeVariableReference(variableId);
+            String typeVariable = sourceReference.getTypeVariable();
+            ITypeVariableReference reference = typeVariables.get(typeVariable);
+            if (reference == null) {
+                reference = target.getNextTypeVariable();
+                typeVariables.put(typeVariable, reference);
+            }
+            if (sourceReference.hasFixedType()) {
+                target.addVariable(variableId, new FixedTypeVariableReference(reference));
+            } else {
+                target.addVariable(variableId, reference);
+            }
+            OverloadApplicationDto appliedOverload = source.getAppliedOverload(variableId);
+            if (appliedOverload != null) {
+                target.setAppliedOverload(variableId, appliedOverload);
+            }
+        }
+
+        //the bounds are already consistent, hence they are taken over as they are
+        EBindingCollectionMode originalMode = target.getMode();
+        target.setMode(EBindingCollectionMode.Modification);
+        for (Map.Entry<String, ITypeVariableReference> entry : typeVariables.entrySet()) {
+            String typeVariable = entry.getKey();
+            String newTypeVariable = entry.getValue().getTypeVariable();
+            if (source.hasLowerTypeBounds(typeVariable)) {
+                IUnionTypeSymbol lowerBounds = symbolFactory.createUnionTypeSymbol();
+                addTypeSymbols(source.getLowerTypeBounds(typeVariable), lowerBounds);
+                target.setLowerTypeBounds(newTypeVariable, lowerBounds);
+            }
+            if (source.hasUpperTypeBounds(typeVariable)) {
+                IIntersectionTypeSymbol upperBounds = symbolFactory.createIntersectionTypeSymbol();
+                addTypeSymbols(source.getUpperTypeBounds(typeVariable), upperBounds);
+                target.setUpperTypeBounds(newTypeVariable, upperBounds);
+            }
+        }
+
+        //type bounds are already in place, hence adding the ref bounds does not propagate anything new
+        for (Map.Entry<String, ITypeVariableReference> entry : typeVariables.entrySet()) {
+            Set<String> lowerRefBounds = source.getLowerRefBounds(entry.getKey());
+            if (lowerRefBounds != null) {
+                String newTypeVariable = entry.getValue().getTypeVariable();
+                for (String refTypeVariable : lowerRefBounds) {
+                    ITypeVariableReference reference = typeVariables.get(refTypeVariable);
+                    if (reference != null) {
+                        target.addLowerRefBound(newTypeVariable, reference);
+                    }
+                }
+            }
+        }
+        target.setMode(originalMode);
+    }
+
+    private void addTypeSymbols(IContainerTypeSymbol source, IContainerTypeSymbol target) {
+        for (ITypeSymbol typeSymbol : source.getTypeSymbols().values()) {
+            target.addTypeSymbol(typeSymbol);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the call graph between the given methods based on the method symbols of their constraints.
+ * <p/>
+ * Calls to methods which are not part of the graph (operators, core functions etc.) are ignored since they are
+ * already solved.
+ */
+public class CallGraph
+{
+    private final Map<String, IMethodSymbol> methodSymbols = new LinkedHashMap<>();
+    private final Map<String, Set<String>> callees = new HashMap<>();
+    private List<List<IMethodSymbol>> stronglyConnectedComponents;
+
+    public CallGraph(List<IMethodSymbol> theMethodSymbols) {
+        for (IMethodSymbol methodSymbol : theMethodSymbols) {
+            methodSymbols.put(methodSymbol.getAbsoluteName(), methodSymbol);
+        }
+        for (IMethodSymbol methodSymbol : theMethodSymbols) {
+            Set<String> calledMethods = new LinkedHashSet<>();
+            for (IConstraint constraint : methodSymbol.getConstraints()) {
+                String calledMethod = constraint.getMethodSymbol().getAbsoluteName();
+                if (methodSymbols.containsKey(calledMethod)) {
+                    calledMethods.add(calledMethod);
+                }
+            }
+            callees.put(methodSymbol.getAbsoluteName(), calledMethods);
+        }
+    }
+
+    /**
+     * Returns the methods of this graph which are called by the given method.
+     */
+    public Set<String> getCallees(String methodName) {
+        return callees.get(methodName);
+    }
+
+    /**
+     * Returns the strongly connected components of this graph where callees come before their callers.
+     */
+    public List<List<IMethodSymbol>> getStronglyConnectedComponents() {
+        if (stronglyConnectedComponents == null) {
+            stronglyConnectedComponents = calculateStronglyConnectedComponents();
+        }
+        return stronglyConnectedComponents;
+    }
+
+    /**
+     * Tarjan's algorithm, implemented iteratively since call chains can be longer than the call stack allows.
+     * <p/>
+     * Tarjan's algorithm completes a component only after all components reachable from it, hence the components
+     * are already in the order callees before callers.
+     */
+    private List<List<IMethodSymbol>> calculateStronglyConnectedComponents() {
+        List<List<IMethodSymbol>> components = new ArrayList<>();
+        Map<String, Integer> indices = new HashMap<>();
+        Map<String, Integer> lowLinks = new HashMap<>();
+        Set<String> onStack = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        Deque<String> callStack = new ArrayDeque<>();
+        Deque<Iterator<String>> iteratorStack = new ArrayDeque<>();
+        int index = 0;
+
+        for (String root : methodSymbols.keySet()) {
+            if (indices.containsKey(root)) {
+                continue;
+            }
+
+            indices.put(root, index);
+            lowLinks.put(root, index);
+            ++index;
+            stack.push(root);
+            onStack.add(root);
+            callStack.push(root);
+            iteratorStack.push(callees.get(root).iterator());
+
+            while (!callStack.isEmpty()) {
+                String methodName = callStack.peek();
+                Iterator<String> iterator = iteratorStack.peek();
+                if (iterator.hasNext()) {
+                    String callee = iterator.next();
+                    if (!indices.containsKey(callee)) {
+                        indices.put(callee, index);
+                        lowLinks.put(callee, index);
+                        ++index;
+                        stack.push(callee);
+                        onStack.add(callee);
+                        callStack.push(callee);
+                        iteratorStack.push(callees.get(callee).iterator());
+                    } else if (onStack.contains(callee)) {
+                        lowLinks.put(methodName, Math.min(lowLinks.get(methodName), indices.get(callee)));
+                    }
+                } else {
+                    callStack.pop();
+                    iteratorStack.pop();
+                    int lowLink = lowLinks.get(methodName);
+                    if (!callStack.isEmpty()) {
+                        String caller = callStack.peek();
+                        lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLink));
+                    }
+                    if (lowLink == indices.get(methodName)) {
+                        List<IMethodSymbol> component = new ArrayList<>();
+                        String member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(methodSymbols.get(member));
+                        } while (!member.equals(methodName));
+                        components.add(component);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+}
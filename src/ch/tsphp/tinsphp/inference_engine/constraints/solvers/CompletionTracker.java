@@ -0,0 +1,100 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+/**
+ * Keeps track of tasks which are still pending and lets a thread wait until all of them are done.
+ * <p/>
+ * A task needs to be registered before it is handed over to an executor and deregisters itself once it finished.
+ * Tasks which spawn further tasks have to register them before they deregister themselves, this way the number of
+ * pending tasks does not drop to zero before the whole dependency chain has been processed. The first failure of a
+ * task wakes up the waiting thread immediately.
+ */
+public class CompletionTracker
+{
+    private final Object lock = new Object();
+    private int numberOfPendingTasks;
+    private Throwable failure;
+
+    public void register() {
+        synchronized (lock) {
+            ++numberOfPendingTasks;
+        }
+    }
+
+    public void done() {
+        synchronized (lock) {
+            --numberOfPendingTasks;
+            if (numberOfPendingTasks == 0) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public void failed(Throwable throwable) {
+        synchronized (lock) {
+            --numberOfPendingTasks;
+            if (failure == null) {
+                failure = throwable;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Wraps the given task so that it reports its completion (or its failure) to this tracker.
+     * <p/>
+     * Registers the task as well, hence the returned Runnable has to be executed exactly once. Call {@link #done()}
+     * if it cannot be handed over to an executor, otherwise {@link #awaitCompletion()} would wait for it forever.
+     */
+    public Runnable track(final Runnable task) {
+        register();
+        return new Runnable()
+        {
+            @Override
+            @SuppressWarnings("checkstyle:illegalcatch")
+            public void run() {
+                try {
+                    task.run();
+                } catch (RuntimeException | Error ex) {
+                    failed(ex);
+                    return;
+                }
+                done();
+            }
+        };
+    }
+
+    /**
+     * Blocks until all registered tasks are done or one of them failed.
+     *
+     * @throws RuntimeException wrapping the first failure of a task or an InterruptedException.
+     */
+    public void awaitCompletion() {
+        synchronized (lock) {
+            while (numberOfPendingTasks > 0 && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            if (failure != null) {
+                Throwable throwable = failure;
+                failure = null;
+                throw new RuntimeException(throwable);
+            }
+        }
+    }
+
+    public int getNumberOfPendingTasks() {
+        synchronized (lock) {
+            return numberOfPendingTasks;
+        }
+    }
+}
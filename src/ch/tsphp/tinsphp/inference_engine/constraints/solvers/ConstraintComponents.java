@@ -0,0 +1,180 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static ch.tsphp.tinsphp.common.TinsPHPConstants.RETURN_VARIABLE_NAME;
+
+/**
+ * Splits the constraints of a constraint collection into connected components, two constraints are in the same
+ * component if they share a variable (directly or via other constraints of the component).
+ * <p/>
+ * A component is local if none of its variables is a parameter or the return variable of the method, the constraints
+ * of the global default namespace are all local. Local components do not influence the signature of the method,
+ * hence work items which only differ in the bindings of a local component which is completely solved are equivalent
+ * as far as the remaining constraints are concerned.
+ */
+public class ConstraintComponents
+{
+    private final List<Set<Integer>> components = new ArrayList<>();
+    private final List<Set<String>> componentVariables = new ArrayList<>();
+    private final List<Boolean> isLocal = new ArrayList<>();
+    private final Map<Integer, Set<String>> finishedLocalVariables = new HashMap<>();
+    private final Map<Integer, Set<Integer>> finishedLocalConstraints = new HashMap<>();
+
+    public ConstraintComponents(IConstraintCollection theConstraintCollection) {
+        List<IConstraint> constraints = theConstraintCollection.getConstraints();
+        Map<String, String> parents = new HashMap<>();
+        for (IConstraint constraint : constraints) {
+            String lhs = constraint.getLeftHandSide().getAbsoluteName();
+            find(parents, lhs);
+            for (IVariable argument : constraint.getArguments()) {
+                union(parents, lhs, argument.getAbsoluteName());
+            }
+        }
+
+        Map<String, Integer> componentIndices = new LinkedHashMap<>();
+        int[] lastConstraints = new int[constraints.size()];
+        for (int i = 0; i < constraints.size(); ++i) {
+            IConstraint constraint = constraints.get(i);
+            String lhs = constraint.getLeftHandSide().getAbsoluteName();
+            String root = find(parents, lhs);
+            Integer index = componentIndices.get(root);
+            if (index == null) {
+                index = components.size();
+                componentIndices.put(root, index);
+                components.add(new HashSet<Integer>());
+                componentVariables.add(new HashSet<String>());
+                isLocal.add(true);
+            }
+            components.get(index).add(i);
+            Set<String> variables = componentVariables.get(index);
+            variables.add(lhs);
+            for (IVariable argument : constraint.getArguments()) {
+                variables.add(argument.getAbsoluteName());
+            }
+            lastConstraints[index] = i;
+        }
+
+        Set<String> signatureVariables = getSignatureVariables(theConstraintCollection);
+        for (int i = 0; i < components.size(); ++i) {
+            if (!Collections.disjoint(componentVariables.get(i), signatureVariables)) {
+                isLocal.set(i, false);
+            }
+        }
+
+        //a constraint completes at most one component, namely its own
+        Set<String> variables = new HashSet<>();
+        Set<Integer> pointers = new HashSet<>();
+        int[] lastConstraintToComponent = new int[constraints.size()];
+        Arrays.fill(lastConstraintToComponent, -1);
+        for (int i = 0; i < components.size(); ++i) {
+            if (isLocal.get(i)) {
+                lastConstraintToComponent[lastConstraints[i]] = i;
+            }
+        }
+        for (int i = 0; i < constraints.size(); ++i) {
+            int component = lastConstraintToComponent[i];
+            if (component != -1) {
+                variables.addAll(componentVariables.get(component));
+                pointers.addAll(components.get(component));
+                finishedLocalVariables.put(i + 1, new HashSet<>(variables));
+                finishedLocalConstraints.put(i + 1, new HashSet<>(pointers));
+            }
+        }
+    }
+
+    private Set<String> getSignatureVariables(IConstraintCollection constraintCollection) {
+        Set<String> signatureVariables = new HashSet<>();
+        if (constraintCollection instanceof IMethodSymbol) {
+            IMethodSymbol methodSymbol = (IMethodSymbol) constraintCollection;
+            for (IVariableSymbol parameter : methodSymbol.getParameters()) {
+                signatureVariables.add(parameter.getAbsoluteName());
+            }
+            IMinimalVariableSymbol returnVariable = methodSymbol.getReturnVariable();
+            if (returnVariable != null) {
+                signatureVariables.add(returnVariable.getAbsoluteName());
+            }
+            signatureVariables.add(RETURN_VARIABLE_NAME);
+        }
+        return signatureVariables;
+    }
+
+    private void union(Map<String, String> parents, String first, String second) {
+        String firstRoot = find(parents, first);
+        String secondRoot = find(parents, second);
+        if (!firstRoot.equals(secondRoot)) {
+            parents.put(firstRoot, secondRoot);
+        }
+    }
+
+    private String find(Map<String, String> parents, String variableId) {
+        String root = variableId;
+        String parent = parents.get(root);
+        while (parent != null) {
+            root = parent;
+            parent = parents.get(root);
+        }
+        //path compression
+        String current = variableId;
+        while (!current.equals(root)) {
+            String next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    public int getNumberOfComponents() {
+        return components.size();
+    }
+
+    /**
+     * Returns the pointers of the constraints which belong to the given component, components are ordered by their
+     * first constraint.
+     */
+    public Set<Integer> getConstraints(int component) {
+        return components.get(component);
+    }
+
+    public boolean isLocal(int component) {
+        return isLocal.get(component);
+    }
+
+    /**
+     * Returns the variables of all local components which are completely solved once the constraint before the given
+     * pointer is solved or null if no local component is completed by the constraint before the given pointer.
+     */
+    public Set<String> getFinishedLocalVariables(int pointer) {
+        return finishedLocalVariables.get(pointer);
+    }
+
+    /**
+     * Returns the pointers of the constraints of the local components returned by
+     * {@link #getFinishedLocalVariables(int)} or null if no local component is completed by the constraint before
+     * the given pointer.
+     */
+    public Set<Integer> getFinishedLocalConstraints(int pointer) {
+        return finishedLocalConstraints.get(pointer);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Orders constraints such that the most constraining ones are solved first.
+ * <p/>
+ * Constraints without variables as arguments do not branch the worklist since the most specific overload is applied,
+ * they come first. Calls to methods which are not yet solved come last. The data dependencies are respected: a
+ * constraint which uses the left hand side of another constraint (or defines a variable used or defined by another
+ * constraint) stays behind it. Ties are resolved by the original order, hence ordering constraints which are already
+ * ordered does not change anything.
+ */
+public class ConstraintOrderer
+{
+    private static final int NO_BRANCHING = 0;
+    private static final int BRANCHING = 1;
+    private static final int SOLVED = 0;
+    private static final int UNSOLVED = 1;
+
+    public List<IConstraint> order(List<IConstraint> constraints) {
+        int size = constraints.size();
+        List<List<Integer>> successors = new ArrayList<>(size);
+        int[] numberOfPredecessors = new int[size];
+        Map<String, List<Integer>> definitions = new HashMap<>();
+        Map<String, List<Integer>> usages = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            successors.add(new ArrayList<Integer>());
+            IConstraint constraint = constraints.get(i);
+            String lhs = constraint.getLeftHandSide().getAbsoluteName();
+            //a definition has to stay behind previous definitions and usages of the same variable
+            addEdges(i, definitions.get(lhs), successors, numberOfPredecessors);
+            addEdges(i, usages.get(lhs), successors, numberOfPredecessors);
+            for (IVariable argument : constraint.getArguments()) {
+                //a usage has to stay behind previous definitions
+                addEdges(i, definitions.get(argument.getAbsoluteName()), successors, numberOfPredecessors);
+            }
+            add(definitions, lhs, i);
+            for (IVariable argument : constraint.getArguments()) {
+                add(usages, argument.getAbsoluteName(), i);
+            }
+        }
+
+        final int[][] priorities = new int[size][];
+        for (int i = 0; i < size; ++i) {
+            priorities[i] = getPriority(constraints.get(i), i);
+        }
+        PriorityQueue<Integer> readyConstraints = new PriorityQueue<>(Math.max(1, size), new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer index1, Integer index2) {
+                int[] priority1 = priorities[index1];
+                int[] priority2 = priorities[index2];
+                int result = 0;
+                for (int i = 0; i < priority1.length && result == 0; ++i) {
+                    result = Integer.compare(priority1[i], priority2[i]);
+                }
+                return result;
+            }
+        });
+        for (int i = 0; i < size; ++i) {
+            if (numberOfPredecessors[i] == 0) {
+                readyConstraints.add(i);
+            }
+        }
+
+        List<IConstraint> orderedConstraints = new ArrayList<>(size);
+        while (!readyConstraints.isEmpty()) {
+            int index = readyConstraints.poll();
+            orderedConstraints.add(constraints.get(index));
+            for (int successor : successors.get(index)) {
+                --numberOfPredecessors[successor];
+                if (numberOfPredecessors[successor] == 0) {
+                    readyConstraints.add(successor);
+                }
+            }
+        }
+        return orderedConstraints;
+    }
+
+    private void addEdges(
+            int index, List<Integer> predecessors, List<List<Integer>> successors, int[] numberOfPredecessors) {
+        if (predecessors != null) {
+            for (int predecessor : predecessors) {
+                if (predecessor != index) {
+                    successors.get(predecessor).add(index);
+                    ++numberOfPredecessors[index];
+                }
+            }
+        }
+    }
+
+    private void add(Map<String, List<Integer>> map, String key, int index) {
+        List<Integer> indices = map.get(key);
+        if (indices == null) {
+            indices = new ArrayList<>();
+            map.put(key, indices);
+        }
+        indices.add(index);
+    }
+
+    private int[] getPriority(IConstraint constraint, int index) {
+        int branching = NO_BRANCHING;
+        for (IVariable argument : constraint.getArguments()) {
+            if (argument.getName().startsWith("$")) {
+                branching = BRANCHING;
+                break;
+            }
+        }
+        //methods without overloads are not yet solved and their constraints will be solved in iterative mode
+        int unsolved = constraint.getMethodSymbol().getOverloads().isEmpty() ? UNSOLVED : SOLVED;
+        return new int[]{branching, unsolved, index};
+    }
+}
@@ -6,7 +6,6 @@
 
 package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
 
-import ch.tsphp.tinsphp.common.inference.constraints.EBindingCollectionMode;
 import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
 import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
 import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
@@ -22,8 +21,9 @@ import ch.tsphp.tinsphp.common.utils.Pair;
 import ch.tsphp.tinsphp.inference_engine.constraints.TempFunctionType;
 import ch.tsphp.tinsphp.inference_engine.constraints.TempMethodSymbol;
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.issues.ISolverIssueReporter;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,12 +35,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static ch.tsphp.tinsphp.common.utils.Pair.pair;
 
@@ -50,14 +51,32 @@ public class ConstraintSolver implements IConstraintSolver
     private final ISoftTypingConstraintSolver softTypingConstraintSolver;
     private final IConstraintSolverHelper constraintSolverHelper;
     private final ExecutorService executorService;
+    private final ConstraintSolverSettingsDto settings;
     private final ConcurrentMap<String, Set<String>> methodsWithDependents;
     private final ConcurrentMap<String, Set<WorkItemDto>> dependentMethods;
     private final ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> directDependencies;
-    private final Map<String, TempMethodSymbol> tempMethodSymbols = new HashMap<>();
-
-    private final ConcurrentLinkedQueue<Future> futures = new ConcurrentLinkedQueue<>();
-    private final Set<IMethodSymbol> collectionsWhichChanged
-            = Collections.synchronizedSet(new HashSet<IMethodSymbol>());
+    private final Map<String, TempMethodSymbol> tempMethodSymbols = new ConcurrentHashMap<>();
+    private final IncrementalSolving incrementalSolving;
+    private final GlobalDefaultNamespaceSolver globalDefaultNamespaceSolver;
+    private final WorklistHelper worklistHelper;
+    private final ISolverIssueReporter issueReporter;
+    private final ISolverMetricsListener metricsListener;
+    private final WorkItemFingerprinter workItemFingerprinter = new WorkItemFingerprinter();
+    private final LocalComponentCollapser localComponentCollapser;
+    private final ConstraintOrderer constraintOrderer = new ConstraintOrderer();
+    private final AssignmentSimplifier assignmentSimplifier;
+    //variables eliminated by the assignment simplification per constraint collection
+    private final Map<String, Map<String, String>> eliminatedVariables = new ConcurrentHashMap<>();
+
+    private volatile CompletionTracker completionTracker = new CompletionTracker();
+    private volatile Map<String, MethodComponent> methodComponents = new HashMap<>();
+    private volatile boolean isRunStarted;
+
+    private final Object streamingLock = new Object();
+    //modified only while holding streamingLock, the same applies to the state of the streamed methods
+    private final Map<String, StreamedMethod> streamedMethods = new ConcurrentHashMap<>();
+    //guarded by streamingLock
+    private boolean isStreaming;
 
     @SuppressWarnings("checkstyle:parameternumber")
     public ConstraintSolver(
@@ -68,6 +87,55 @@ public class ConstraintSolver implements IConstraintSolver
             ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> theDirectDependencies,
             ConcurrentMap<String, Set<String>> theMethodsWithDependents,
             ConcurrentMap<String, Set<WorkItemDto>> theDependentMethods) {
+        this(theSymbolFactory,
+                theSoftTypingConstraintSolver,
+                theConstraintSolverHelper,
+                theExecutorService,
+                theDirectDependencies,
+                theMethodsWithDependents,
+                theDependentMethods,
+                new ConstraintSolverSettingsDto());
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public ConstraintSolver(
+            ISymbolFactory theSymbolFactory,
+            ISoftTypingConstraintSolver theSoftTypingConstraintSolver,
+            IConstraintSolverHelper theConstraintSolverHelper,
+            ExecutorService theExecutorService,
+            ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> theDirectDependencies,
+            ConcurrentMap<String, Set<String>> theMethodsWithDependents,
+            ConcurrentMap<String, Set<WorkItemDto>> theDependentMethods,
+            ConstraintSolverSettingsDto theSettings) {
+        this(theSymbolFactory,
+                theSoftTypingConstraintSolver,
+                theConstraintSolverHelper,
+                theExecutorService,
+                theDirectDependencies,
+                theMethodsWithDependents,
+                theDependentMethods,
+                theSettings,
+                null);
+    }
+
+    /**
+     * The signatures of solved methods are kept in the given signature cache, pass null if there is none.
+     */
+    @SuppressWarnings("checkstyle:parameternumber")
+    public ConstraintSolver(
+            ISymbolFactory theSymbolFactory,
+            ISoftTypingConstraintSolver theSoftTypingConstraintSolver,
+            IConstraintSolverHelper theConstraintSolverHelper,
+            ExecutorService theExecutorService,
+            ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> theDirectDependencies,
+            ConcurrentMap<String, Set<String>> theMethodsWithDependents,
+            ConcurrentMap<String, Set<WorkItemDto>> theDependentMethods,
+            ConstraintSolverSettingsDto theSettings,
+            PersistentSignatureCache theSignatureCache) {
+
+        if (theSettings.useWorkStealing && !(theExecutorService instanceof ForkJoinPool)) {
+            throw new IllegalArgumentException("work stealing requires a ForkJoinPool as executor service");
+        }
 
         symbolFactory = theSymbolFactory;
         softTypingConstraintSolver = theSoftTypingConstraintSolver;
@@ -76,49 +144,349 @@ public class ConstraintSolver implements IConstraintSolver
         directDependencies = theDirectDependencies;
         methodsWithDependents = theMethodsWithDependents;
         dependentMethods = theDependentMethods;
+        settings = theSettings;
+        issueReporter = theSettings.issueReporter;
+        metricsListener = theSettings.metricsListener;
+        assignmentSimplifier = new AssignmentSimplifier(theSymbolFactory);
+        localComponentCollapser = new LocalComponentCollapser(workItemFingerprinter, metricsListener);
+        worklistHelper = new WorklistHelper(theSymbolFactory, metricsListener);
+        incrementalSolving = new IncrementalSolving(this, theSymbolFactory, theSettings, theSignatureCache);
+        globalDefaultNamespaceSolver = new GlobalDefaultNamespaceSolver(
+                this, theSoftTypingConstraintSolver, worklistHelper, theSymbolFactory, theExecutorService, theSettings);
     }
 
     @Override
     public void solveConstraints(List<IMethodSymbol> methodSymbols, IGlobalNamespaceScope globalDefaultNamespaceScope) {
 
-        for (IMethodSymbol methodSymbol : methodSymbols) {
-            Deque<WorkItemDto> workDeque = createInitialWorklist(methodSymbol, true);
-            Future<?> future = executorService.submit(new MethodConstraintSolver(methodSymbol, workDeque));
-            futures.add(future);
-        }
+        try {
+            List<IMethodSymbol> unsolvedMethodSymbols = stopStreaming(methodSymbols);
+
+            List<MethodComponent> components = createMethodComponents(unsolvedMethodSymbols, methodSymbols);
+            for (MethodComponent component : components) {
+                if (component.numberOfUnsolvedCallees.get() == 0) {
+                    submit(component);
+                }
+            }
+            completionTracker.awaitCompletion();
 
-        waitUntilAllFeaturesAreDone();
+            //components which call a recursive component were not released since the recursive component will only
+            //be solved in the iterative mode. They register a dependency and are solved afterwards
+            for (MethodComponent component : components) {
+                submit(component);
+            }
+            completionTracker.awaitCompletion();
 
-        if (!dependentMethods.isEmpty()) {
+            if (!dependentMethods.isEmpty()) {
 //            System.out.println("******* start iterative mode *****");
-            solveConstraintsIteratively();
+                solveConstraintsIteratively();
+            }
+
+            if (!globalDefaultNamespaceScope.getConstraints().isEmpty()) {
+                solveGlobalDefaultNamespaceConstraints(globalDefaultNamespaceScope);
+            }
+
+            incrementalSolving.storeSignatures();
+        } finally {
+            //also if solving failed, otherwise the next run would wait on the tasks of this run
+            endRun();
+        }
+    }
+
+    private void startRun() {
+        completionTracker = new CompletionTracker();
+        methodComponents = new HashMap<>();
+        //the constraints are simplified anew in each run, entries of the last run could refer to other variables
+        eliminatedVariables.clear();
+        incrementalSolving.startRun();
+        isRunStarted = true;
+    }
+
+    @Override
+    public void reset() {
+        //methods which were already submitted by streaming must not modify the state of the next run
+        completionTracker.awaitCompletion();
+        endRun();
+    }
+
+    private void endRun() {
+        synchronized (streamingLock) {
+            isStreaming = false;
+            streamedMethods.clear();
+            isRunStarted = false;
+        }
+    }
+
+    /**
+     * Solves the given method right away if streaming is enabled and all user defined methods it calls are already
+     * solved. Otherwise it waits until the last of them is solved by streaming or it is solved by
+     * {@link #solveConstraints(List, IGlobalNamespaceScope)} along with the methods which were not streamed.
+     * <p/>
+     * Methods which call a method which is not finished yet (or never will be since it is part of a recursion) wait
+     * for it, hence dependencies are only registered by the regular solving afterwards.
+     */
+    @Override
+    public void methodFinished(IMethodSymbol methodSymbol) {
+        if (settings.useStreamingSolving) {
+            synchronized (streamingLock) {
+                if (!isRunStarted) {
+                    startRun();
+                    isStreaming = true;
+                }
+                if (isStreaming) {
+                    stream(methodSymbol);
+                }
+            }
+        }
+    }
+
+    private void stream(IMethodSymbol methodSymbol) {
+        String methodName = methodSymbol.getAbsoluteName();
+        StreamedMethod streamedMethod = getOrCreateStreamedMethod(methodName);
+        streamedMethod.methodSymbol = methodSymbol;
+
+        Set<String> calleeNames = new HashSet<>();
+        for (IConstraint constraint : methodSymbol.getConstraints()) {
+            IMinimalMethodSymbol callee = constraint.getMethodSymbol();
+            String calleeName = callee.getAbsoluteName();
+            if (!calleeName.equals(methodName) && calleeNames.add(calleeName)) {
+                StreamedMethod streamedCallee = streamedMethods.get(calleeName);
+                //user defined methods which are not finished yet do not have overloads, in contrast to the core
+                if (streamedCallee == null && callee.getOverloads().isEmpty()) {
+                    streamedCallee = getOrCreateStreamedMethod(calleeName);
+                }
+                if (streamedCallee != null && !streamedCallee.isSolved) {
+                    streamedCallee.callers.add(streamedMethod);
+                    ++streamedMethod.numberOfUnsolvedCallees;
+                }
+            }
+        }
+
+        if (streamedMethod.numberOfUnsolvedCallees == 0) {
+            submitStreamed(streamedMethod);
+        }
+    }
+
+    private StreamedMethod getOrCreateStreamedMethod(String methodName) {
+        StreamedMethod streamedMethod = streamedMethods.get(methodName);
+        if (streamedMethod == null) {
+            streamedMethod = new StreamedMethod();
+            streamedMethods.put(methodName, streamedMethod);
+        }
+        return streamedMethod;
+    }
+
+    private void submitStreamed(StreamedMethod streamedMethod) {
+        streamedMethod.isSubmitted = true;
+        submit(new MethodComponent(Collections.singletonList(streamedMethod.methodSymbol)));
+    }
+
+    private void releaseStreamedCallers(String methodName) {
+        synchronized (streamingLock) {
+            if (isStreaming) {
+                StreamedMethod streamedMethod = streamedMethods.get(methodName);
+                if (streamedMethod != null && !streamedMethod.isSolved) {
+                    streamedMethod.isSolved = true;
+                    for (StreamedMethod caller : streamedMethod.callers) {
+                        --caller.numberOfUnsolvedCallees;
+                        if (caller.numberOfUnsolvedCallees == 0) {
+                            submitStreamed(caller);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the methods submitted by streaming are solved and returns the given methods which still need to
+     * be solved, i.e. those which were not streamed or were still waiting on a method they call.
+     */
+    private List<IMethodSymbol> stopStreaming(List<IMethodSymbol> methodSymbols) {
+        if (!isRunStarted) {
+            startRun();
+        }
+        completionTracker.awaitCompletion();
+
+        List<IMethodSymbol> unsolvedMethodSymbols = methodSymbols;
+        synchronized (streamingLock) {
+            if (isStreaming) {
+                isStreaming = false;
+                unsolvedMethodSymbols = new ArrayList<>();
+                for (IMethodSymbol methodSymbol : methodSymbols) {
+                    StreamedMethod streamedMethod = streamedMethods.get(methodSymbol.getAbsoluteName());
+                    if (streamedMethod == null || !streamedMethod.isSubmitted) {
+                        unsolvedMethodSymbols.add(methodSymbol);
+                    }
+                }
+            }
+        }
+        return unsolvedMethodSymbols;
+    }
+
+    boolean isUserMethod(String methodName) {
+        return methodComponents.containsKey(methodName) || streamedMethods.containsKey(methodName);
+    }
+
+    /**
+     * Groups the given methods into the strongly connected components of their call graph.
+     * <p/>
+     * A component is submitted as soon as all components it calls are solved. This way, a method only needs to
+     * register a dependency (and is potentially solved in the iterative mode) if it is (indirectly) recursive.
+     */
+    private List<MethodComponent> createMethodComponents(
+            List<IMethodSymbol> methodSymbols, List<IMethodSymbol> allMethodSymbols) {
+        CallGraph callGraph = new CallGraph(methodSymbols);
+        Map<String, MethodComponent> components = new HashMap<>();
+        List<MethodComponent> orderedComponents = new ArrayList<>();
+        for (List<IMethodSymbol> stronglyConnectedComponent : callGraph.getStronglyConnectedComponents()) {
+            MethodComponent component = new MethodComponent(stronglyConnectedComponent);
+            orderedComponents.add(component);
+            for (IMethodSymbol methodSymbol : stronglyConnectedComponent) {
+                components.put(methodSymbol.getAbsoluteName(), component);
+            }
+        }
+
+        for (MethodComponent component : orderedComponents) {
+            Set<MethodComponent> calleeComponents = new HashSet<>();
+            for (IMethodSymbol methodSymbol : component.methodSymbols) {
+                for (String callee : callGraph.getCallees(methodSymbol.getAbsoluteName())) {
+                    MethodComponent calleeComponent = components.get(callee);
+                    if (calleeComponent != component && calleeComponents.add(calleeComponent)) {
+                        calleeComponent.callers.add(component);
+                    }
+                }
+            }
+            component.numberOfUnsolvedCallees.set(calleeComponents.size());
+        }
+
+        methodComponents = components;
+        if (settings.useIncrementalSolving) {
+            //entries of removed methods would only occupy memory and recursive methods are not taken over
+            Set<String> methodNames = new HashSet<>();
+            for (IMethodSymbol methodSymbol : allMethodSymbols) {
+                methodNames.add(methodSymbol.getAbsoluteName());
+            }
+            incrementalSolving.retainAll(methodNames);
+            for (MethodComponent component : orderedComponents) {
+                if (component.methodSymbols.size() > 1) {
+                    for (IMethodSymbol methodSymbol : component.methodSymbols) {
+                        incrementalSolving.remove(methodSymbol.getAbsoluteName());
+                    }
+                }
+            }
         }
+        return orderedComponents;
+    }
 
-        if (!globalDefaultNamespaceScope.getConstraints().isEmpty()) {
-            Deque<WorkItemDto> workDeque = createInitialWorklist(globalDefaultNamespaceScope, false);
-            solveGlobalDefaultNamespaceConstraints(globalDefaultNamespaceScope, workDeque);
+    private void submit(MethodComponent component) {
+        if (component.isSubmitted.compareAndSet(false, true)) {
+            //components with more than one method are recursive, they are solved in the iterative mode and are
+            //hence not considered for the incremental solving
+            if (incrementalSolving.isUsed() && component.methodSymbols.size() == 1) {
+                submit(incrementalSolving.createSolver(component.methodSymbols.get(0)));
+            } else {
+                for (IMethodSymbol methodSymbol : component.methodSymbols) {
+                    submit(methodSymbol, createInitialWorklist(methodSymbol, true));
+                }
+            }
         }
     }
 
-    private void waitUntilAllFeaturesAreDone() {
-        while (!futures.isEmpty()) {
-            Future future = futures.remove();
-            try {
-                future.get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
+    private void releaseCallers(String methodName) {
+        MethodComponent component = methodComponents.get(methodName);
+        if (component != null && component.numberOfUnsolvedMethods.decrementAndGet() == 0) {
+            for (MethodComponent caller : component.callers) {
+                if (caller.numberOfUnsolvedCallees.decrementAndGet() == 0) {
+                    submit(caller);
+                }
+            }
+        }
+        if (settings.useStreamingSolving) {
+            releaseStreamedCallers(methodName);
+        }
+    }
+
+    private void submit(IMethodSymbol methodSymbol, Deque<WorkItemDto> workDeque) {
+        submit(new MethodConstraintSolver(methodSymbol, workDeque));
+    }
+
+    /**
+     * Solves the given method in the current thread, its result is kept for the next run if a fingerprint is given,
+     * see {@link IncrementalSolving}.
+     */
+    void solveMethod(IMethodSymbol methodSymbol, String fingerprint) {
+        new MethodConstraintSolver(methodSymbol, createInitialWorklist(methodSymbol, true), fingerprint).run();
+    }
+
+    /**
+     * Releases the callers and dependents of the given method whose overloads were taken over instead of solving it.
+     */
+    void methodTakenOver(String methodName) {
+        releaseCallers(methodName);
+        solveDependentMethods(methodName);
+    }
+
+    @SuppressWarnings("checkstyle:illegalcatch")
+    private void submit(Runnable solver) {
+        //dependent methods are submitted before the submitting task is done, hence the tracker cannot reach zero before
+        //the whole chain of dependencies is solved
+        Runnable task = completionTracker.track(solver);
+        try {
+            if (settings.useWorkStealing && ForkJoinTask.getPool() == executorService) {
+                //dependents released by a task are pushed onto the deque of its worker, they are most likely to be
+                //picked up by the same worker (its bindings are still hot) while idle workers steal from the other end
+                ForkJoinTask.adapt(task).fork();
+            } else {
+                executorService.execute(task);
             }
+        } catch (RuntimeException | Error ex) {
+            //the task will never run and hence never report that it is done
+            completionTracker.done();
+            throw ex;
         }
     }
 
     private Deque<WorkItemDto> createInitialWorklist(
             IConstraintCollection constraintCollection, boolean isSolvingMethod) {
-        IBindingCollection bindings = symbolFactory.createBindingCollection();
-        Deque<WorkItemDto> workDeque = new ArrayDeque<>();
-        workDeque.add(new WorkItemDto(workDeque, constraintCollection, 0, isSolvingMethod, bindings));
-        return workDeque;
+        prepareConstraints(constraintCollection);
+        return worklistHelper.createWorklist(constraintCollection, isSolvingMethod);
     }
 
+    private void prepareConstraints(IConstraintCollection constraintCollection) {
+        if (settings.useAssignmentSimplification) {
+            Map<String, String> eliminated = assignmentSimplifier.simplify(constraintCollection);
+            if (!eliminated.isEmpty()) {
+                eliminatedVariables.put(constraintCollection.getAbsoluteName(), eliminated);
+            }
+        }
+        if (settings.useConstraintReordering) {
+            reorderConstraints(constraintCollection);
+        }
+    }
+
+    /**
+     * Reorders the constraints in place before the first work item is created. Pointers to constraints (dependencies,
+     * helper variable mappings, dependent constraints in the iterative mode) are only created afterwards and hence
+     * refer to the new order.
+     */
+    private void reorderConstraints(IConstraintCollection constraintCollection) {
+        List<IConstraint> constraints = constraintCollection.getConstraints();
+        List<IConstraint> orderedConstraints = constraintOrderer.order(constraints);
+        for (int i = 0; i < orderedConstraints.size(); ++i) {
+            constraints.set(i, orderedConstraints.get(i));
+        }
+    }
+
+    /**
+     * Binds the variables which were eliminated by the assignment simplification, hence the type of each variable
+     * can still be looked up in the resulting bindings.
+     */
+    private void addEliminatedVariables(IConstraintCollection constraintCollection, IBindingCollection bindings) {
+        Map<String, String> eliminated = eliminatedVariables.get(constraintCollection.getAbsoluteName());
+        if (eliminated != null) {
+            assignmentSimplifier.addEliminatedVariables(bindings, eliminated);
+        }
+    }
 
     private void solveConstraintsIteratively() {
 
@@ -141,7 +509,7 @@ public class ConstraintSolver implements IConstraintSolver
                 }
             }
         }
-        waitUntilAllFeaturesAreDone();
+        completionTracker.awaitCompletion();
 
         dependentMethods.clear();
         methodsWithDependents.clear();
@@ -200,11 +568,13 @@ public class ConstraintSolver implements IConstraintSolver
     private void createOverloadsForRecursiveMethod(
             Iterator<WorkItemDto> iterator, WorkItemDto firstWorkItemDto, IMethodSymbol methodSymbol) {
         Map<IFunctionType, WorkItemDto> mapping = new HashMap<>();
+        addEliminatedVariables(methodSymbol, firstWorkItemDto.bindingCollection);
         IFunctionType overload = constraintSolverHelper.createOverload(
                 methodSymbol, firstWorkItemDto.bindingCollection);
         mapping.put(overload, firstWorkItemDto);
         while (iterator.hasNext()) {
             WorkItemDto workItemDto = iterator.next();
+            addEliminatedVariables(methodSymbol, workItemDto.bindingCollection);
             overload = constraintSolverHelper.createOverload(methodSymbol, workItemDto.bindingCollection);
             mapping.put(overload, workItemDto);
         }
@@ -227,57 +597,80 @@ public class ConstraintSolver implements IConstraintSolver
     private void solveIteratively() {
         createTempOverloads();
 
-        for (String indirectRecursiveMethod : methodsWithDependents.keySet()) {
-            solveDependentMethod(dependentMethods.get(indirectRecursiveMethod), true, false);
+        //the fixpoint iterations of independent groups of recursive methods do not influence each other and are
+        //solved in parallel
+        for (Set<String> group : getIterativeGroups()) {
+            submit(new IterativeGroupSolver(group));
         }
 
-        waitUntilAllFeaturesAreDone();
-
-        while (!collectionsWhichChanged.isEmpty()) {
-
-            Map<String, Pair<IMethodSymbol, Deque<WorkItemDto>>> methodsToReIterate = new HashMap<>();
-
-            Iterator<IMethodSymbol> collectionIterator = collectionsWhichChanged.iterator();
-            while (collectionIterator.hasNext()) {
-                IMethodSymbol methodSymbol = collectionIterator.next();
-                collectionIterator.remove();
-
-                String absoluteName = methodSymbol.getAbsoluteName();
-                TempMethodSymbol tempMethodSymbol = tempMethodSymbols.get(absoluteName);
-                List<IFunctionType> tempOverloads = createTempOverloads(
-                        methodSymbol, dependentMethods.get(absoluteName));
-                tempMethodSymbol.renewTempOverloads(tempOverloads);
+        completionTracker.awaitCompletion();
+    }
 
-                for (Map.Entry<String, List<Integer>> entry : directDependencies.get(absoluteName).entrySet()) {
-                    String dependentMethodName = entry.getKey();
-                    //Warning! start code duplication, very similar as solveDependentMethod
-                    Iterator<WorkItemDto> iterator = dependentMethods.get(dependentMethodName).iterator();
-                    WorkItemDto workItemDto = iterator.next();
-                    List<Integer> dependentConstraints = entry.getValue();
-                    if (!methodsToReIterate.containsKey(dependentMethodName)) {
-                        IMethodSymbol dependentMethodSymbol = (IMethodSymbol) workItemDto.constraintCollection;
-                        Deque<WorkItemDto> dependentWorkQueue = workItemDto.workDeque;
-                        addToQueueInIterativeMode(workItemDto, dependentConstraints, dependentWorkQueue);
-                        while (iterator.hasNext()) {
-                            workItemDto = iterator.next();
-                            addToQueueInIterativeMode(workItemDto, dependentConstraints, dependentWorkQueue);
-                        }
-                        methodsToReIterate.put(dependentMethodName, pair(dependentMethodSymbol, dependentWorkQueue));
-                    } else {
-                        workItemDto.dependentConstraints.addAll(dependentConstraints);
+    /**
+     * Partitions the methods which are solved in the iterative mode into groups which do not depend on each other.
+     * <p/>
+     * Two methods are in the same group if one has a dependency to the other or if one calls the other (the call
+     * will be replaced by a temp method symbol during the iterative mode and hence will create a dependency).
+     */
+    private Collection<Set<String>> getIterativeGroups() {
+        Map<String, String> parents = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : methodsWithDependents.entrySet()) {
+            for (String dependentMethodName : entry.getValue()) {
+                union(parents, entry.getKey(), dependentMethodName);
+            }
+        }
+        for (Map.Entry<String, Set<WorkItemDto>> entry : dependentMethods.entrySet()) {
+            String dependentMethodName = entry.getKey();
+            Set<WorkItemDto> workItemDtos = entry.getValue();
+            if (!workItemDtos.isEmpty()) {
+                IConstraintCollection collection = workItemDtos.iterator().next().constraintCollection;
+                for (IConstraint constraint : collection.getConstraints()) {
+                    String methodName = constraint.getMethodSymbol().getAbsoluteName();
+                    if (methodsWithDependents.containsKey(methodName)) {
+                        union(parents, methodName, dependentMethodName);
                     }
-                    //Warning! end code duplication, very similar as solveDependentMethod
                 }
             }
+        }
 
-            for (Pair<IMethodSymbol, Deque<WorkItemDto>> pair : methodsToReIterate.values()) {
-                futures.add(executorService.submit(new MethodConstraintSolver(pair.first, pair.second)));
+        Map<String, Set<String>> groups = new HashMap<>();
+        for (String indirectRecursiveMethod : methodsWithDependents.keySet()) {
+            String root = find(parents, indirectRecursiveMethod);
+            Set<String> group = groups.get(root);
+            if (group == null) {
+                group = new HashSet<>();
+                groups.put(root, group);
             }
+            group.add(indirectRecursiveMethod);
+        }
+        return groups.values();
+    }
 
-            waitUntilAllFeaturesAreDone();
+    private void union(Map<String, String> parents, String first, String second) {
+        String firstRoot = find(parents, first);
+        String secondRoot = find(parents, second);
+        if (!firstRoot.equals(secondRoot)) {
+            parents.put(firstRoot, secondRoot);
         }
     }
 
+    private String find(Map<String, String> parents, String methodName) {
+        String root = methodName;
+        String parent = parents.get(root);
+        while (parent != null) {
+            root = parent;
+            parent = parents.get(root);
+        }
+        //path compression
+        String current = methodName;
+        while (!current.equals(root)) {
+            String next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
     private void addToQueueInIterativeMode(
             WorkItemDto workItemDto, List<Integer> dependentConstraints, Deque<WorkItemDto> dependentWorkQueue) {
         workItemDto.dependentConstraints = dependentConstraints;
@@ -356,6 +749,7 @@ public class ConstraintSolver implements IConstraintSolver
             if (notYetAllBindingsCreated) {
                 IBindingCollection tmp = bindingCollection;
                 bindingCollection = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
+                metricsListener.bindingCollectionCopied(methodSymbol);
                 workItemDto.bindingCollection = bindingCollection;
                 constraintSolverHelper.createBindingsIfNecessary(workItemDto, returnVariable, parameterVariables);
                 workItemDto.bindingCollection = tmp;
@@ -372,6 +766,13 @@ public class ConstraintSolver implements IConstraintSolver
 
     private void solveDependentMethod(
             Collection<WorkItemDto> dependentWorkItems, boolean setIterativeMode, boolean resetToNormalMode) {
+        Pair<IMethodSymbol, Deque<WorkItemDto>> pair = prepareDependentMethod(
+                dependentWorkItems, setIterativeMode, resetToNormalMode);
+        submit(pair.first, pair.second);
+    }
+
+    private Pair<IMethodSymbol, Deque<WorkItemDto>> prepareDependentMethod(
+            Collection<WorkItemDto> dependentWorkItems, boolean setIterativeMode, boolean resetToNormalMode) {
         Iterator<WorkItemDto> iterator = dependentWorkItems.iterator();
         WorkItemDto firstWorkItemDto = iterator.next();
         IMethodSymbol dependentMethodSymbol = (IMethodSymbol) firstWorkItemDto.constraintCollection;
@@ -381,8 +782,7 @@ public class ConstraintSolver implements IConstraintSolver
             WorkItemDto workItemDto = iterator.next();
             addToQueue(dependentWorkQueue, workItemDto, setIterativeMode, resetToNormalMode);
         }
-        futures.add(executorService.submit(
-                new MethodConstraintSolver(dependentMethodSymbol, dependentWorkQueue)));
+        return pair(dependentMethodSymbol, dependentWorkQueue);
     }
 
     private void addToQueue(
@@ -403,44 +803,77 @@ public class ConstraintSolver implements IConstraintSolver
         dependentWorkQueue.add(workItemDto);
     }
 
-    private void solveGlobalDefaultNamespaceConstraints(
-            IGlobalNamespaceScope globalDefaultNamespaceScope, Deque<WorkItemDto> workDeque) {
-        List<WorkItemDto> workItemDtos = solveConstraints(workDeque);
-        IBindingCollection bindingCollection;
-        if (!workItemDtos.isEmpty()) {
-            bindingCollection = workItemDtos.get(0).bindingCollection;
-        } else {
-            WorkItemDto softTypingWorkItem = getSoftTypingWorkItem(globalDefaultNamespaceScope, workDeque, false);
-            solveConstraints(workDeque);
-            softTypingConstraintSolver.solveConstraints(globalDefaultNamespaceScope, softTypingWorkItem);
-            bindingCollection = softTypingWorkItem.bindingCollection;
-        }
+    private void solveGlobalDefaultNamespaceConstraints(IGlobalNamespaceScope globalDefaultNamespaceScope) {
+        long start = System.nanoTime();
+        prepareConstraints(globalDefaultNamespaceScope);
+        IBindingCollection bindingCollection = globalDefaultNamespaceSolver.solve(globalDefaultNamespaceScope);
+        addEliminatedVariables(globalDefaultNamespaceScope, bindingCollection);
         globalDefaultNamespaceScope.addBindingCollection(bindingCollection);
-        for (String variableId : bindingCollection.getVariableIds()) {
-            bindingCollection.fixType(variableId);
-        }
-    }
-
-    private WorkItemDto getSoftTypingWorkItem(
-            IConstraintCollection constraintCollection, Deque<WorkItemDto> workQueue, boolean isSolvingMethod) {
-        IBindingCollection bindingCollection = symbolFactory.createBindingCollection();
-        bindingCollection.setMode(EBindingCollectionMode.SoftTyping);
-        final int pointer = 0;
-        WorkItemDto workItemDto = new WorkItemDto(
-                workQueue, constraintCollection, pointer, isSolvingMethod, bindingCollection);
-        workItemDto.isInSoftTypingMode = true;
-        workQueue.add(workItemDto);
-        return workItemDto;
+        metricsListener.constraintsSolved(globalDefaultNamespaceScope, System.nanoTime() - start);
     }
 
     @Override
     public List<WorkItemDto> solveConstraints(Deque<WorkItemDto> workDeque) {
+        return solveConstraints(workDeque, false);
+    }
+
+    /**
+     * Solves the constraints of the work items in the given deque, either breadth first resulting in all solutions or
+     * depth first stopping at the first solution.
+     * <p/>
+     * The first solution is the same in both modes since the successors of a work item are expanded in the order they
+     * were added. The remaining work items are dropped once the first solution is found and their bindings can be
+     * garbage collected right away. Work items are neither deduplicated nor collapsed in this mode, both rely on the
+     * breadth first order.
+     */
+    List<WorkItemDto> solveConstraints(Deque<WorkItemDto> workDeque, boolean stopAtFirstSolution) {
         List<WorkItemDto> solvedBindings = new ArrayList<>();
         WorkItemDto firstWorkItemDto = workDeque.peek();
         List<IConstraint> constraints = firstWorkItemDto.constraintCollection.getConstraints();
+        //work items are expanded breadth first, hence work items with the same pointer are next to each other
+        WorkItemDeduplicator deduplicator = null;
+        if (settings.useWorkItemDeduplication) {
+            deduplicator = new WorkItemDeduplicator(workItemFingerprinter, metricsListener);
+        }
+        int lastPointer = -1;
+        ConstraintComponents components = null;
+        if (settings.useConstraintDecomposition && !stopAtFirstSolution
+                && !firstWorkItemDto.isInIterativeMode && !firstWorkItemDto.isInSoftTypingMode) {
+            components = new ConstraintComponents(firstWorkItemDto.constraintCollection);
+        }
+        WorkBudget workBudget = new WorkBudget(settings);
+        workBudget.start();
 
         while (!workDeque.isEmpty()) {
-            WorkItemDto workItemDto = workDeque.removeFirst();
+            WorkItemDto workItemDto = stopAtFirstSolution ? workDeque.removeLast() : workDeque.removeFirst();
+            if (workBudget.isExceeded(workItemDto)) {
+                budgetExceeded(workItemDto.constraintCollection);
+                workDeque.clear();
+                solvedBindings.clear();
+                break;
+            }
+            if (stopAtFirstSolution) {
+                if (workItemDto.pointer < constraints.size()) {
+                    int numberOfPendingWorkItems = workDeque.size();
+                    solveConstraint(workItemDto, constraints.get(workItemDto.pointer));
+                    worklistHelper.reverseSuccessors(workDeque, workDeque.size() - numberOfPendingWorkItems);
+                } else {
+                    solvedBindings.add(workItemDto);
+                    workDeque.clear();
+                }
+                continue;
+            }
+            if (workItemDto.pointer != lastPointer) {
+                lastPointer = workItemDto.pointer;
+                if (components != null && !workItemDto.isInIterativeMode && !workItemDto.isInSoftTypingMode) {
+                    workDeque.addFirst(workItemDto);
+                    localComponentCollapser.collapse(workDeque, components);
+                    workItemDto = workDeque.removeFirst();
+                }
+            }
+            if (deduplicator != null && deduplicator.isDuplicate(workItemDto)) {
+                continue;
+            }
             if (workItemDto.pointer < constraints.size()) {
                 int pointer;
                 if (!workItemDto.isInIterativeMode || !workItemDto.isSolvingDependency) {
@@ -458,6 +891,34 @@ public class ConstraintSolver implements IConstraintSolver
         return solvedBindings;
     }
 
+    /**
+     * Reports that the budget was exceeded and drops the parked work items of the given constraint collection, i.e.
+     * the ones which wait on a method it calls (they are still registered if the method is solved again after the
+     * iterative mode). The remaining work items are dropped by the caller, hence the method falls back to soft typing
+     * instead of waiting on a dependency which is never released.
+     */
+    private void budgetExceeded(IConstraintCollection constraintCollection) {
+        metricsListener.workBudgetExceeded(constraintCollection);
+        if (issueReporter != null) {
+            issueReporter.workBudgetExceeded(constraintCollection);
+        }
+        String dependentMethodName = constraintCollection.getAbsoluteName();
+        if (dependentMethods.remove(dependentMethodName) != null) {
+            for (IConstraint constraint : constraintCollection.getConstraints()) {
+                IMinimalMethodSymbol refMethodSymbol = constraint.getMethodSymbol();
+                //same lock as registerDependencyIfRequired
+                synchronized (refMethodSymbol) {
+                    String methodWithDependent = refMethodSymbol.getAbsoluteName();
+                    Set<String> dependentMethodNames = methodsWithDependents.get(methodWithDependent);
+                    if (dependentMethodNames != null && dependentMethodNames.remove(dependentMethodName)
+                            && dependentMethodNames.isEmpty()) {
+                        methodsWithDependents.remove(methodWithDependent);
+                    }
+                }
+            }
+        }
+    }
+
     private void solveConstraint(WorkItemDto workItemDto, IConstraint theConstraint) {
         IConstraint constraint = theConstraint;
         IMinimalMethodSymbol refMethodSymbol = constraint.getMethodSymbol();
@@ -522,6 +983,18 @@ public class ConstraintSolver implements IConstraintSolver
         return refMethodWasSolved;
     }
 
+    private void solveDependentMethods(String methodName) {
+        Set<String> dependentMethodNames = methodsWithDependents.remove(methodName);
+        if (dependentMethodNames != null) {
+            for (String dependentMethodName : dependentMethodNames) {
+//                System.out.println(dependentMethodName + " has a dependency to " + methodName);
+                Set<WorkItemDto> dependentWorkItems = dependentMethods.remove(dependentMethodName);
+                solveDependentMethod(dependentWorkItems, false, false);
+            }
+        }
+        dependentMethods.remove(methodName);
+    }
+
     private <TKey, TValue> TValue getOrInitAtomically(ConcurrentMap<TKey, TValue> map, TKey key, TValue initValue) {
         TValue value = map.get(key);
         if (value == null) {
@@ -533,19 +1006,145 @@ public class ConstraintSolver implements IConstraintSolver
         return value;
     }
 
+    private static class MethodComponent
+    {
+        private final List<IMethodSymbol> methodSymbols;
+        private final Set<MethodComponent> callers = new HashSet<>();
+        private final AtomicInteger numberOfUnsolvedCallees = new AtomicInteger();
+        private final AtomicInteger numberOfUnsolvedMethods;
+        private final AtomicBoolean isSubmitted = new AtomicBoolean();
+
+        MethodComponent(List<IMethodSymbol> theMethodSymbols) {
+            methodSymbols = theMethodSymbols;
+            numberOfUnsolvedMethods = new AtomicInteger(theMethodSymbols.size());
+        }
+    }
+
+    /**
+     * A method which was handed over to the solver before the reference phase finished or a method which is called by
+     * such a method and is not finished yet (in which case methodSymbol is null).
+     */
+    private static class StreamedMethod
+    {
+        private IMethodSymbol methodSymbol;
+        private final List<StreamedMethod> callers = new ArrayList<>();
+        private int numberOfUnsolvedCallees;
+        private boolean isSubmitted;
+        private boolean isSolved;
+    }
+
+    /**
+     * Solves the methods of one group in the iterative mode until a fixpoint is reached.
+     * <p/>
+     * The methods are solved one after another by the thread executing this solver, hence the group does not block
+     * further threads of the executor service while waiting on its own methods.
+     */
+    private class IterativeGroupSolver implements Runnable
+    {
+        private final Set<String> indirectRecursiveMethods;
+        private final Set<IMethodSymbol> collectionsWhichChanged = new HashSet<>();
+
+        public IterativeGroupSolver(Set<String> theIndirectRecursiveMethods) {
+            indirectRecursiveMethods = theIndirectRecursiveMethods;
+        }
+
+        @Override
+        public void run() {
+            for (String indirectRecursiveMethod : indirectRecursiveMethods) {
+                Pair<IMethodSymbol, Deque<WorkItemDto>> pair = prepareDependentMethod(
+                        dependentMethods.get(indirectRecursiveMethod), true, false);
+                metricsListener.iterativeRound(pair.first);
+                new MethodConstraintSolver(pair.first, pair.second, collectionsWhichChanged).run();
+            }
+
+            while (!collectionsWhichChanged.isEmpty()) {
+
+                Map<String, Pair<IMethodSymbol, Deque<WorkItemDto>>> methodsToReIterate = new HashMap<>();
+
+                Iterator<IMethodSymbol> collectionIterator = collectionsWhichChanged.iterator();
+                while (collectionIterator.hasNext()) {
+                    IMethodSymbol methodSymbol = collectionIterator.next();
+                    collectionIterator.remove();
+
+                    String absoluteName = methodSymbol.getAbsoluteName();
+                    TempMethodSymbol tempMethodSymbol = tempMethodSymbols.get(absoluteName);
+                    List<IFunctionType> tempOverloads = createTempOverloads(
+                            methodSymbol, dependentMethods.get(absoluteName));
+                    tempMethodSymbol.renewTempOverloads(tempOverloads);
+
+                    for (Map.Entry<String, List<Integer>> entry : directDependencies.get(absoluteName).entrySet()) {
+                        String dependentMethodName = entry.getKey();
+                        //Warning! start code duplication, very similar as solveDependentMethod
+                        Iterator<WorkItemDto> iterator = dependentMethods.get(dependentMethodName).iterator();
+                        WorkItemDto workItemDto = iterator.next();
+                        List<Integer> dependentConstraints = entry.getValue();
+                        if (!methodsToReIterate.containsKey(dependentMethodName)) {
+                            IMethodSymbol dependentMethodSymbol = (IMethodSymbol) workItemDto.constraintCollection;
+                            Deque<WorkItemDto> dependentWorkQueue = workItemDto.workDeque;
+                            addToQueueInIterativeMode(workItemDto, dependentConstraints, dependentWorkQueue);
+                            while (iterator.hasNext()) {
+                                workItemDto = iterator.next();
+                                addToQueueInIterativeMode(workItemDto, dependentConstraints, dependentWorkQueue);
+                            }
+                            methodsToReIterate.put(
+                                    dependentMethodName, pair(dependentMethodSymbol, dependentWorkQueue));
+                        } else {
+                            workItemDto.dependentConstraints.addAll(dependentConstraints);
+                        }
+                        //Warning! end code duplication, very similar as solveDependentMethod
+                    }
+                }
+
+                for (Pair<IMethodSymbol, Deque<WorkItemDto>> pair : methodsToReIterate.values()) {
+                    metricsListener.iterativeRound(pair.first);
+                    new MethodConstraintSolver(pair.first, pair.second, collectionsWhichChanged).run();
+                }
+            }
+        }
+    }
+
     private class MethodConstraintSolver implements Runnable
     {
         private final IMethodSymbol methodSymbol;
         private final Deque<WorkItemDto> workDeque;
+        private final Set<IMethodSymbol> collectionsWhichChanged;
+        private final String fingerprint;
 
         public MethodConstraintSolver(
                 IMethodSymbol theMethodSymbol, Deque<WorkItemDto> theWorkDeque) {
+            this(theMethodSymbol, theWorkDeque, null, null);
+        }
+
+        public MethodConstraintSolver(
+                IMethodSymbol theMethodSymbol,
+                Deque<WorkItemDto> theWorkDeque,
+                Set<IMethodSymbol> theCollectionsWhichChanged) {
+            this(theMethodSymbol, theWorkDeque, theCollectionsWhichChanged, null);
+        }
+
+        /**
+         * The result is kept for the next run if a fingerprint is given and the method could be solved without
+         * falling back to soft typing (taking it over would swallow the issues reported by the soft typing).
+         */
+        public MethodConstraintSolver(
+                IMethodSymbol theMethodSymbol, Deque<WorkItemDto> theWorkDeque, String theFingerprint) {
+            this(theMethodSymbol, theWorkDeque, null, theFingerprint);
+        }
+
+        private MethodConstraintSolver(
+                IMethodSymbol theMethodSymbol,
+                Deque<WorkItemDto> theWorkDeque,
+                Set<IMethodSymbol> theCollectionsWhichChanged,
+                String theFingerprint) {
             methodSymbol = theMethodSymbol;
             workDeque = theWorkDeque;
+            collectionsWhichChanged = theCollectionsWhichChanged;
+            fingerprint = theFingerprint;
         }
 
         @Override
         public void run() {
+            long start = System.nanoTime();
             int numberOfWorkItems = workDeque.size();
             String methodName = methodSymbol.getAbsoluteName();
 //            System.out.println("Solve constraints for " + methodName);
@@ -564,24 +1163,25 @@ public class ConstraintSolver implements IConstraintSolver
                     synchronized (methodSymbol) {
 //                        System.out.println("create overloads for " + methodName);
                         List<IFunctionType> overloads = new ArrayList<>();
+                        List<IBindingCollection> bindingCollections = new ArrayList<>();
                         for (WorkItemDto workItemDto : workItemDtos) {
+                            addEliminatedVariables(methodSymbol, workItemDto.bindingCollection);
                             methodSymbol.addBindingCollection(workItemDto.bindingCollection);
+                            bindingCollections.add(workItemDto.bindingCollection);
                             overloads.add(constraintSolverHelper.createOverload(
                                     methodSymbol, workItemDto.bindingCollection));
                         }
                         methodSymbol.setOverloads(overloads);
 //                        System.out.println("overloads created for " + methodName);
-                    }
-
-                    Set<String> dependentMethodNames = methodsWithDependents.remove(methodName);
-                    if (dependentMethodNames != null) {
-                        for (String dependentMethodName : dependentMethodNames) {
-//                            System.out.println(dependentMethodName + " has a dependency to " + methodName);
-                            Set<WorkItemDto> dependentWorkItems = dependentMethods.remove(dependentMethodName);
-                            solveDependentMethod(dependentWorkItems, false, false);
+                        if (fingerprint != null && !firstWorkItem.isInSoftTypingMode) {
+                            incrementalSolving.keep(methodName, fingerprint, overloads, bindingCollections);
                         }
                     }
-                    dependentMethods.remove(methodName);
+
+                    //dependents are not part of the solving time of this method
+                    metricsListener.constraintsSolved(methodSymbol, System.nanoTime() - start);
+                    releaseCallers(methodName);
+                    solveDependentMethods(methodName);
                 } else {
                     if (workItemDtos.size() != numberOfWorkItems || oneChanged(workItemDtos)) {
                         Set<WorkItemDto> dependentWorkItems = dependentMethods.get(methodName);
@@ -591,13 +1191,19 @@ public class ConstraintSolver implements IConstraintSolver
                         }
                         collectionsWhichChanged.add(methodSymbol);
                     }
+                    metricsListener.constraintsSolved(methodSymbol, System.nanoTime() - start);
                 }
             } else if (!dependentMethods.containsKey(methodName)) {
 //                System.out.println("Fall back to soft typing for " + methodSymbol);
                 //does not have any dependencies and still cannot be solved
                 //need to fallback to soft typing
-                getSoftTypingWorkItem(methodSymbol, workDeque, true);
-                futures.add(executorService.submit(new MethodConstraintSolver(methodSymbol, workDeque)));
+                metricsListener.constraintsSolved(methodSymbol, System.nanoTime() - start);
+                metricsListener.softTypingFallback(methodSymbol);
+                worklistHelper.addSoftTypingWorkItem(methodSymbol, workDeque, true);
+                submit(methodSymbol, workDeque);
+            } else {
+                //waits on a dependency and is solved again once it is released
+                metricsListener.constraintsSolved(methodSymbol, System.nanoTime() - start);
             }
 //            System.out.println("Done solving constraints for " + methodName);
         }
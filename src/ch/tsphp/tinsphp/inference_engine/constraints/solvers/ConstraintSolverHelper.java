@@ -28,16 +28,22 @@ import ch.tsphp.tinsphp.common.symbols.IPolymorphicTypeSymbol;
 import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
 import ch.tsphp.tinsphp.common.symbols.IUnionTypeSymbol;
 import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+import ch.tsphp.tinsphp.common.utils.ERelation;
 import ch.tsphp.tinsphp.common.utils.ITypeHelper;
 import ch.tsphp.tinsphp.common.utils.TypeHelperDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.AggregateBindingDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.IMostSpecificOverloadDecider;
 import ch.tsphp.tinsphp.inference_engine.constraints.OverloadRankingDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.OverloadTypeVariables;
+import ch.tsphp.tinsphp.inference_engine.constraints.TypeVariableMapping;
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+import ch.tsphp.tinsphp.inference_engine.metrics.NoOpSolverMetricsListener;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
@@ -47,6 +53,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 import static ch.tsphp.tinsphp.common.utils.Pair.pair;
 
@@ -57,16 +64,48 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
     private final IMostSpecificOverloadDecider mostSpecificOverloadDecider;
     private final ITypeSymbol mixedTypeSymbol;
     private final TypeSymbolComparator typeSymbolComparator;
+    private final OverloadApplicabilityCache applicabilityCache;
+    private final ISolverMetricsListener metricsListener;
+    /**
+     * Function types do not override equals, hence this is an identity map. It is weak so that overloads of methods
+     * which are no longer referenced (e.g. of a previous run) do not stay reachable.
+     */
+    private final Map<IFunctionType, OverloadTypeVariables> internedOverloadTypeVariables
+            = Collections.synchronizedMap(new WeakHashMap<IFunctionType, OverloadTypeVariables>());
 
 
-    @SuppressWarnings("checkstyle:parameternumber")
     public ConstraintSolverHelper(
             ISymbolFactory theSymbolFactory,
             ITypeHelper theTypeHelper,
             IMostSpecificOverloadDecider theMostSpecificOverloadDecider) {
+        this(theSymbolFactory, theTypeHelper, theMostSpecificOverloadDecider, new OverloadApplicabilityCache());
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public ConstraintSolverHelper(
+            ISymbolFactory theSymbolFactory,
+            ITypeHelper theTypeHelper,
+            IMostSpecificOverloadDecider theMostSpecificOverloadDecider,
+            OverloadApplicabilityCache theApplicabilityCache) {
+        this(theSymbolFactory,
+                theTypeHelper,
+                theMostSpecificOverloadDecider,
+                theApplicabilityCache,
+                new NoOpSolverMetricsListener());
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public ConstraintSolverHelper(
+            ISymbolFactory theSymbolFactory,
+            ITypeHelper theTypeHelper,
+            IMostSpecificOverloadDecider theMostSpecificOverloadDecider,
+            OverloadApplicabilityCache theApplicabilityCache,
+            ISolverMetricsListener theMetricsListener) {
         symbolFactory = theSymbolFactory;
         typeHelper = theTypeHelper;
         mostSpecificOverloadDecider = theMostSpecificOverloadDecider;
+        applicabilityCache = theApplicabilityCache;
+        metricsListener = theMetricsListener;
         mixedTypeSymbol = symbolFactory.getMixedTypeSymbol();
 
         typeSymbolComparator = new TypeSymbolComparator(typeHelper);
@@ -178,40 +217,31 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
     }
 
     private void addApplicableOverloadsToWorklist(WorkItemDto workItemDto, IConstraint constraint) {
-        List<AggregateBindingDto> dtos = new ArrayList<>();
+        List<AggregateBindingDto> dtos = aggregateApplicableOverloads(workItemDto, constraint);
 
         boolean hasConvertible = false;
         boolean hasNonConvertible = false;
-        for (IFunctionType overload : constraint.getMethodSymbol().getOverloads()) {
-            try {
-                AggregateBindingDto dto = solveOverLoad(workItemDto, constraint, overload);
-                if (dto != null) {
-                    if (overload.wasSimplified()) {
-                        if (overload.hasConvertibleParameterTypes()) {
-                            hasConvertible = true;
-                        } else if (dto.implicitConversions == null) {
-                            hasNonConvertible = true;
-                        }
-                    }
-                    dtos.add(dto);
+        for (AggregateBindingDto dto : dtos) {
+            if (dto.overload.wasSimplified()) {
+                if (dto.overload.hasConvertibleParameterTypes()) {
+                    hasConvertible = true;
+                } else if (dto.implicitConversions == null) {
+                    hasNonConvertible = true;
                 }
-            } catch (BoundException ex) {
-                //That is ok, we will deal with it in solveConstraints
             }
         }
 
+        int numberOfConvertibleApplications = workItemDto.bindingCollection.getNumberOfConvertibleApplications();
         boolean isAlreadyAnalysingConvertible = workItemDto.convertibleAnalysisDto.isAnalysingConvertible;
         for (AggregateBindingDto dto : dtos) {
             //we do not create overloads with implicit conversions here if an overload with convertibles exists
-            if (dto != null && (dto.implicitConversions == null || !hasConvertible)) {
+            if (dto.implicitConversions == null || !hasConvertible) {
                 if (!isAlreadyAnalysingConvertible || !hasConvertible || !hasNonConvertible) {
                     if (dto.overload.wasSimplified() && dto.overload.hasConvertibleParameterTypes()) {
                         workItemDto.convertibleAnalysisDto.isAnalysingConvertible = true;
                     }
                     workItemDto.workDeque.add(nextWorkItemDto(dto));
                 } else {
-                    int numberOfConvertibleApplications
-                            = workItemDto.bindingCollection.getNumberOfConvertibleApplications();
                     boolean hasConvertibleParameterTypes = dto.overload.hasConvertibleParameterTypes();
                     if (numberOfConvertibleApplications > 0 && hasConvertibleParameterTypes
                             || numberOfConvertibleApplications == 0 && !hasConvertibleParameterTypes) {
@@ -222,6 +252,32 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
         }
     }
 
+    /**
+     * Aggregates the binding of each overload of the given constraint into a copy of the bindings of the given work
+     * item and returns the ones of the applicable overloads. The bindings of the work item stay untouched.
+     */
+    private List<AggregateBindingDto> aggregateApplicableOverloads(WorkItemDto workItemDto, IConstraint constraint) {
+        List<AggregateBindingDto> dtos = new ArrayList<>();
+        List<Object> argumentsDescription = describeArguments(workItemDto, constraint);
+        for (IFunctionType overload : constraint.getMethodSymbol().getOverloads()) {
+            if (isNotKnownToBeInapplicable(overload, argumentsDescription)) {
+                try {
+                    AggregateBindingDto dto = solveOverLoad(workItemDto, constraint, overload);
+                    if (dto != null) {
+                        dtos.add(dto);
+                    } else if (isTriedOverload(constraint, overload)) {
+                        rememberInapplicable(overload, argumentsDescription);
+                    }
+                } catch (BoundException ex) {
+                    metricsListener.overloadRejected(workItemDto.constraintCollection);
+                    //That is ok, we will deal with it in solveConstraints
+                    rememberInapplicable(overload, argumentsDescription);
+                }
+            }
+        }
+        return dtos;
+    }
+
     private WorkItemDto nextWorkItemDto(AggregateBindingDto dto) {
         return nextWorkItemDto(dto.workItemDto, dto.bindings, dto.helperVariableMapping, dto.hasChanged);
     }
@@ -236,30 +292,46 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                 && workItemDto.dependentConstraints.size() <= pointer) {
             pointer = Integer.MAX_VALUE;
         }
+        metricsListener.workItemCreated(workItemDto.constraintCollection);
         return new WorkItemDto(workItemDto, pointer, bindings, helperVariableMapping, hasChanged);
     }
 
+    /**
+     * Aggregates the binding of the given overload into a copy of the bindings of the given work item. Returns null if
+     * the overload is not tried since there are not enough arguments or if it is certainly not applicable.
+     */
     private AggregateBindingDto solveOverLoad(
             WorkItemDto workItemDto,
             IConstraint constraint,
             IFunctionType overload) {
 
         AggregateBindingDto dto = null;
-        if (constraint.getArguments().size() >= overload.getNumberOfNonOptionalParameters()) {
-            IBindingCollection bindings = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
-            dto = new AggregateBindingDto(constraint, overload, bindings, workItemDto);
-            aggregateBinding(dto);
+        if (isTriedOverload(constraint, overload)) {
+            metricsListener.overloadTried(workItemDto.constraintCollection);
+            if (!isCertainlyNotApplicable(workItemDto, constraint, overload)) {
+                IBindingCollection bindings = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
+                metricsListener.bindingCollectionCopied(workItemDto.constraintCollection);
+                dto = new AggregateBindingDto(constraint, overload, bindings, workItemDto);
+                aggregateBinding(dto);
+            } else {
+                metricsListener.overloadRejected(workItemDto.constraintCollection);
+            }
         }
         return dto;
     }
 
+    private boolean isTriedOverload(IConstraint constraint, IFunctionType overload) {
+        return constraint.getArguments().size() >= overload.getNumberOfNonOptionalParameters();
+    }
+
     @Override
     public void aggregateBinding(AggregateBindingDto dto) {
         List<IVariable> arguments = dto.constraint.getArguments();
         List<IVariable> parameters = dto.overload.getParameters();
         int numberOfParameters = parameters.size();
 
-        dto.mapping = new HashMap<>(numberOfParameters + 1);
+        OverloadTypeVariables overloadTypeVariables = getOverloadTypeVariables(dto.overload);
+        dto.mapping = new TypeVariableMapping(overloadTypeVariables);
         if (dto.helperVariableMapping != null && dto.helperVariableMapping.containsKey(dto.workItemDto.pointer)) {
             dto.mapping.putAll(dto.helperVariableMapping.get(dto.workItemDto.pointer));
         }
@@ -273,7 +345,7 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
 
             IVariable leftHandSide = dto.constraint.getLeftHandSide();
             dto.bindingVariable = leftHandSide;
-            dto.overloadVariableId = TinsPHPConstants.RETURN_VARIABLE_NAME;
+            dto.overloadTypeVariableIndex = overloadTypeVariables.getReturnTypeVariableIndex();
             dto.argumentNumber = null;
             boolean hasNarrowed = dto.hasNarrowedArguments;
             mergeTypeVariables(dto);
@@ -283,7 +355,7 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
             boolean argumentsAreAllFixed = true;
             for (int i = 0; i < count; ++i) {
                 dto.bindingVariable = arguments.get(i);
-                dto.overloadVariableId = parameters.get(i).getAbsoluteName();
+                dto.overloadTypeVariableIndex = overloadTypeVariables.getParameterTypeVariableIndex(i);
                 dto.argumentNumber = i;
                 mergeTypeVariables(dto);
                 argumentsAreAllFixed = argumentsAreAllFixed
@@ -314,17 +386,38 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
         }
     }
 
+    /**
+     * Returns the interned type variables of the given overload.
+     * <p/>
+     * They are only cached for simplified overloads, the others (temp overloads in the iterative mode) still change.
+     */
+    private OverloadTypeVariables getOverloadTypeVariables(IFunctionType overload) {
+        OverloadTypeVariables overloadTypeVariables;
+        if (overload.wasSimplified()) {
+            overloadTypeVariables = internedOverloadTypeVariables.get(overload);
+            if (overloadTypeVariables == null) {
+                overloadTypeVariables = new OverloadTypeVariables(overload);
+                //another thread might have interned the same overload in the meantime, both are equivalent
+                internedOverloadTypeVariables.put(overload, overloadTypeVariables);
+            }
+        } else {
+            overloadTypeVariables = new OverloadTypeVariables(overload);
+        }
+        return overloadTypeVariables;
+    }
+
     private void mergeTypeVariables(AggregateBindingDto dto) {
         String bindingVariableName = dto.bindingVariable.getAbsoluteName();
         ITypeVariableReference bindingTypeVariableReference
                 = dto.bindings.getTypeVariableReference(bindingVariableName);
-        IBindingCollection rightBindings = dto.overload.getBindingCollection();
+        int overloadTypeVariableIndex = dto.overloadTypeVariableIndex;
         String overloadTypeVariable
-                = rightBindings.getTypeVariableReference(dto.overloadVariableId).getTypeVariable();
+                = dto.mapping.getOverloadTypeVariables().getTypeVariable(overloadTypeVariableIndex);
 
         String lhsTypeVariable;
-        if (dto.mapping.containsKey(overloadTypeVariable)) {
-            lhsTypeVariable = dto.mapping.get(overloadTypeVariable).getTypeVariable();
+        ITypeVariableReference mappedReference = dto.mapping.get(overloadTypeVariableIndex);
+        if (mappedReference != null) {
+            lhsTypeVariable = mappedReference.getTypeVariable();
             String rhsTypeVariable = bindingTypeVariableReference.getTypeVariable();
             dto.bindings.mergeFirstIntoSecond(rhsTypeVariable, lhsTypeVariable);
 
@@ -341,13 +434,19 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
 //            }
         } else {
             lhsTypeVariable = bindingTypeVariableReference.getTypeVariable();
-            dto.mapping.put(overloadTypeVariable, bindingTypeVariableReference);
+            dto.mapping.put(overloadTypeVariableIndex, bindingTypeVariableReference);
         }
 
-        applyRightToLeft(dto, lhsTypeVariable, overloadTypeVariable);
+        applyRightToLeft(dto, lhsTypeVariable, overloadTypeVariable, overloadTypeVariableIndex);
     }
 
-    private void applyRightToLeft(AggregateBindingDto dto, String left, String right) {
+    /**
+     * Applies the bounds of the type variable right of the overload to the type variable left of the bindings.
+     * <p/>
+     * rightIndex is the interned index of right or OverloadTypeVariables.NO_INDEX, in which case the lower reference
+     * bounds of right are looked up by name.
+     */
+    private void applyRightToLeft(AggregateBindingDto dto, String left, String right, int rightIndex) {
 
         IBindingCollection leftBindings = dto.bindings;
         IBindingCollection rightBindings = dto.overload.getBindingCollection();
@@ -379,26 +478,53 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
             }
         }
 
-        if (rightBindings.hasLowerRefBounds(right)) {
+        if (rightIndex != OverloadTypeVariables.NO_INDEX) {
+            OverloadTypeVariables overloadTypeVariables = dto.mapping.getOverloadTypeVariables();
+            for (int refIndex : overloadTypeVariables.getLowerRefBoundIndices(rightIndex)) {
+                String refTypeVariable = overloadTypeVariables.getTypeVariable(refIndex);
+                if (!applyLowerRefBound(dto, left, refTypeVariable, refIndex)) {
+                    break;
+                }
+            }
+        } else if (rightBindings.hasLowerRefBounds(right)) {
+            OverloadTypeVariables overloadTypeVariables = dto.mapping.getOverloadTypeVariables();
             for (String refTypeVariable : rightBindings.getLowerRefBounds(right)) {
-                if (dto.mapping.containsKey(refTypeVariable)) {
-                    BoundResultDto resultDto = leftBindings.addLowerRefBound(left, dto.mapping.get(refTypeVariable));
-                    dto.hasChanged = dto.hasChanged || resultDto.hasChanged;
-                } else if (!dto.workItemDto.isInIterativeMode && dto.iterateCount == 1) {
-                    ITypeVariableReference typeVariableReference = addHelperVariable(dto, refTypeVariable);
-                    leftBindings.addLowerRefBound(left, typeVariableReference);
-                    //we add a new type variable, it has changed
-                    dto.hasChanged = true;
-                } else if (dto.workItemDto.isInIterativeMode && dto.iterateCount == 1) {
-                    addLowerRefInIterativeMode(dto, left, refTypeVariable);
-                } else {
-                    dto.needToReIterate = true;
+                int refIndex = overloadTypeVariables.getIndex(refTypeVariable);
+                if (!applyLowerRefBound(dto, left, refTypeVariable, refIndex)) {
                     break;
                 }
             }
         }
     }
 
+    /**
+     * Adds the given reference bound to left, respectively a helper variable if it is not yet mapped.
+     * <p/>
+     * Returns false if the binding needs to be re-iterated and the remaining reference bounds can be skipped.
+     */
+    private boolean applyLowerRefBound(AggregateBindingDto dto, String left, String refTypeVariable, int refIndex) {
+        boolean canContinue = true;
+        ITypeVariableReference mappedReference = refIndex != OverloadTypeVariables.NO_INDEX
+                ? dto.mapping.get(refIndex)
+                : dto.mapping.get(refTypeVariable);
+        IBindingCollection leftBindings = dto.bindings;
+        if (mappedReference != null) {
+            BoundResultDto resultDto = leftBindings.addLowerRefBound(left, mappedReference);
+            dto.hasChanged = dto.hasChanged || resultDto.hasChanged;
+        } else if (!dto.workItemDto.isInIterativeMode && dto.iterateCount == 1) {
+            ITypeVariableReference typeVariableReference = addHelperVariable(dto, refTypeVariable, refIndex);
+            leftBindings.addLowerRefBound(left, typeVariableReference);
+            //we add a new type variable, it has changed
+            dto.hasChanged = true;
+        } else if (dto.workItemDto.isInIterativeMode && dto.iterateCount == 1) {
+            addLowerRefInIterativeMode(dto, left, refTypeVariable);
+        } else {
+            dto.needToReIterate = true;
+            canContinue = false;
+        }
+        return canContinue;
+    }
+
     private IPolymorphicTypeSymbol copyIfNotFixed(IContainerTypeSymbol containerTypeSymbol, AggregateBindingDto dto) {
 
         IPolymorphicTypeSymbol copy = containerTypeSymbol;
@@ -417,7 +543,8 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                         if (dto.mapping.containsKey(typeParameter)) {
                             reference = dto.mapping.get(typeParameter);
                         } else if (!dto.workItemDto.isInIterativeMode && dto.iterateCount == 1) {
-                            reference = addHelperVariable(dto, typeParameter);
+                            reference = addHelperVariable(
+                                    dto, typeParameter, dto.mapping.getOverloadTypeVariables().getIndex(typeParameter));
                         } else if (dto.workItemDto.isInIterativeMode) {
                             int key = dto.workItemDto.pointer;
                             Map<String, ITypeVariableReference> mapping;
@@ -429,17 +556,20 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                                     if (reference == null) {
                                         IBindingCollection copyBindings = symbolFactory.createBindingCollection(
                                                 parametricTypeSymbol.getBindingCollection());
+                                        metricsListener.bindingCollectionCopied(dto.workItemDto.constraintCollection);
                                         copyBindings.bind(parametricTypeSymbol,
                                                 parametricTypeSymbol.getTypeParameters());
                                         copyBindings.fixTypeParameters();
                                         continue parametricTypes;
                                     }
                                 } else {
-                                    applyRightToLeft(dto, reference.getTypeVariable(), typeParameter);
+                                    applyRightToLeft(dto, reference.getTypeVariable(), typeParameter,
+                                            dto.mapping.getOverloadTypeVariables().getIndex(typeParameter));
                                 }
                             } else {
                                 mapping = new HashMap<>(2);
-                                reference = addHelperVariable(dto, typeParameter);
+                                reference = addHelperVariable(dto, typeParameter,
+                                        dto.mapping.getOverloadTypeVariables().getIndex(typeParameter));
                                 mapping.put(typeParameter, reference);
                                 if (dto.helperVariableMapping == null) {
                                     dto.helperVariableMapping = new HashMap<>();
@@ -457,6 +587,7 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                 } else {
                     IBindingCollection copyBindings
                             = symbolFactory.createBindingCollection(parametricTypeSymbol.getBindingCollection());
+                    metricsListener.bindingCollectionCopied(dto.workItemDto.constraintCollection);
                     copyBindings.bind(parametricTypeSymbol, parametricTypeSymbol.getTypeParameters());
                     copyBindings.fixTypeParameters();
                 }
@@ -495,12 +626,17 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
         }
     }
 
-    private ITypeVariableReference addHelperVariable(AggregateBindingDto dto, String typeParameter) {
+    private ITypeVariableReference addHelperVariable(
+            AggregateBindingDto dto, String typeParameter, int typeParameterIndex) {
         ITypeVariableReference typeVariableReference = dto.bindings.createHelperVariable();
-        dto.mapping.put(typeParameter, typeVariableReference);
+        if (typeParameterIndex != OverloadTypeVariables.NO_INDEX) {
+            dto.mapping.put(typeParameterIndex, typeVariableReference);
+        } else {
+            dto.mapping.put(typeParameter, typeVariableReference);
+        }
 
         String typeVariable = typeVariableReference.getTypeVariable();
-        applyRightToLeft(dto, typeVariable, typeParameter);
+        applyRightToLeft(dto, typeVariable, typeParameter, typeParameterIndex);
 
         return typeVariableReference;
     }
@@ -727,6 +863,7 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                     workItemDto.workDeque.add(nextWorkItemDto(dto));
                 }
             } catch (BoundException ex) {
+                metricsListener.overloadRejected(workItemDto.constraintCollection);
                 //that's ok, we will report an error in soft typing if it should still exists there
             }
         }
@@ -754,6 +891,7 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
             if (argumentType != null && !argumentType.isFixed()) {
                 //overload has non fixed arguments - since we manipulate it we have to copy it first...
                 bindingCollection = symbolFactory.createBindingCollection(bindingCollection);
+                metricsListener.bindingCollectionCopied(workItemDto.constraintCollection);
                 //.. then we fix all bounded types (in a brute force way - overloadBinding cannot be used for
                 // constraint solving afterwards)
                 bindingCollection.fixTypeParameters();
@@ -772,11 +910,20 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
         List<OverloadRankingDto> applicableOverloads = new ArrayList<>();
         List<IVariable> arguments = constraint.getArguments();
         int numberOfArguments = arguments.size();
+        List<Object> argumentsDescription = describeArguments(workItemDto, constraint);
 
         for (IFunctionType overload : overloads) {
-            if (numberOfArguments >= overload.getNumberOfNonOptionalParameters()) {
+            if (numberOfArguments >= overload.getNumberOfNonOptionalParameters()
+                    && isNotKnownToBeInapplicable(overload, argumentsDescription)) {
+                metricsListener.overloadTried(workItemDto.constraintCollection);
+                if (isCertainlyNotApplicable(workItemDto, constraint, overload)) {
+                    metricsListener.overloadRejected(workItemDto.constraintCollection);
+                    rememberInapplicable(overload, argumentsDescription);
+                    continue;
+                }
                 try {
                     IBindingCollection bindings = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
+                    metricsListener.bindingCollectionCopied(workItemDto.constraintCollection);
                     AggregateBindingDto dto = new AggregateBindingDto(constraint, overload, bindings, workItemDto);
                     aggregateBinding(dto);
 
@@ -803,13 +950,163 @@ public class ConstraintSolverHelper implements IConstraintSolverHelper
                         break;
                     }
                 } catch (BoundException ex) {
+                    metricsListener.overloadRejected(workItemDto.constraintCollection);
                     //That is ok, we are looking for applicable overloads
+                    rememberInapplicable(overload, argumentsDescription);
                 }
             }
         }
         return applicableOverloads;
     }
 
+    /**
+     * Indicates whether aggregateBinding would certainly throw a BoundException for the given overload, without
+     * copying the bindings and without throwing.
+     * <p/>
+     * It performs the same check as the binding collection does when the upper type bound of a parameter is added to
+     * the type variable of the corresponding argument: the lower type bounds of the argument have to be the same or a
+     * subtype of it. Lower type bounds only grow during aggregateBinding, hence the check is conclusive if it fails.
+     * Only fixed upper type bounds of simplified overloads without convertible parameter types are checked, false is
+     * returned in all other cases.
+     * <p/>
+     * The other paths on which aggregateBinding throws a BoundException are not covered, the overload is applied and
+     * rejected as usual in these cases:
+     * <ul>
+     * <li>a lower type bound of the overload which is not the same or a subtype of an upper type bound of the
+     * argument respectively of the left hand side</li>
+     * <li>the bounds of the left hand side (the return type of the overload)</li>
+     * <li>conflicting bounds of two type variables which are merged, e.g. if the same argument is passed to two
+     * parameters or a parameter and the return type share a type variable</li>
+     * <li>bounds which are propagated via reference bounds to other type variables</li>
+     * <li>bounds which contain parametric or convertible types which are bound to other type variables</li>
+     * </ul>
+     */
+    private boolean isCertainlyNotApplicable(WorkItemDto workItemDto, IConstraint constraint, IFunctionType overload) {
+        IBindingCollection bindings = workItemDto.bindingCollection;
+        boolean isCertainlyNotApplicable = false;
+        if (!workItemDto.isInSoftTypingMode
+                && bindings.getMode() == EBindingCollectionMode.Normal
+                && overload.wasSimplified()
+                && !overload.hasConvertibleParameterTypes()) {
+            List<IVariable> arguments = constraint.getArguments();
+            int numberOfParameters = overload.getParameters().size();
+            int count = numberOfParameters <= arguments.size() ? numberOfParameters : arguments.size();
+            OverloadTypeVariables overloadTypeVariables = getOverloadTypeVariables(overload);
+            for (int i = 0; !isCertainlyNotApplicable && i < count; ++i) {
+                String parameterTypeVariable = overloadTypeVariables.getTypeVariable(
+                        overloadTypeVariables.getParameterTypeVariableIndex(i));
+                isCertainlyNotApplicable = isArgumentCertainlyNotApplicable(
+                        bindings, arguments.get(i).getAbsoluteName(), overload, parameterTypeVariable);
+            }
+        }
+        return isCertainlyNotApplicable;
+    }
+
+    private boolean isArgumentCertainlyNotApplicable(
+            IBindingCollection bindings, String argumentId, IFunctionType overload, String parameterTypeVariable) {
+        boolean isCertainlyNotApplicable = false;
+        IBindingCollection overloadBindings = overload.getBindingCollection();
+        if (bindings.containsVariable(argumentId) && overloadBindings.hasUpperTypeBounds(parameterTypeVariable)) {
+            String typeVariable = bindings.getTypeVariable(argumentId);
+            IIntersectionTypeSymbol upperTypeBound = overloadBindings.getUpperTypeBounds(parameterTypeVariable);
+            if (upperTypeBound.isFixed()
+                    && bindings.hasLowerTypeBounds(typeVariable)
+                    && !hasSameUpperTypeBound(bindings, typeVariable, upperTypeBound)) {
+                TypeHelperDto result = typeHelper.isFirstSameOrSubTypeOfSecond(
+                        bindings.getLowerTypeBounds(typeVariable), upperTypeBound, typeVariable);
+                isCertainlyNotApplicable = result.relation == ERelation.HAS_NO_RELATION;
+            }
+        }
+        return isCertainlyNotApplicable;
+    }
+
+    /**
+     * The binding collection does not check the lower type bounds if the same upper type bound is added again.
+     */
+    private boolean hasSameUpperTypeBound(
+            IBindingCollection bindings, String typeVariable, IIntersectionTypeSymbol upperTypeBound) {
+        return bindings.hasUpperTypeBounds(typeVariable)
+                && typeHelper.areSame(bindings.getUpperTypeBounds(typeVariable), upperTypeBound);
+    }
+
+    private boolean isNotKnownToBeInapplicable(IFunctionType overload, List<Object> argumentsDescription) {
+        return argumentsDescription == null
+                || !overload.wasSimplified()
+                || !applicabilityCache.isKnownToBeInapplicable(overload, argumentsDescription);
+    }
+
+    private void rememberInapplicable(IFunctionType overload, List<Object> argumentsDescription) {
+        if (argumentsDescription != null && overload.wasSimplified()) {
+            applicabilityCache.rememberInapplicable(overload, argumentsDescription);
+        }
+    }
+
+    /**
+     * Describes the left hand side and the arguments of the given constraint in a way that whether an overload is
+     * applicable (aggregateBinding does not throw a BoundException) only depends on this description. The description
+     * consists of the fixed type bounds of the variables, their names are cached by the type symbols and hence
+     * creating and comparing descriptions does not format any strings.
+     * <p/>
+     * Returns null if the applicability depends on more than the type bounds of the variables of the constraint,
+     * for instance, if the variables have reference bounds to other variables or not yet fixed (parametric) types.
+     */
+    private List<Object> describeArguments(WorkItemDto workItemDto, IConstraint constraint) {
+        List<Object> description = null;
+        IBindingCollection bindings = workItemDto.bindingCollection;
+        if (!workItemDto.isInIterativeMode
+                && !workItemDto.isInSoftTypingMode
+                && workItemDto.helperVariableMapping == null
+                && bindings.getNumberOfConvertibleApplications() == 0) {
+            List<IVariable> arguments = constraint.getArguments();
+            description = new ArrayList<>();
+            description.add(workItemDto.isSolvingMethod);
+            description.add(bindings.getMode());
+            List<String> typeVariables = new ArrayList<>();
+            IVariable leftHandSide = constraint.getLeftHandSide();
+            boolean isDescribable = describeVariable(description, bindings, leftHandSide, typeVariables);
+            for (int i = 0; isDescribable && i < arguments.size(); ++i) {
+                isDescribable = describeVariable(description, bindings, arguments.get(i), typeVariables);
+            }
+            if (!isDescribable) {
+                description = null;
+            }
+        }
+        return description;
+    }
+
+    private boolean describeVariable(
+            List<Object> description, IBindingCollection bindings, IVariable variable, List<String> typeVariables) {
+        ITypeVariableReference reference = bindings.getTypeVariableReference(variable.getAbsoluteName());
+        String typeVariable = reference.getTypeVariable();
+        boolean isDescribable = !bindings.hasLowerRefBounds(typeVariable) && !bindings.hasUpperRefBounds(typeVariable);
+        if (isDescribable) {
+            int index = typeVariables.indexOf(typeVariable);
+            if (index != -1) {
+                //same type variable as a previous variable, bounds are already described
+                description.add(index);
+            } else {
+                typeVariables.add(typeVariable);
+                IUnionTypeSymbol lowerTypeBounds = null;
+                if (bindings.hasLowerTypeBounds(typeVariable)) {
+                    lowerTypeBounds = bindings.getLowerTypeBounds(typeVariable);
+                }
+                IIntersectionTypeSymbol upperTypeBounds = null;
+                if (bindings.hasUpperTypeBounds(typeVariable)) {
+                    upperTypeBounds = bindings.getUpperTypeBounds(typeVariable);
+                }
+                isDescribable = isNullOrFixed(lowerTypeBounds) && isNullOrFixed(upperTypeBounds);
+                description.add(reference.hasFixedType());
+                description.add(lowerTypeBounds != null ? lowerTypeBounds.getAbsoluteName() : null);
+                description.add(upperTypeBounds != null ? upperTypeBounds.getAbsoluteName() : null);
+            }
+        }
+        return isDescribable;
+    }
+
+    private boolean isNullOrFixed(IContainerTypeSymbol typeBounds) {
+        return typeBounds == null || typeBounds.isFixed();
+    }
+
     private boolean isOneToOneMatch(int numberOfArguments, List<ITypeSymbol> argumentTypes, IFunctionType overload) {
         boolean isOneToOne = true;
         IBindingCollection rightBindings = overload.getBindingCollection();
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.inference_engine.issues.ISolverIssueReporter;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+import ch.tsphp.tinsphp.inference_engine.metrics.NoOpSolverMetricsListener;
+
+import java.io.File;
+
+public class ConstraintSolverSettingsDto
+{
+    /**
+     * Dependent methods are forked as sub-tasks of the task which released them. Requires that the ExecutorService
+     * passed to the ConstraintSolver is a ForkJoinPool.
+     */
+    public boolean useWorkStealing = false;
+
+    /**
+     * Keeps the overloads of solved methods between runs and takes them over if neither the method nor the methods
+     * it calls changed, i.e. only changed methods and their (transitive) callers are solved again after a reset.
+     * Recursive methods and methods which fall back to soft typing are always solved again.
+     */
+    public boolean useIncrementalSolving = false;
+
+    /**
+     * The file in which the signatures of solved methods are kept between processes, see
+     * {@link PersistentSignatureCache}. The signature cache is not used if no file is given.
+     */
+    public File signatureCacheFile = null;
+
+    /**
+     * Indicates that only the signatures of the methods are consumed and not the types of their local variables (the
+     * binding collections of the methods). The {@link PersistentSignatureCache} only stores the overloads, hence
+     * methods are only taken over from it if this is set, otherwise their signatures are only written to it.
+     */
+    public boolean areOnlySignaturesConsumed = false;
+
+    /**
+     * Solves a method as soon as the reference phase finished walking it and the methods it calls are solved, i.e.
+     * solving overlaps with the reference phase of the remaining methods. Methods which still wait on a callee when
+     * the reference phase is over (e.g. recursive methods) are solved as usual.
+     */
+    public boolean useStreamingSolving = false;
+
+    /**
+     * Drops a work item if another work item with the same state was already expanded, see
+     * {@link WorkItemFingerprinter}. Different overloads often lead to the same bindings, without deduplication
+     * they are expanded separately and result in the same overload.
+     */
+    public boolean useWorkItemDeduplication = false;
+
+    /**
+     * Splits the constraints of a method into components of constraints which share variables, see
+     * {@link ConstraintComponents}. Once a component which does not contain a parameter nor the return variable is
+     * solved, only one of the work items which differ solely in the bindings of this component is kept.
+     */
+    public boolean useConstraintDecomposition = false;
+
+    /**
+     * Eliminates trivial ref constraints (e.g. the ones created for return statements) before solving by unifying
+     * their left hand side with the right hand side, see {@link AssignmentSimplifier}. The eliminated variables are
+     * bound to the type variable of the variable which replaced them once the constraints are solved.
+     */
+    public boolean useAssignmentSimplification = false;
+
+    /**
+     * Reorders the constraints of a method (or of the global default namespace) before solving it such that the most
+     * constraining constraints are solved first while respecting the data dependencies, see
+     * {@link ConstraintOrderer}.
+     */
+    public boolean useConstraintReordering = false;
+
+    /**
+     * Solves the constraints of the global default namespace depth first and stops at the first solution instead of
+     * computing all solutions of which only the first one is used.
+     */
+    public boolean useFirstSolutionInGlobalDefaultNamespace = false;
+
+    /**
+     * Splits the constraints of the global default namespace into regions which do not share variables and solves
+     * them concurrently on the executor service, their bindings are merged afterwards. Each region falls back to soft
+     * typing on its own.
+     * <p/>
+     * The overload applied to a constraint can depend on the convertible types applied to preceding constraints of the
+     * same binding collection, hence a bound can be represented differently than if all constraints were solved
+     * together, e.g. (falseType | trueType) instead of {as (falseType | trueType)}.
+     */
+    public boolean useParallelGlobalDefaultNamespaceRegions = false;
+
+    /**
+     * The maximum number of work items which are processed when solving the constraints of a method (or of the global
+     * default namespace), 0 means unlimited. A method which exceeds the budget is solved with soft typing instead and
+     * {@link ISolverMetricsListener#workBudgetExceeded} is called. Does not apply to recursive methods which are
+     * solved iteratively.
+     */
+    public int maxWorkItemsPerMethod = 0;
+
+    /**
+     * The maximum time in milliseconds spent on solving the constraints of a method (or of the global default
+     * namespace), 0 means unlimited. Exceeding it has the same consequences as exceeding
+     * {@link #maxWorkItemsPerMethod}.
+     */
+    public long maxSolvingTimePerMethod = 0;
+
+    /**
+     * Is informed about the work the constraint solver does per method, use an
+     * {@link ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener} in order to find out which
+     * methods are expensive to solve.
+     */
+    public ISolverMetricsListener metricsListener = new NoOpSolverMetricsListener();
+
+    /**
+     * Is informed if the work budget is exceeded in addition to the {@link #metricsListener}, null if it shall only be
+     * reported to the metrics listener. The HardCodedInferenceEngineInitialiser sets its own issue reporter.
+     */
+    public ISolverIssueReporter issueReporter = null;
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+
+import java.util.Set;
+
+/**
+ * The signature of a simplified overload without its parameters.
+ * <p/>
+ * The parameters of an overload refer to the definition ASTs and scopes of a certain run, they are recreated from the
+ * method symbol of the run in which the overload is taken over.
+ */
+public class DetachedOverloadDto
+{
+    public final String name;
+    public final IBindingCollection bindingCollection;
+    public final Set<String> nonFixedTypeParameters;
+    public final int numberOfConvertibleApplications;
+    public final boolean hasConvertibleParameterTypes;
+
+    public DetachedOverloadDto(
+            String theName,
+            IBindingCollection theBindingCollection,
+            Set<String> theNonFixedTypeParameters,
+            int theNumberOfConvertibleApplications,
+            boolean hasItConvertibleParameterTypes) {
+        name = theName;
+        bindingCollection = theBindingCollection;
+        nonFixedTypeParameters = theNonFixedTypeParameters;
+        numberOfConvertibleApplications = theNumberOfConvertibleApplications;
+        hasConvertibleParameterTypes = hasItConvertibleParameterTypes;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.inference_engine.constraints.ConstraintRegion;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Solves the constraints of the global default namespace with the given constraint solver, either as a whole or split
+ * into regions which are solved concurrently, see {@link ConstraintSolverSettingsDto}.
+ */
+public class GlobalDefaultNamespaceSolver
+{
+    private final ConstraintSolver constraintSolver;
+    private final ISoftTypingConstraintSolver softTypingConstraintSolver;
+    private final WorklistHelper worklistHelper;
+    private final ISymbolFactory symbolFactory;
+    private final ExecutorService executorService;
+    private final ConstraintSolverSettingsDto settings;
+    private final BindingCollectionMerger bindingCollectionMerger;
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public GlobalDefaultNamespaceSolver(
+            ConstraintSolver theConstraintSolver,
+            ISoftTypingConstraintSolver theSoftTypingConstraintSolver,
+            WorklistHelper theWorklistHelper,
+            ISymbolFactory theSymbolFactory,
+            ExecutorService theExecutorService,
+            ConstraintSolverSettingsDto theSettings) {
+        constraintSolver = theConstraintSolver;
+        softTypingConstraintSolver = theSoftTypingConstraintSolver;
+        worklistHelper = theWorklistHelper;
+        symbolFactory = theSymbolFactory;
+        executorService = theExecutorService;
+        settings = theSettings;
+        bindingCollectionMerger = new BindingCollectionMerger(theSymbolFactory);
+    }
+
+    /**
+     * Solves the given constraints and returns the resulting bindings with fixed types.
+     */
+    public IBindingCollection solve(IConstraintCollection constraintCollection) {
+        List<IConstraintCollection> regions = Collections.emptyList();
+        if (settings.useParallelGlobalDefaultNamespaceRegions) {
+            regions = createRegions(constraintCollection);
+        }
+        IBindingCollection bindingCollection;
+        if (regions.size() > 1) {
+            bindingCollection = solveRegionsInParallel(regions);
+        } else {
+            bindingCollection = solveRegion(constraintCollection);
+        }
+        return bindingCollection;
+    }
+
+    /**
+     * Splits the constraints of the global default namespace into regions which do not share variables, see
+     * {@link ConstraintComponents}. The constraints of a region keep their order.
+     */
+    private List<IConstraintCollection> createRegions(IConstraintCollection constraintCollection) {
+        List<IConstraint> constraints = constraintCollection.getConstraints();
+        ConstraintComponents components = new ConstraintComponents(constraintCollection);
+        int numberOfComponents = components.getNumberOfComponents();
+        List<IConstraintCollection> regions = new ArrayList<>(numberOfComponents);
+        for (int i = 0; i < numberOfComponents; ++i) {
+            List<IConstraint> regionConstraints = new ArrayList<>();
+            for (Integer pointer : new TreeSet<>(components.getConstraints(i))) {
+                regionConstraints.add(constraints.get(pointer));
+            }
+            regions.add(new ConstraintRegion(constraintCollection, regionConstraints));
+        }
+        return regions;
+    }
+
+    /**
+     * Solves the given regions concurrently on the executor service and merges their bindings, the regions do not
+     * share variables and can hence be merged without any further checks.
+     */
+    private IBindingCollection solveRegionsInParallel(List<IConstraintCollection> regions) {
+        List<Future<IBindingCollection>> futures = new ArrayList<>(regions.size());
+        for (final IConstraintCollection region : regions) {
+            futures.add(executorService.submit(new Callable<IBindingCollection>()
+            {
+                @Override
+                public IBindingCollection call() {
+                    return solveRegion(region);
+                }
+            }));
+        }
+
+        IBindingCollection bindingCollection = symbolFactory.createBindingCollection();
+        for (Future<IBindingCollection> future : futures) {
+            try {
+                bindingCollectionMerger.merge(future.get(), bindingCollection);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return bindingCollection;
+    }
+
+    /**
+     * Solves the given constraints of the global default namespace (all of them or a region) and fixes the types of
+     * the resulting bindings. Falls back to soft typing if they cannot be solved.
+     */
+    private IBindingCollection solveRegion(IConstraintCollection constraintCollection) {
+        Deque<WorkItemDto> workDeque = worklistHelper.createWorklist(constraintCollection, false);
+        //only the first solution is used
+        List<WorkItemDto> workItemDtos = constraintSolver.solveConstraints(
+                workDeque, settings.useFirstSolutionInGlobalDefaultNamespace);
+        IBindingCollection bindingCollection;
+        if (!workItemDtos.isEmpty()) {
+            bindingCollection = workItemDtos.get(0).bindingCollection;
+        } else {
+            settings.metricsListener.softTypingFallback(constraintCollection);
+            WorkItemDto softTypingWorkItem = worklistHelper.addSoftTypingWorkItem(
+                    constraintCollection, workDeque, false);
+            constraintSolver.solveConstraints(workDeque);
+            softTypingConstraintSolver.solveConstraints(constraintCollection, softTypingWorkItem);
+            bindingCollection = softTypingWorkItem.bindingCollection;
+        }
+        for (String variableId : bindingCollection.getVariableIds()) {
+            bindingCollection.fixType(variableId);
+        }
+        return bindingCollection;
+    }
+}
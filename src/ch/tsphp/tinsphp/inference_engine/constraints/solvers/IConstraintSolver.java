@@ -21,5 +21,17 @@ public interface IConstraintSolver
 {
     void solveConstraints(List<IMethodSymbol> methodSymbols, IGlobalNamespaceScope globalDefaultNamespaceScope);
 
+    /**
+     * Informs the solver that the constraints of the given method are complete, i.e. the reference phase has walked
+     * its body.
+     */
+    void methodFinished(IMethodSymbol methodSymbol);
+
     List<WorkItemDto> solveConstraints(Deque<WorkItemDto> workDeque);
+
+    /**
+     * Discards the state of the current run, e.g. methods which were streamed during a reference phase which was
+     * not followed by {@link #solveConstraints(List, IGlobalNamespaceScope)}.
+     */
+    void reset();
 }
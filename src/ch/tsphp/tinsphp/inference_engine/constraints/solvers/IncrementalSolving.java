@@ -0,0 +1,178 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the results of solved methods for the next run (see {@link SolvedMethodCache}) respectively for the next
+ * process (see {@link PersistentSignatureCache}) and takes them over instead of solving a method again.
+ */
+public class IncrementalSolving
+{
+    private final ConstraintSolver constraintSolver;
+    private final ConstraintSolverSettingsDto settings;
+    private final SolvedMethodCache solvedMethodCache;
+    private final PersistentSignatureCache signatureCache;
+
+    private volatile Set<String> reusedMethods = Collections.emptySet();
+
+    public IncrementalSolving(
+            ConstraintSolver theConstraintSolver,
+            ISymbolFactory theSymbolFactory,
+            ConstraintSolverSettingsDto theSettings,
+            PersistentSignatureCache theSignatureCache) {
+        constraintSolver = theConstraintSolver;
+        settings = theSettings;
+        signatureCache = theSignatureCache;
+        solvedMethodCache = new SolvedMethodCache(theSymbolFactory);
+    }
+
+    /**
+     * Indicates whether methods shall be solved with {@link #createSolver(IMethodSymbol)}, i.e. whether the incremental
+     * solving is enabled or there is a signature cache.
+     */
+    public boolean isUsed() {
+        return settings.useIncrementalSolving || signatureCache != null;
+    }
+
+    public void startRun() {
+        if (settings.useIncrementalSolving) {
+            reusedMethods = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        }
+    }
+
+    /**
+     * Forgets the methods which are not part of the given methods anymore, their entries would only occupy memory.
+     */
+    public void retainAll(Set<String> methodNames) {
+        solvedMethodCache.retainAll(methodNames);
+    }
+
+    public void remove(String methodName) {
+        solvedMethodCache.remove(methodName);
+    }
+
+    /**
+     * Keeps the result of the given method for the next run respectively the next process.
+     */
+    public void keep(
+            String methodName,
+            String fingerprint,
+            List<IFunctionType> overloads,
+            List<IBindingCollection> bindingCollections) {
+        if (settings.useIncrementalSolving) {
+            solvedMethodCache.put(methodName, fingerprint, overloads, bindingCollections);
+        }
+        if (signatureCache != null) {
+            signatureCache.put(fingerprint, overloads);
+        }
+    }
+
+    public void storeSignatures() {
+        if (signatureCache != null) {
+            signatureCache.store();
+        }
+    }
+
+    public Runnable createSolver(IMethodSymbol methodSymbol) {
+        return new IncrementalMethodSolver(methodSymbol);
+    }
+
+    /**
+     * Takes over the overloads and bindings of the previous run if neither the method nor the overloads of the
+     * methods it calls changed and all called user defined methods were taken over as well. Otherwise the overloads
+     * are taken from the signature cache if there is one. If neither applies, the method is solved and the result is
+     * kept for the next run.
+     */
+    private class IncrementalMethodSolver implements Runnable
+    {
+        private final IMethodSymbol methodSymbol;
+
+        public IncrementalMethodSolver(IMethodSymbol theMethodSymbol) {
+            methodSymbol = theMethodSymbol;
+        }
+
+        @Override
+        public void run() {
+            String methodName = methodSymbol.getAbsoluteName();
+            String fingerprint = null;
+            boolean allCalleesReused = true;
+            boolean allCalleesSolved = true;
+            for (IConstraint constraint : methodSymbol.getConstraints()) {
+                IMinimalMethodSymbol callee = constraint.getMethodSymbol();
+                String calleeName = callee.getAbsoluteName();
+                if (constraintSolver.isUserMethod(calleeName)) {
+                    allCalleesReused = allCalleesReused && reusedMethods.contains(calleeName);
+                    allCalleesSolved = allCalleesSolved && callee.getOverloads().size() != 0;
+                }
+            }
+
+            //callees which are not yet solved depend on a recursive method, the method is solved later on as a
+            //dependent method and its result is not kept
+            boolean isTakenOver = false;
+            if (allCalleesSolved) {
+                fingerprint = solvedMethodCache.createFingerprint(methodSymbol);
+                if (settings.useIncrementalSolving && allCalleesReused) {
+                    SolvedMethodDto solvedMethod = solvedMethodCache.get(methodName, fingerprint);
+                    if (solvedMethod != null) {
+                        takeOver(solvedMethod);
+                        isTakenOver = true;
+                    }
+                }
+                if (!isTakenOver && signatureCache != null && settings.areOnlySignaturesConsumed) {
+                    List<IFunctionType> overloads = signatureCache.get(fingerprint, methodSymbol);
+                    if (overloads != null) {
+                        takeOver(fingerprint, overloads);
+                        isTakenOver = true;
+                    }
+                }
+            }
+
+            if (!isTakenOver) {
+                solvedMethodCache.remove(methodName);
+                constraintSolver.solveMethod(methodSymbol, fingerprint);
+            }
+        }
+
+        private void takeOver(SolvedMethodDto solvedMethod) {
+            String methodName = methodSymbol.getAbsoluteName();
+            synchronized (methodSymbol) {
+                for (IBindingCollection bindingCollection : solvedMethod.bindingCollections) {
+                    methodSymbol.addBindingCollection(bindingCollection);
+                }
+                methodSymbol.setOverloads(solvedMethodCache.createOverloads(solvedMethod, methodSymbol));
+            }
+            //needs to be marked before the callers are released, they check whether their callees were reused
+            reusedMethods.add(methodName);
+            constraintSolver.methodTakenOver(methodName);
+        }
+
+        private void takeOver(String fingerprint, List<IFunctionType> overloads) {
+            String methodName = methodSymbol.getAbsoluteName();
+            synchronized (methodSymbol) {
+                methodSymbol.setOverloads(overloads);
+            }
+            //not marked as reused since the overloads are new instances, callers need to be solved again
+            if (settings.useIncrementalSolving) {
+                solvedMethodCache.put(
+                        methodName, fingerprint, overloads, Collections.<IBindingCollection>emptyList());
+            }
+            constraintSolver.methodTakenOver(methodName);
+        }
+    }
+}
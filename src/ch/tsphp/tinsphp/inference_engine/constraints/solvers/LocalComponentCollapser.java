@@ -0,0 +1,99 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.OverloadApplicationDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps only one of the work items which differ solely in the bindings of local components completed by the previous
+ * constraint, see {@link ConstraintComponents}. Hence, the work items of a local component add to the number of work
+ * items instead of multiplying it.
+ */
+public class LocalComponentCollapser
+{
+    private final WorkItemFingerprinter workItemFingerprinter;
+    private final ISolverMetricsListener metricsListener;
+
+    public LocalComponentCollapser(
+            WorkItemFingerprinter theWorkItemFingerprinter, ISolverMetricsListener theMetricsListener) {
+        workItemFingerprinter = theWorkItemFingerprinter;
+        metricsListener = theMetricsListener;
+    }
+
+    /**
+     * Collapses the work items at the front of the given deque which have the same pointer as the first one.
+     * <p/>
+     * The work items with the same pointer are next to each other since they are expanded breadth first. The one with
+     * the fewest implicit conversions and runtime checks (and then convertible applications) is kept, the first one
+     * if there is a tie.
+     */
+    public void collapse(Deque<WorkItemDto> workDeque, ConstraintComponents components) {
+        int pointer = workDeque.peekFirst().pointer;
+        Set<String> finishedLocalVariables = components.getFinishedLocalVariables(pointer);
+        if (finishedLocalVariables != null && workDeque.size() > 1) {
+            Set<Integer> finishedLocalConstraints = components.getFinishedLocalConstraints(pointer);
+            List<WorkItemDto> keptWorkItems = new ArrayList<>();
+            Map<List<Object>, Integer> representatives = new HashMap<>();
+            while (!workDeque.isEmpty() && workDeque.peekFirst().pointer == pointer) {
+                WorkItemDto workItemDto = workDeque.removeFirst();
+                List<Object> fingerprint = workItemFingerprinter.createFingerprint(
+                        workItemDto, finishedLocalVariables, finishedLocalConstraints);
+                Integer index = fingerprint != null ? representatives.get(fingerprint) : null;
+                if (index == null) {
+                    if (fingerprint != null) {
+                        representatives.put(fingerprint, keptWorkItems.size());
+                    }
+                    keptWorkItems.add(workItemDto);
+                } else {
+                    metricsListener.workItemPruned(workItemDto.constraintCollection);
+                    if (hasLessConversions(workItemDto, keptWorkItems.get(index))) {
+                        keptWorkItems.set(index, workItemDto);
+                    }
+                }
+            }
+            for (int i = keptWorkItems.size() - 1; i >= 0; --i) {
+                workDeque.addFirst(keptWorkItems.get(i));
+            }
+        }
+    }
+
+    private boolean hasLessConversions(WorkItemDto workItemDto, WorkItemDto otherWorkItemDto) {
+        int numberOfConversions = getNumberOfConversions(workItemDto);
+        int otherNumberOfConversions = getNumberOfConversions(otherWorkItemDto);
+        return numberOfConversions < otherNumberOfConversions
+                || numberOfConversions == otherNumberOfConversions
+                && workItemDto.bindingCollection.getNumberOfConvertibleApplications()
+                < otherWorkItemDto.bindingCollection.getNumberOfConvertibleApplications();
+    }
+
+    private int getNumberOfConversions(WorkItemDto workItemDto) {
+        int numberOfConversions = 0;
+        IBindingCollection bindings = workItemDto.bindingCollection;
+        for (String variableId : bindings.getVariableIds()) {
+            OverloadApplicationDto appliedOverload = bindings.getAppliedOverload(variableId);
+            if (appliedOverload != null) {
+                if (appliedOverload.implicitConversions != null) {
+                    numberOfConversions += appliedOverload.implicitConversions.size();
+                }
+                if (appliedOverload.runtimeChecks != null) {
+                    numberOfConversions += appliedOverload.runtimeChecks.size();
+                }
+            }
+        }
+        return numberOfConversions;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which overloads were not applicable for a given description of the arguments.
+ * <p/>
+ * Only rejections are kept, they save the attempt to aggregate the binding. An applicable overload still needs to
+ * aggregate its binding in order that the work item gets its bindings, hence knowing it would not save any work.
+ * <p/>
+ * The description has to contain everything the applicability depends on (see the users of this cache). The cache
+ * is bounded, it is cleared as a whole once it reaches its maximum size, which is cheap and good enough since the
+ * same combinations of overloads and argument types reappear quickly.
+ */
+public class OverloadApplicabilityCache
+{
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final int maximumSize;
+    private final Set<Key> inapplicableOverloads = Collections.newSetFromMap(new ConcurrentHashMap<Key, Boolean>());
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public OverloadApplicabilityCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public OverloadApplicabilityCache(int theMaximumSize) {
+        maximumSize = theMaximumSize;
+    }
+
+    /**
+     * Indicates whether the given overload was not applicable for the given arguments, counts as hit if so.
+     */
+    public boolean isKnownToBeInapplicable(IFunctionType overload, List<Object> argumentsDescription) {
+        boolean isInapplicable = inapplicableOverloads.contains(new Key(overload, argumentsDescription));
+        if (isInapplicable) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return isInapplicable;
+    }
+
+    public void rememberInapplicable(IFunctionType overload, List<Object> argumentsDescription) {
+        if (inapplicableOverloads.size() >= maximumSize) {
+            inapplicableOverloads.clear();
+        }
+        inapplicableOverloads.add(new Key(overload, argumentsDescription));
+    }
+
+    public long getNumberOfHits() {
+        return hits.get();
+    }
+
+    public long getNumberOfMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return inapplicableOverloads.size();
+    }
+
+    public void clear() {
+        inapplicableOverloads.clear();
+    }
+
+    private static final class Key
+    {
+        private final IFunctionType overload;
+        private final List<Object> argumentsDescription;
+        private final int hashCode;
+
+        Key(IFunctionType theOverload, List<Object> theArgumentsDescription) {
+            overload = theOverload;
+            argumentsDescription = theArgumentsDescription;
+            hashCode = HASH_MULTIPLIER * System.identityHashCode(overload) + argumentsDescription.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return overload == key.overload && argumentsDescription.equals(key.argumentsDescription);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
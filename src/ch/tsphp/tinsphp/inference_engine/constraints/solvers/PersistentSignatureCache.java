@@ -0,0 +1,547 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.BoundException;
+import ch.tsphp.tinsphp.common.inference.constraints.FixedTypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.inference.constraints.TypeVariableReference;
+import ch.tsphp.tinsphp.common.symbols.IContainerTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IConvertibleTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IIntersectionTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IUnionTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the overloads of solved methods in a file, keyed by the fingerprint of the method (see
+ * {@link SolvedMethodCache#createFingerprint}), so that stable code does not need to be solved again in the next
+ * process.
+ * <p/>
+ * The file is read into memory when the cache is created, entries are only decoded when they are requested. It is
+ * not memory-mapped since a mapped file cannot be replaced on Windows as long as the mapping is reachable and Java
+ * does not provide a way to unmap it. New entries are written back by {@link #store()}. Overloads which refer to
+ * other types than primitive types, unions, intersections and convertible types are not stored.
+ * <p/>
+ * Only the overloads are stored and not the binding collections of the method, i.e. the method symbol of a cache hit
+ * does not have any binding collections. Hence the constraint solver only takes methods over from it if the types of
+ * local variables are not consumed (see {@link ConstraintSolverSettingsDto#areOnlySignaturesConsumed}).
+ * <p/>
+ * A corrupt or truncated file is treated as empty and a corrupt entry as a miss, the method is solved as usual then.
+ */
+public class PersistentSignatureCache
+{
+    private static final int MAGIC = 0x54494E53;
+    private static final int VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    //magic number, version and number of entries
+    private static final int HEADER_SIZE = 12;
+
+    private static final byte NO_TYPE = 0;
+    private static final byte PRIMITIVE_TYPE = 1;
+    private static final byte UNION_TYPE = 2;
+    private static final byte INTERSECTION_TYPE = 3;
+    private static final byte BOUND_CONVERTIBLE_TYPE = 4;
+    private static final byte CONVERTIBLE_TYPE = 5;
+
+    private final File file;
+    private final ISymbolFactory symbolFactory;
+    private final Map<String, ITypeSymbol> primitiveTypes = new HashMap<>();
+    private final Map<ITypeSymbol, String> primitiveTypeNames = new IdentityHashMap<>();
+    private final Map<String, ByteBuffer> storedEntries = new HashMap<>();
+    private final ConcurrentMap<String, byte[]> newEntries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PersistentSignatureCache(
+            File theFile, ISymbolFactory theSymbolFactory, Map<String, ITypeSymbol> thePrimitiveTypes) {
+        file = theFile;
+        symbolFactory = theSymbolFactory;
+        for (ITypeSymbol typeSymbol : thePrimitiveTypes.values()) {
+            primitiveTypes.put(typeSymbol.getAbsoluteName(), typeSymbol);
+            primitiveTypeNames.put(typeSymbol, typeSymbol.getAbsoluteName());
+        }
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    private void load() {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        //a file of another version is ignored and overwritten with the next store
+        if (buffer.remaining() >= HEADER_SIZE && buffer.getInt() == MAGIC && buffer.getInt() == VERSION) {
+            try {
+                int numberOfEntries = buffer.getInt();
+                for (int i = 0; i < numberOfEntries; ++i) {
+                    String fingerprint = readString(buffer);
+                    int length = readLength(buffer);
+                    ByteBuffer entry = buffer.slice();
+                    entry.limit(length);
+                    storedEntries.put(fingerprint, entry);
+                    buffer.position(buffer.position() + length);
+                }
+            } catch (BufferUnderflowException | IllegalStateException ex) {
+                //same as for another version, the file is overwritten with the next store
+                storedEntries.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the overloads stored for the given fingerprint or null if there are none or the entry is corrupt.
+     */
+    public List<IFunctionType> get(String fingerprint, IMethodSymbol methodSymbol) {
+        byte[] newEntry = newEntries.get(fingerprint);
+        ByteBuffer entry = newEntry != null ? ByteBuffer.wrap(newEntry) : storedEntries.get(fingerprint);
+        List<IFunctionType> overloads = entry != null ? decode(entry, methodSymbol) : null;
+        if (overloads == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return overloads;
+    }
+
+    private List<IFunctionType> decode(ByteBuffer entry, IMethodSymbol methodSymbol) {
+        try {
+            //duplicate in order that concurrent readers do not share the position
+            return readOverloads(entry.duplicate(), methodSymbol);
+        } catch (BufferUnderflowException | IllegalStateException | BoundException ex) {
+            //a corrupt entry is a miss, it is replaced with the new entry once the method is solved again
+            return null;
+        }
+    }
+
+    /**
+     * Encodes the given overloads, returns false if they cannot be stored.
+     */
+    public boolean put(String fingerprint, Collection<IFunctionType> overloads) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream)) {
+            outputStream.writeInt(overloads.size());
+            for (IFunctionType overload : overloads) {
+                if (!writeOverload(outputStream, overload)) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        newEntries.put(fingerprint, byteArrayOutputStream.toByteArray());
+        return true;
+    }
+
+    /**
+     * Writes the stored and the new entries to the file if there are new entries.
+     */
+    public void store() {
+        if (newEntries.isEmpty()) {
+            return;
+        }
+
+        Map<String, byte[]> entries = new HashMap<>();
+        for (Map.Entry<String, ByteBuffer> entry : storedEntries.entrySet()) {
+            ByteBuffer buffer = entry.getValue().duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            entries.put(entry.getKey(), bytes);
+        }
+        entries.putAll(newEntries);
+
+        //write to a temporary file in the same folder first and move it atomically over the current file, hence
+        //neither a reader nor another process which stores at the same time sees a partially written file
+        try {
+            File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+            try {
+                write(tmpFile, entries);
+                Files.move(tmpFile.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmpFile.toPath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("could not replace the signature cache " + file, e);
+        }
+
+        storedEntries.clear();
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            storedEntries.put(entry.getKey(), ByteBuffer.wrap(entry.getValue()));
+        }
+        newEntries.clear();
+    }
+
+    private void write(File targetFile, Map<String, byte[]> entries) throws IOException {
+        try (DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(targetFile)))) {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeInt(entries.size());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                writeString(outputStream, entry.getKey());
+                outputStream.writeInt(entry.getValue().length);
+                outputStream.write(entry.getValue());
+            }
+        }
+    }
+
+    public long getNumberOfHits() {
+        return hits.get();
+    }
+
+    public long getNumberOfMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        Set<String> fingerprints = new HashSet<>(storedEntries.keySet());
+        fingerprints.addAll(newEntries.keySet());
+        return fingerprints.size();
+    }
+
+    private boolean writeOverload(DataOutputStream outputStream, IFunctionType overload) throws IOException {
+        writeString(outputStream, overload.getName());
+        IBindingCollection bindingCollection = overload.getBindingCollection();
+        Set<String> typeVariables = new LinkedHashSet<>();
+        Set<String> variableIds = bindingCollection.getVariableIds();
+        outputStream.writeInt(variableIds.size());
+        for (String variableId : variableIds) {
+            ITypeVariableReference reference = bindingCollection.getTypeVariableReference(variableId);
+            writeString(outputStream, variableId);
+            writeString(outputStream, reference.getTypeVariable());
+            outputStream.writeBoolean(reference.hasFixedType());
+            typeVariables.add(reference.getTypeVariable());
+        }
+
+        outputStream.writeInt(typeVariables.size());
+        for (String typeVariable : typeVariables) {
+            writeString(outputStream, typeVariable);
+            ITypeSymbol lowerTypeBounds = bindingCollection.hasLowerTypeBounds(typeVariable)
+                    ? bindingCollection.getLowerTypeBounds(typeVariable)
+                    : null;
+            ITypeSymbol upperTypeBounds = bindingCollection.hasUpperTypeBounds(typeVariable)
+                    ? bindingCollection.getUpperTypeBounds(typeVariable)
+                    : null;
+            if (!writeType(outputStream, lowerTypeBounds) || !writeType(outputStream, upperTypeBounds)) {
+                return false;
+            }
+            Set<String> lowerRefBounds = bindingCollection.hasLowerRefBounds(typeVariable)
+                    ? bindingCollection.getLowerRefBounds(typeVariable)
+                    : new HashSet<String>();
+            outputStream.writeInt(lowerRefBounds.size());
+            for (String lowerRefBound : lowerRefBounds) {
+                writeString(outputStream, lowerRefBound);
+            }
+        }
+
+        Set<String> nonFixedTypeParameters = overload.getNonFixedTypeParameters();
+        outputStream.writeInt(nonFixedTypeParameters.size());
+        for (String typeParameter : nonFixedTypeParameters) {
+            writeString(outputStream, typeParameter);
+        }
+        outputStream.writeInt(overload.getNumberOfConvertibleApplications());
+        outputStream.writeBoolean(overload.hasConvertibleParameterTypes());
+        return true;
+    }
+
+    private boolean writeType(DataOutputStream outputStream, ITypeSymbol typeSymbol) throws IOException {
+        boolean canBeWritten = true;
+        if (typeSymbol == null) {
+            outputStream.writeByte(NO_TYPE);
+        } else if (primitiveTypeNames.containsKey(typeSymbol)) {
+            outputStream.writeByte(PRIMITIVE_TYPE);
+            writeString(outputStream, primitiveTypeNames.get(typeSymbol));
+        } else if (typeSymbol instanceof IUnionTypeSymbol || typeSymbol instanceof IIntersectionTypeSymbol) {
+            outputStream.writeByte(typeSymbol instanceof IUnionTypeSymbol ? UNION_TYPE : INTERSECTION_TYPE);
+            Collection<ITypeSymbol> typeSymbols = ((IContainerTypeSymbol) typeSymbol).getTypeSymbols().values();
+            outputStream.writeInt(typeSymbols.size());
+            for (ITypeSymbol innerTypeSymbol : typeSymbols) {
+                canBeWritten = canBeWritten && writeType(outputStream, innerTypeSymbol);
+            }
+        } else if (typeSymbol instanceof IConvertibleTypeSymbol) {
+            IConvertibleTypeSymbol convertibleTypeSymbol = (IConvertibleTypeSymbol) typeSymbol;
+            if (!convertibleTypeSymbol.isFixed()) {
+                outputStream.writeByte(BOUND_CONVERTIBLE_TYPE);
+                writeString(outputStream, convertibleTypeSymbol.getTypeVariable());
+            } else {
+                outputStream.writeByte(CONVERTIBLE_TYPE);
+                canBeWritten = writeType(outputStream, convertibleTypeSymbol.hasLowerTypeBounds()
+                        ? convertibleTypeSymbol.getLowerTypeBounds()
+                        : null);
+                canBeWritten = canBeWritten && writeType(outputStream, convertibleTypeSymbol.hasUpperTypeBounds()
+                        ? convertibleTypeSymbol.getUpperTypeBounds()
+                        : null);
+            }
+        } else {
+            canBeWritten = false;
+        }
+        return canBeWritten;
+    }
+
+    private void writeString(DataOutputStream outputStream, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private List<IFunctionType> readOverloads(ByteBuffer buffer, IMethodSymbol methodSymbol) {
+        int numberOfOverloads = buffer.getInt();
+        //a method has at least one overload, a valid entry is read completely
+        if (numberOfOverloads <= 0 || numberOfOverloads > buffer.remaining()) {
+            throw new IllegalStateException("corrupt number of overloads " + numberOfOverloads
+                    + " in the signature cache " + file);
+        }
+        List<IFunctionType> overloads = new ArrayList<>(numberOfOverloads);
+        for (int i = 0; i < numberOfOverloads; ++i) {
+            overloads.add(readOverload(buffer, methodSymbol));
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalStateException("corrupt entry in the signature cache " + file);
+        }
+        return overloads;
+    }
+
+    private IFunctionType readOverload(ByteBuffer buffer, IMethodSymbol methodSymbol) {
+        String name = readString(buffer);
+        IBindingCollection bindingCollection = symbolFactory.createBindingCollection();
+        Map<String, ITypeVariableReference> references = new HashMap<>();
+        int numberOfVariables = buffer.getInt();
+        for (int i = 0; i < numberOfVariables; ++i) {
+            String variableId = readString(buffer);
+            String typeVariable = readString(buffer);
+            boolean hasFixedType = buffer.get() != 0;
+            ITypeVariableReference reference = references.get(typeVariable);
+            if (reference == null) {
+                reference = new TypeVariableReference(typeVariable);
+                references.put(typeVariable, reference);
+            }
+            if (hasFixedType) {
+                bindingCollection.addVariable(variableId, new FixedTypeVariableReference(reference));
+            } else {
+                bindingCollection.addVariable(variableId, reference);
+            }
+        }
+
+        //lower type bounds are added first since adding an upper type bound checks it against the lower type bounds.
+        //Upper type bounds which contain convertible types bound to other type variables are added after the upper
+        //type bounds of those type variables. Ref bounds are added at the end, the type bounds are complete already
+        //and need not be propagated
+        Map<String, List<ITypeSymbol>> upperTypeBounds = new HashMap<>();
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        Map<String, List<String>> lowerRefBounds = new HashMap<>();
+        int numberOfTypeVariables = buffer.getInt();
+        for (int i = 0; i < numberOfTypeVariables; ++i) {
+            String typeVariable = readString(buffer);
+            Set<String> boundTypeVariables = new HashSet<>();
+            for (ITypeSymbol typeSymbol : readTypeBounds(buffer, bindingCollection, boundTypeVariables)) {
+                bindingCollection.addLowerTypeBound(typeVariable, typeSymbol);
+            }
+            boundTypeVariables.clear();
+            List<ITypeSymbol> typeBounds = readTypeBounds(buffer, bindingCollection, boundTypeVariables);
+            if (!typeBounds.isEmpty()) {
+                upperTypeBounds.put(typeVariable, typeBounds);
+                boundTypeVariables.remove(typeVariable);
+                dependencies.put(typeVariable, boundTypeVariables);
+            }
+            int numberOfLowerRefBounds = buffer.getInt();
+            List<String> refBounds = new ArrayList<>();
+            for (int j = 0; j < numberOfLowerRefBounds; ++j) {
+                refBounds.add(readString(buffer));
+            }
+            lowerRefBounds.put(typeVariable, refBounds);
+        }
+        addUpperTypeBounds(bindingCollection, upperTypeBounds, dependencies);
+        for (Map.Entry<String, List<String>> entry : lowerRefBounds.entrySet()) {
+            for (String refBound : entry.getValue()) {
+                ITypeVariableReference reference = references.get(refBound);
+                if (reference == null) {
+                    throw new IllegalStateException("unknown type variable " + refBound + " in the signature cache "
+                            + file);
+                }
+                bindingCollection.addLowerRefBound(entry.getKey(), reference);
+            }
+        }
+
+        Set<String> nonFixedTypeParameters = new HashSet<>();
+        int numberOfNonFixedTypeParameters = buffer.getInt();
+        for (int i = 0; i < numberOfNonFixedTypeParameters; ++i) {
+            nonFixedTypeParameters.add(readString(buffer));
+        }
+        int numberOfConvertibleApplications = buffer.getInt();
+        boolean hasConvertibleParameterTypes = buffer.get() != 0;
+
+        IFunctionType overload = symbolFactory.createFunctionType(
+                name, bindingCollection, createParameters(methodSymbol));
+        overload.manuallySimplified(
+                nonFixedTypeParameters, numberOfConvertibleApplications, hasConvertibleParameterTypes);
+        return overload;
+    }
+
+    private void addUpperTypeBounds(
+            IBindingCollection bindingCollection,
+            Map<String, List<ITypeSymbol>> upperTypeBounds,
+            Map<String, Set<String>> dependencies) {
+        while (!upperTypeBounds.isEmpty()) {
+            List<String> typeVariables = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+                if (Collections.disjoint(entry.getValue(), upperTypeBounds.keySet())) {
+                    typeVariables.add(entry.getKey());
+                }
+            }
+            //cyclic dependencies, the remaining upper type bounds are added in arbitrary order
+            if (typeVariables.isEmpty()) {
+                typeVariables.addAll(upperTypeBounds.keySet());
+            }
+            for (String typeVariable : typeVariables) {
+                List<ITypeSymbol> typeBounds = upperTypeBounds.remove(typeVariable);
+                dependencies.remove(typeVariable);
+                for (ITypeSymbol typeSymbol : typeBounds) {
+                    bindingCollection.addUpperTypeBound(typeVariable, typeSymbol);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the parameters in the same way as {@link ConstraintSolverHelper#createOverload} does.
+     */
+    private List<IVariable> createParameters(IMethodSymbol methodSymbol) {
+        List<IVariable> parameters = new ArrayList<>();
+        for (IVariableSymbol parameter : methodSymbol.getParameters()) {
+            IMinimalVariableSymbol parameterVariable = symbolFactory.createMinimalVariableSymbol(
+                    parameter.getDefinitionAst(), parameter.getName());
+            parameterVariable.setDefinitionScope(parameter.getDefinitionScope());
+            parameterVariable.setType(parameter.getType());
+            parameters.add(parameterVariable);
+        }
+        return parameters;
+    }
+
+    /**
+     * Reads the members of the lower type bounds (a union) or the upper type bounds (an intersection) of a type
+     * variable without creating the container, the members might be convertible types bound to type variables which
+     * do not have their type bounds yet.
+     */
+    private List<ITypeSymbol> readTypeBounds(
+            ByteBuffer buffer, IBindingCollection bindingCollection, Set<String> boundTypeVariables) {
+        List<ITypeSymbol> typeBounds = new ArrayList<>();
+        byte kind = buffer.get();
+        if (kind != NO_TYPE) {
+            int numberOfTypeSymbols = buffer.getInt();
+            for (int i = 0; i < numberOfTypeSymbols; ++i) {
+                typeBounds.add(readType(buffer, bindingCollection, boundTypeVariables));
+            }
+        }
+        return typeBounds;
+    }
+
+    private ITypeSymbol readType(
+            ByteBuffer buffer, IBindingCollection bindingCollection, Set<String> boundTypeVariables) {
+        ITypeSymbol typeSymbol;
+        byte kind = buffer.get();
+        switch (kind) {
+            case NO_TYPE:
+                typeSymbol = null;
+                break;
+            case PRIMITIVE_TYPE:
+                String name = readString(buffer);
+                typeSymbol = primitiveTypes.get(name);
+                if (typeSymbol == null) {
+                    throw new IllegalStateException("unknown type " + name + " in the signature cache " + file);
+                }
+                break;
+            case UNION_TYPE:
+            case INTERSECTION_TYPE:
+                IContainerTypeSymbol containerTypeSymbol = kind == UNION_TYPE
+                        ? symbolFactory.createUnionTypeSymbol()
+                        : symbolFactory.createIntersectionTypeSymbol();
+                int numberOfTypeSymbols = buffer.getInt();
+                for (int i = 0; i < numberOfTypeSymbols; ++i) {
+                    containerTypeSymbol.addTypeSymbol(readType(buffer, bindingCollection, boundTypeVariables));
+                }
+                typeSymbol = containerTypeSymbol;
+                break;
+            case BOUND_CONVERTIBLE_TYPE:
+                IConvertibleTypeSymbol boundConvertibleTypeSymbol = symbolFactory.createConvertibleTypeSymbol();
+                String typeVariable = readString(buffer);
+                bindingCollection.bind(boundConvertibleTypeSymbol, Arrays.asList(typeVariable));
+                boundTypeVariables.add(typeVariable);
+                typeSymbol = boundConvertibleTypeSymbol;
+                break;
+            case CONVERTIBLE_TYPE:
+                IConvertibleTypeSymbol convertibleTypeSymbol = symbolFactory.createConvertibleTypeSymbol();
+                ITypeSymbol lowerTypeBounds = readType(buffer, bindingCollection, boundTypeVariables);
+                if (lowerTypeBounds != null) {
+                    convertibleTypeSymbol.addLowerTypeBound(lowerTypeBounds);
+                }
+                ITypeSymbol upperTypeBounds = readType(buffer, bindingCollection, boundTypeVariables);
+                if (upperTypeBounds != null) {
+                    convertibleTypeSymbol.addUpperTypeBound(upperTypeBounds);
+                }
+                typeSymbol = convertibleTypeSymbol;
+                break;
+            default:
+                throw new IllegalStateException("unknown type kind " + kind + " in the signature cache " + file);
+        }
+        return typeSymbol;
+    }
+
+    private String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Reads a length and checks it against the remaining bytes, a corrupt length would otherwise allocate arbitrary
+     * much memory.
+     */
+    private int readLength(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("corrupt length " + length + " in the signature cache " + file);
+        }
+        return length;
+    }
+}
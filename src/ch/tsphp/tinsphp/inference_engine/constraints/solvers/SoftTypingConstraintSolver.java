@@ -31,6 +31,8 @@ import ch.tsphp.tinsphp.inference_engine.constraints.AggregateBindingDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.IMostSpecificOverloadDecider;
 import ch.tsphp.tinsphp.inference_engine.constraints.OverloadRankingDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+import ch.tsphp.tinsphp.inference_engine.metrics.NoOpSolverMetricsListener;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -49,6 +51,7 @@ public class SoftTypingConstraintSolver implements ISoftTypingConstraintSolver
     private final IMostSpecificOverloadDecider mostSpecificOverloadDecider;
     private final IInferenceIssueReporter issueReporter;
     private final ITypeSymbol mixedTypeSymbol;
+    private final ISolverMetricsListener metricsListener;
 
     @SuppressWarnings("checkstyle:parameternumber")
     public SoftTypingConstraintSolver(
@@ -57,11 +60,28 @@ public class SoftTypingConstraintSolver implements ISoftTypingConstraintSolver
             IInferenceIssueReporter theIssueReporter,
             IConstraintSolverHelper theConstraintSolverHelper,
             IMostSpecificOverloadDecider theMostSpecificOverloadDecider) {
+        this(theSymbolFactory,
+                theTypeHelper,
+                theIssueReporter,
+                theConstraintSolverHelper,
+                theMostSpecificOverloadDecider,
+                new NoOpSolverMetricsListener());
+    }
+
+    @SuppressWarnings("checkstyle:parameternumber")
+    public SoftTypingConstraintSolver(
+            ISymbolFactory theSymbolFactory,
+            ITypeHelper theTypeHelper,
+            IInferenceIssueReporter theIssueReporter,
+            IConstraintSolverHelper theConstraintSolverHelper,
+            IMostSpecificOverloadDecider theMostSpecificOverloadDecider,
+            ISolverMetricsListener theMetricsListener) {
         symbolFactory = theSymbolFactory;
         typeHelper = theTypeHelper;
         issueReporter = theIssueReporter;
         constraintSolverHelper = theConstraintSolverHelper;
         mostSpecificOverloadDecider = theMostSpecificOverloadDecider;
+        metricsListener = theMetricsListener;
         mixedTypeSymbol = symbolFactory.getMixedTypeSymbol();
     }
 
@@ -165,18 +185,25 @@ public class SoftTypingConstraintSolver implements ISoftTypingConstraintSolver
             List<OverloadRankingDto> applicableOverloads = new ArrayList<>();
             for (IFunctionType overload : constraint.getMethodSymbol().getOverloads()) {
                 if (numberOfArguments >= overload.getNumberOfNonOptionalParameters()) {
-                    IBindingCollection leftBindings = symbolFactory.createBindingCollection(
-                            workItemDto.bindingCollection);
                     Map<Integer, Pair<ITypeSymbol, List<ITypeSymbol>>> runtimeChecks = new HashMap<>();
-                    boolean overloadApplies = isApplicable(constraint, overload, leftBindings, runtimeChecks);
+                    //isApplicable only reads the bindings, hence we copy them only for applicable overloads
+                    metricsListener.overloadTried(workItemDto.constraintCollection);
+                    boolean overloadApplies = isApplicable(
+                            constraint, overload, workItemDto.bindingCollection, runtimeChecks);
                     if (overloadApplies) {
                         try {
+                            IBindingCollection leftBindings = symbolFactory.createBindingCollection(
+                                    workItemDto.bindingCollection);
+                            metricsListener.bindingCollectionCopied(workItemDto.constraintCollection);
                             OverloadRankingDto dto = applyOverload(
                                     workItemDto, constraint, overload, leftBindings, runtimeChecks);
                             applicableOverloads.add(dto);
                         } catch (BoundException ex) {
+                            metricsListener.overloadRejected(workItemDto.constraintCollection);
                             //ok, must be a lower type exception
                         }
+                    } else {
+                        metricsListener.overloadRejected(workItemDto.constraintCollection);
                     }
                 }
             }
@@ -0,0 +1,211 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the overloads and binding collections of solved methods between two runs of the constraint solver.
+ * <p/>
+ * The overloads are kept detached from their parameters (see {@link DetachedOverloadDto}) so that an entry does not
+ * hold on to the ASTs and scopes of the run it was created in.
+ * <p/>
+ * An entry is only returned if the fingerprint of the method did not change. The fingerprint covers the parameters,
+ * the return variable and the constraints of the method (including the absolute names of all involved variables,
+ * which are the keys of the bindings) as well as the signatures of the overloads of the called methods.
+ */
+public class SolvedMethodCache
+{
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int BITS_PER_HEX_DIGIT = 4;
+    private static final int HEX_DIGIT_MASK = 0xF;
+
+    private final ISymbolFactory symbolFactory;
+    private final ConcurrentMap<String, SolvedMethodDto> solvedMethods = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public SolvedMethodCache(ISymbolFactory theSymbolFactory) {
+        symbolFactory = theSymbolFactory;
+    }
+
+    /**
+     * Returns the fingerprint of the given method, its callees need to be solved already.
+     */
+    public String createFingerprint(IMethodSymbol methodSymbol) {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(methodSymbol.getAbsoluteName()).append('(');
+        for (IVariable parameter : methodSymbol.getParameters()) {
+            appendVariable(stringBuilder, parameter);
+        }
+        stringBuilder.append(')');
+        appendVariable(stringBuilder, methodSymbol.getReturnVariable());
+        stringBuilder.append('\n');
+
+        Set<IMinimalMethodSymbol> callees = new LinkedHashSet<>();
+        for (IConstraint constraint : methodSymbol.getConstraints()) {
+            IMinimalMethodSymbol callee = constraint.getMethodSymbol();
+            callees.add(callee);
+            stringBuilder.append(callee.getAbsoluteName()).append(' ');
+            appendVariable(stringBuilder, constraint.getLeftHandSide());
+            stringBuilder.append('=');
+            for (IVariable argument : constraint.getArguments()) {
+                appendVariable(stringBuilder, argument);
+            }
+            stringBuilder.append('\n');
+        }
+
+        for (IMinimalMethodSymbol callee : callees) {
+            stringBuilder.append(callee.getAbsoluteName()).append(':');
+            for (IFunctionType overload : callee.getOverloads()) {
+                stringBuilder.append(overload.getSignature()).append(';');
+            }
+            stringBuilder.append('\n');
+        }
+        return digest(stringBuilder.toString());
+    }
+
+    private void appendVariable(StringBuilder stringBuilder, IVariable variable) {
+        stringBuilder.append(variable.getAbsoluteName()).append(':');
+        ITypeSymbol typeSymbol = variable.getType();
+        if (typeSymbol != null) {
+            stringBuilder.append(typeSymbol.getAbsoluteName());
+        }
+        stringBuilder.append(',');
+    }
+
+    private String digest(String text) {
+        byte[] bytes;
+        try {
+            bytes = MessageDigest.getInstance("SHA-256").digest(text.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> BITS_PER_HEX_DIGIT) & HEX_DIGIT_MASK];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & HEX_DIGIT_MASK];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Returns the solved method with the given name or null if it is not cached or its fingerprint changed.
+     */
+    public SolvedMethodDto get(String absoluteName, String fingerprint) {
+        SolvedMethodDto dto = solvedMethods.get(absoluteName);
+        if (dto != null && dto.fingerprint.equals(fingerprint)) {
+            hits.incrementAndGet();
+            return dto;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(
+            String absoluteName,
+            String fingerprint,
+            Collection<IFunctionType> overloads,
+            List<IBindingCollection> bindingCollections) {
+        List<DetachedOverloadDto> detachedOverloads = new ArrayList<>(overloads.size());
+        for (IFunctionType overload : overloads) {
+            detachedOverloads.add(new DetachedOverloadDto(
+                    overload.getName(),
+                    overload.getBindingCollection(),
+                    new HashSet<>(overload.getNonFixedTypeParameters()),
+                    overload.getNumberOfConvertibleApplications(),
+                    overload.hasConvertibleParameterTypes()));
+        }
+        solvedMethods.put(absoluteName, new SolvedMethodDto(
+                fingerprint,
+                detachedOverloads,
+                new ArrayList<>(bindingCollections)));
+    }
+
+    /**
+     * Creates the overloads of the given solved method with the parameters of the given method symbol, which is the
+     * method symbol of the current run.
+     */
+    public List<IFunctionType> createOverloads(SolvedMethodDto solvedMethod, IMethodSymbol methodSymbol) {
+        List<IFunctionType> overloads = new ArrayList<>(solvedMethod.overloads.size());
+        for (DetachedOverloadDto detachedOverload : solvedMethod.overloads) {
+            IFunctionType overload = symbolFactory.createFunctionType(
+                    detachedOverload.name, detachedOverload.bindingCollection, createParameters(methodSymbol));
+            overload.manuallySimplified(
+                    detachedOverload.nonFixedTypeParameters,
+                    detachedOverload.numberOfConvertibleApplications,
+                    detachedOverload.hasConvertibleParameterTypes);
+            overloads.add(overload);
+        }
+        return overloads;
+    }
+
+    /**
+     * Creates the parameters in the same way as {@link ConstraintSolverHelper#createOverload} does.
+     */
+    private List<IVariable> createParameters(IMethodSymbol methodSymbol) {
+        List<IVariable> parameters = new ArrayList<>();
+        for (IVariableSymbol parameter : methodSymbol.getParameters()) {
+            IMinimalVariableSymbol parameterVariable = symbolFactory.createMinimalVariableSymbol(
+                    parameter.getDefinitionAst(), parameter.getName());
+            parameterVariable.setDefinitionScope(parameter.getDefinitionScope());
+            parameterVariable.setType(parameter.getType());
+            parameters.add(parameterVariable);
+        }
+        return parameters;
+    }
+
+    public void remove(String absoluteName) {
+        solvedMethods.remove(absoluteName);
+    }
+
+    /**
+     * Removes the entries of all methods which are not part of the given ones anymore.
+     */
+    public void retainAll(Collection<String> absoluteNames) {
+        solvedMethods.keySet().retainAll(absoluteNames);
+    }
+
+    public long getNumberOfHits() {
+        return hits.get();
+    }
+
+    public long getNumberOfMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return solvedMethods.size();
+    }
+
+    public void clear() {
+        solvedMethods.clear();
+    }
+}
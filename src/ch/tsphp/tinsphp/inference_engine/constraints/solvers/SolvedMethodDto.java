@@ -0,0 +1,27 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+
+import java.util.List;
+
+public class SolvedMethodDto
+{
+    public final String fingerprint;
+    public final List<DetachedOverloadDto> overloads;
+    public final List<IBindingCollection> bindingCollections;
+
+    public SolvedMethodDto(
+            String theFingerprint,
+            List<DetachedOverloadDto> theOverloads,
+            List<IBindingCollection> theBindingCollections) {
+        fingerprint = theFingerprint;
+        overloads = theOverloads;
+        bindingCollections = theBindingCollections;
+    }
+}
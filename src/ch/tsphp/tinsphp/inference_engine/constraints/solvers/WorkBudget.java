@@ -0,0 +1,56 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+
+/**
+ * Counts the work items processed when solving the constraints of one method (or of the global default namespace)
+ * and indicates when more work items or more time was spent than configured in the
+ * {@link ConstraintSolverSettingsDto}.
+ * <p/>
+ * The time is measured from the call to {@link #start()} on, override {@link #nanoTime()} in order to use another
+ * clock.
+ */
+public class WorkBudget
+{
+    private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+    private final int maxWorkItems;
+    private final long maxNanoseconds;
+    private long start;
+    private int numberOfWorkItems;
+
+    public WorkBudget(ConstraintSolverSettingsDto settings) {
+        maxWorkItems = settings.maxWorkItemsPerMethod;
+        maxNanoseconds = settings.maxSolvingTimePerMethod * NANOSECONDS_PER_MILLISECOND;
+    }
+
+    public void start() {
+        start = nanoTime();
+        numberOfWorkItems = 0;
+    }
+
+    /**
+     * Counts the given work item and indicates whether the budget is exceeded. The budget does not apply in the
+     * iterative mode (it would break the fixpoint iteration) nor in the soft typing mode which is the fallback if the
+     * budget is exceeded.
+     */
+    public boolean isExceeded(WorkItemDto workItemDto) {
+        ++numberOfWorkItems;
+        boolean isExceeded = false;
+        if (!workItemDto.isInIterativeMode && !workItemDto.isInSoftTypingMode) {
+            isExceeded = maxWorkItems > 0 && numberOfWorkItems > maxWorkItems
+                    || maxNanoseconds > 0 && nanoTime() - start > maxNanoseconds;
+        }
+        return isExceeded;
+    }
+
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+}
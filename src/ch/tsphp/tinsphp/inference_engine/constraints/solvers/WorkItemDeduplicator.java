@@ -0,0 +1,58 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Remembers the fingerprints of the work items which were expanded (or solved) at the current pointer and prunes the
+ * ones with the same state, see {@link WorkItemFingerprinter}.
+ * <p/>
+ * The work items are expected in the order of the worklist, the remembered fingerprints are dropped as soon as a work
+ * item with another pointer is passed.
+ */
+public class WorkItemDeduplicator
+{
+    private final WorkItemFingerprinter workItemFingerprinter;
+    private final ISolverMetricsListener metricsListener;
+    private final Set<List<Object>> fingerprints = new HashSet<>();
+    private int pointer = -1;
+
+    public WorkItemDeduplicator(
+            WorkItemFingerprinter theWorkItemFingerprinter, ISolverMetricsListener theMetricsListener) {
+        workItemFingerprinter = theWorkItemFingerprinter;
+        metricsListener = theMetricsListener;
+    }
+
+    /**
+     * Indicates whether a work item with the same state was already expanded (or solved) and reports it as pruned if
+     * so. The fingerprint is only created if there are other work items with the same pointer, and not at all in the
+     * iterative and soft typing mode where the number of work items is relevant respectively there is only one.
+     */
+    public boolean isDuplicate(WorkItemDto workItemDto) {
+        if (workItemDto.pointer != pointer) {
+            fingerprints.clear();
+            pointer = workItemDto.pointer;
+        }
+        boolean isDuplicate = false;
+        if (!workItemDto.isInIterativeMode
+                && !workItemDto.isInSoftTypingMode
+                && (!fingerprints.isEmpty() || !workItemDto.workDeque.isEmpty())) {
+            List<Object> fingerprint = workItemFingerprinter.createFingerprint(workItemDto);
+            isDuplicate = fingerprint != null && !fingerprints.add(fingerprint);
+        }
+        if (isDuplicate) {
+            metricsListener.workItemPruned(workItemDto.constraintCollection);
+        }
+        return isDuplicate;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.OverloadApplicationDto;
+import ch.tsphp.tinsphp.common.symbols.IContainerTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.IConvertibleTypeSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Creates a canonical fingerprint of the state of a work item, two work items with equal fingerprints are solved
+ * in the same way and result in the same overload.
+ * <p/>
+ * The type variables are renamed in the order they are bound to the (sorted) variables, hence work items which only
+ * differ in the names of their type variables have the same fingerprint. The fingerprint is conservative, null is
+ * returned if the state cannot be captured completely (e.g. bounds with type parameters or convertible types),
+ * applied overloads are compared by identity and implicit conversions are not compared at all (work items with
+ * implicit conversions get no fingerprint).
+ */
+public class WorkItemFingerprinter
+{
+    public List<Object> createFingerprint(WorkItemDto workItemDto) {
+        return createFingerprint(workItemDto, Collections.<String>emptySet(), Collections.<Integer>emptySet());
+    }
+
+    /**
+     * Creates a fingerprint which does not take the given variables and the helper variables of the given constraints
+     * into account, i.e. work items which only differ in their bindings (including implicit conversions and runtime
+     * checks) are considered equivalent. There is no fingerprint if one of the remaining type variables references a
+     * type variable of an ignored variable.
+     */
+    public List<Object> createFingerprint(
+            WorkItemDto workItemDto, Set<String> ignoredVariableIds, Set<Integer> ignoredConstraints) {
+        IBindingCollection bindings = workItemDto.bindingCollection;
+        List<Object> fingerprint = new ArrayList<>();
+        fingerprint.add(workItemDto.pointer);
+        fingerprint.add(workItemDto.isInIterativeMode);
+        fingerprint.add(workItemDto.isSolvingDependency);
+        fingerprint.add(workItemDto.isInSoftTypingMode);
+        fingerprint.add(workItemDto.hasChanged);
+        fingerprint.add(workItemDto.dependentConstraints);
+        int numberOfConvertibleApplications = bindings.getNumberOfConvertibleApplications();
+        if (ignoredVariableIds.isEmpty()) {
+            fingerprint.add(numberOfConvertibleApplications);
+        } else {
+            //the ignored variables contribute to the number as well but solving only distinguishes none from some
+            fingerprint.add(numberOfConvertibleApplications > 0);
+        }
+
+        Map<String, Integer> canonicalTypeVariables = new LinkedHashMap<>();
+        boolean isCaptured = addVariables(fingerprint, bindings, ignoredVariableIds, canonicalTypeVariables);
+        List<String> typeVariables = new ArrayList<>(canonicalTypeVariables.keySet());
+
+        for (int i = 0; isCaptured && i < typeVariables.size(); ++i) {
+            String typeVariable = typeVariables.get(i);
+            isCaptured = addTypeBounds(fingerprint, bindings, typeVariable)
+                    && addRefBounds(fingerprint, canonicalTypeVariables, bindings.getLowerRefBounds(typeVariable))
+                    && addRefBounds(fingerprint, canonicalTypeVariables, bindings.getUpperRefBounds(typeVariable));
+        }
+
+        if (isCaptured && workItemDto.helperVariableMapping != null) {
+            isCaptured = addHelperVariableMappings(
+                    fingerprint, workItemDto.helperVariableMapping, ignoredConstraints, canonicalTypeVariables);
+        }
+        return isCaptured ? fingerprint : null;
+    }
+
+    /**
+     * Adds the variables which are not ignored and numbers their type variables in the order they are bound, returns
+     * false if an applied overload of one of them used implicit conversions or runtime checks.
+     */
+    private boolean addVariables(
+            List<Object> fingerprint,
+            IBindingCollection bindings,
+            Set<String> ignoredVariableIds,
+            Map<String, Integer> canonicalTypeVariables) {
+        boolean isCaptured = true;
+        Iterator<String> iterator = new TreeSet<>(bindings.getVariableIds()).iterator();
+        while (isCaptured && iterator.hasNext()) {
+            String variableId = iterator.next();
+            if (!ignoredVariableIds.contains(variableId)) {
+                OverloadApplicationDto appliedOverload = bindings.getAppliedOverload(variableId);
+                isCaptured = appliedOverload == null
+                        || appliedOverload.implicitConversions == null && appliedOverload.runtimeChecks == null;
+                if (isCaptured) {
+                    ITypeVariableReference reference = bindings.getTypeVariableReference(variableId);
+                    String typeVariable = reference.getTypeVariable();
+                    Integer index = canonicalTypeVariables.get(typeVariable);
+                    if (index == null) {
+                        index = canonicalTypeVariables.size();
+                        canonicalTypeVariables.put(typeVariable, index);
+                    }
+                    fingerprint.add(variableId);
+                    fingerprint.add(index);
+                    fingerprint.add(reference.hasFixedType());
+                    fingerprint.add(appliedOverload != null ? appliedOverload.overload : null);
+                }
+            }
+        }
+        return isCaptured;
+    }
+
+    private boolean addHelperVariableMappings(
+            List<Object> fingerprint,
+            Map<Integer, Map<String, ITypeVariableReference>> helperVariableMapping,
+            Set<Integer> ignoredConstraints,
+            Map<String, Integer> canonicalTypeVariables) {
+        boolean isCaptured = true;
+        Iterator<Integer> keyIterator = new TreeSet<>(helperVariableMapping.keySet()).iterator();
+        while (isCaptured && keyIterator.hasNext()) {
+            Integer key = keyIterator.next();
+            if (!ignoredConstraints.contains(key)) {
+                fingerprint.add(key);
+                Map<String, ITypeVariableReference> mapping = helperVariableMapping.get(key);
+                Iterator<String> iterator = new TreeSet<>(mapping.keySet()).iterator();
+                while (isCaptured && iterator.hasNext()) {
+                    String typeParameter = iterator.next();
+                    Integer index = canonicalTypeVariables.get(mapping.get(typeParameter).getTypeVariable());
+                    isCaptured = index != null;
+                    fingerprint.add(typeParameter);
+                    fingerprint.add(index);
+                }
+            }
+        }
+        return isCaptured;
+    }
+
+    private boolean addTypeBounds(List<Object> fingerprint, IBindingCollection bindings, String typeVariable) {
+        IContainerTypeSymbol lowerTypeBounds = null;
+        if (bindings.hasLowerTypeBounds(typeVariable)) {
+            lowerTypeBounds = bindings.getLowerTypeBounds(typeVariable);
+        }
+        IContainerTypeSymbol upperTypeBounds = null;
+        if (bindings.hasUpperTypeBounds(typeVariable)) {
+            upperTypeBounds = bindings.getUpperTypeBounds(typeVariable);
+        }
+        boolean isCaptured = isCapturedByName(lowerTypeBounds) && isCapturedByName(upperTypeBounds);
+        if (isCaptured) {
+            fingerprint.add(lowerTypeBounds != null ? lowerTypeBounds.getAbsoluteName() : null);
+            fingerprint.add(upperTypeBounds != null ? upperTypeBounds.getAbsoluteName() : null);
+        }
+        return isCaptured;
+    }
+
+    private boolean isCapturedByName(IContainerTypeSymbol containerTypeSymbol) {
+        boolean isCaptured = containerTypeSymbol == null || containerTypeSymbol.isFixed();
+        if (containerTypeSymbol != null && isCaptured) {
+            Iterator<ITypeSymbol> iterator = containerTypeSymbol.getTypeSymbols().values().iterator();
+            while (isCaptured && iterator.hasNext()) {
+                ITypeSymbol typeSymbol = iterator.next();
+                isCaptured = !(typeSymbol instanceof IConvertibleTypeSymbol)
+                        && (!(typeSymbol instanceof IContainerTypeSymbol)
+                        || isCapturedByName((IContainerTypeSymbol) typeSymbol));
+            }
+        }
+        return isCaptured;
+    }
+
+    private boolean addRefBounds(
+            List<Object> fingerprint, Map<String, Integer> canonicalTypeVariables, Collection<String> refBounds) {
+        boolean isCaptured = true;
+        Set<Integer> indices = new TreeSet<>();
+        if (refBounds != null) {
+            Iterator<String> iterator = refBounds.iterator();
+            while (isCaptured && iterator.hasNext()) {
+                Integer index = canonicalTypeVariables.get(iterator.next());
+                isCaptured = index != null;
+                indices.add(index);
+            }
+        }
+        fingerprint.add(new ArrayList<>(indices));
+        return isCaptured;
+    }
+}
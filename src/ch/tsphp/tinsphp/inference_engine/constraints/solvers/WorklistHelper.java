@@ -0,0 +1,69 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.EBindingCollectionMode;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.ISolverMetricsListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Creates the work items with which the solving of a constraint collection starts and reports them to the metrics
+ * listener.
+ */
+public class WorklistHelper
+{
+    private final ISymbolFactory symbolFactory;
+    private final ISolverMetricsListener metricsListener;
+
+    public WorklistHelper(ISymbolFactory theSymbolFactory, ISolverMetricsListener theMetricsListener) {
+        symbolFactory = theSymbolFactory;
+        metricsListener = theMetricsListener;
+    }
+
+    public Deque<WorkItemDto> createWorklist(IConstraintCollection constraintCollection, boolean isSolvingMethod) {
+        IBindingCollection bindings = symbolFactory.createBindingCollection();
+        Deque<WorkItemDto> workDeque = new ArrayDeque<>();
+        workDeque.add(new WorkItemDto(workDeque, constraintCollection, 0, isSolvingMethod, bindings));
+        metricsListener.workItemCreated(constraintCollection);
+        return workDeque;
+    }
+
+    public WorkItemDto addSoftTypingWorkItem(
+            IConstraintCollection constraintCollection, Deque<WorkItemDto> workQueue, boolean isSolvingMethod) {
+        IBindingCollection bindingCollection = symbolFactory.createBindingCollection();
+        bindingCollection.setMode(EBindingCollectionMode.SoftTyping);
+        final int pointer = 0;
+        WorkItemDto workItemDto = new WorkItemDto(
+                workQueue, constraintCollection, pointer, isSolvingMethod, bindingCollection);
+        workItemDto.isInSoftTypingMode = true;
+        workQueue.add(workItemDto);
+        metricsListener.workItemCreated(constraintCollection);
+        return workItemDto;
+    }
+
+    /**
+     * Reverses the order of the given number of work items at the end of the deque, i.e. the first successor of a
+     * work item is the next one taken from the end of the deque.
+     */
+    public void reverseSuccessors(Deque<WorkItemDto> workDeque, int numberOfSuccessors) {
+        if (numberOfSuccessors > 1) {
+            List<WorkItemDto> successors = new ArrayList<>(numberOfSuccessors);
+            for (int i = 0; i < numberOfSuccessors; ++i) {
+                successors.add(workDeque.removeLast());
+            }
+            workDeque.addAll(successors);
+        }
+    }
+}
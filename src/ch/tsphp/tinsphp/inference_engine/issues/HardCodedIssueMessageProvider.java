@@ -46,6 +46,8 @@ public class HardCodedIssueMessageProvider extends AIssueMessageProvider impleme
                 "Line %line%|%pos% - function %id% does not return/throw in all branches.");
         map.put("noReturnFromFunction", "Line %line%|%pos% - function %id% does not contain "
                 + "one single return/throw statement.");
+        map.put("workBudgetExceeded", "Line %line%|%pos% - solving %id% exceeded the work budget, "
+                + "its types were inferred by soft typing and might be less precise.");
         return map;
     }
 
@@ -0,0 +1,20 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.issues;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+
+/**
+ * Reports issues of the constraint solver which are not part of IInferenceIssueReporter.
+ */
+public interface ISolverIssueReporter
+{
+    /**
+     * Reports that solving the given constraints exceeded the work budget and the soft typing was used instead.
+     */
+    void workBudgetExceeded(IConstraintCollection constraintCollection);
+}
@@ -15,6 +15,7 @@ import ch.tsphp.common.symbols.ITypeSymbol;
 import ch.tsphp.tinsphp.common.gen.TokenTypes;
 import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
 import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
 import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
 import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
 import ch.tsphp.tinsphp.common.issues.DefinitionIssueDto;
@@ -25,6 +26,7 @@ import ch.tsphp.tinsphp.common.issues.IIssueMessageProvider;
 import ch.tsphp.tinsphp.common.issues.IssueReporterHelper;
 import ch.tsphp.tinsphp.common.issues.ReferenceIssueDto;
 import ch.tsphp.tinsphp.common.issues.WrongArgumentTypeIssueDto;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
 import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
 
 import java.util.ArrayDeque;
@@ -33,7 +35,7 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 
-public class InferenceIssueReporter implements IInferenceIssueReporter
+public class InferenceIssueReporter implements IInferenceIssueReporter, ISolverIssueReporter
 {
     private final IIssueMessageProvider messageProvider;
 
@@ -51,12 +53,12 @@ public class InferenceIssueReporter implements IInferenceIssueReporter
     }
 
     @Override
-    public boolean hasFound(EnumSet<EIssueSeverity> severities) {
+    public synchronized boolean hasFound(EnumSet<EIssueSeverity> severities) {
         return IssueReporterHelper.hasFound(foundIssues, severities);
     }
 
     @Override
-    public void reset() {
+    public synchronized void reset() {
         foundIssues = EnumSet.noneOf(EIssueSeverity.class);
     }
 
@@ -113,7 +115,8 @@ public class InferenceIssueReporter implements IInferenceIssueReporter
         return exception;
     }
 
-    private void reportIssue(TSPHPException exception, EIssueSeverity severity) {
+    //synchronized since the reference phase and the constraint solver might report issues concurrently
+    private synchronized void reportIssue(TSPHPException exception, EIssueSeverity severity) {
         foundIssues.add(severity);
         for (IIssueLogger logger : issueLoggers) {
             logger.log(exception, severity);
@@ -156,6 +159,24 @@ public class InferenceIssueReporter implements IInferenceIssueReporter
         return exception;
     }
 
+    @Override
+    public void workBudgetExceeded(IConstraintCollection constraintCollection) {
+        //the global default namespace does not have a definition, its first constraint is reported instead
+        ITSPHPAst ast = constraintCollection instanceof IMethodSymbol
+                ? ((IMethodSymbol) constraintCollection).getDefinitionAst()
+                : constraintCollection.getConstraints().get(0).getOperator();
+
+        String issueMessage = messageProvider.getReferenceIssueMessage(
+                "workBudgetExceeded",
+                new ReferenceIssueDto(
+                        constraintCollection.getAbsoluteName(),
+                        ast.getLine(),
+                        ast.getCharPositionInLine())
+        );
+
+        reportIssue(new ReferenceException(issueMessage, ast), EIssueSeverity.Warning);
+    }
+
     @Override
     public ReferenceException constraintViolation(IBindingCollection bindings, IConstraint constraint) {
         ReferenceException exception;
@@ -0,0 +1,152 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.metrics;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Aggregates the metrics per constraint collection (identified by its absolute name) over all runs until it is
+ * reset and reports the methods which took the longest to solve.
+ */
+public class AggregatingSolverMetricsListener implements ISolverMetricsListener
+{
+    private static final double NANOSECONDS_PER_MILLISECOND = 1000000.0;
+
+    private final ConcurrentMap<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void constraintsSolved(IConstraintCollection constraintCollection, long nanoseconds) {
+        get(constraintCollection).addSolvingPass(nanoseconds);
+    }
+
+    @Override
+    public void workItemCreated(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementWorkItems();
+    }
+
+    @Override
+    public void workItemPruned(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementPrunedWorkItems();
+    }
+
+    @Override
+    public void overloadTried(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementTriedOverloads();
+    }
+
+    @Override
+    public void overloadRejected(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementRejectedOverloads();
+    }
+
+    @Override
+    public void bindingCollectionCopied(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementBindingCollectionCopies();
+    }
+
+    @Override
+    public void iterativeRound(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementIterativeRounds();
+    }
+
+    @Override
+    public void softTypingFallback(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementSoftTypingFallbacks();
+    }
+
+    @Override
+    public void workBudgetExceeded(IConstraintCollection constraintCollection) {
+        get(constraintCollection).incrementExceededWorkBudgets();
+    }
+
+    private MethodMetrics get(IConstraintCollection constraintCollection) {
+        String name = constraintCollection.getAbsoluteName();
+        MethodMetrics methodMetrics = metrics.get(name);
+        if (methodMetrics == null) {
+            methodMetrics = new MethodMetrics(name);
+            MethodMetrics existing = metrics.putIfAbsent(name, methodMetrics);
+            if (existing != null) {
+                methodMetrics = existing;
+            }
+        }
+        return methodMetrics;
+    }
+
+    /**
+     * Returns the metrics of the given constraint collection or null if nothing was reported for it.
+     */
+    public MethodMetrics getMetrics(String absoluteName) {
+        return metrics.get(absoluteName);
+    }
+
+    public Collection<MethodMetrics> getAllMetrics() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    /**
+     * Returns the metrics of the given number of constraint collections which took the longest to solve, the slowest
+     * first.
+     */
+    public List<MethodMetrics> getSlowestMethods(int numberOfMethods) {
+        List<MethodMetrics> methodMetrics = new ArrayList<>(metrics.values());
+        Collections.sort(methodMetrics, new Comparator<MethodMetrics>()
+        {
+            @Override
+            public int compare(MethodMetrics m1, MethodMetrics m2) {
+                long n1 = m1.getNanoseconds();
+                long n2 = m2.getNanoseconds();
+                int result = n1 < n2 ? 1 : n1 == n2 ? 0 : -1;
+                if (result == 0) {
+                    result = m1.getName().compareTo(m2.getName());
+                }
+                return result;
+            }
+        });
+        if (methodMetrics.size() > numberOfMethods) {
+            methodMetrics = methodMetrics.subList(0, numberOfMethods);
+        }
+        return methodMetrics;
+    }
+
+    /**
+     * Creates a human readable report with one line per method for the given number of slowest methods.
+     */
+    public String createReport(int numberOfMethods) {
+        List<MethodMetrics> slowestMethods = getSlowestMethods(numberOfMethods);
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("slowest methods (").append(slowestMethods.size())
+                .append(" of ").append(metrics.size()).append("):");
+        for (MethodMetrics methodMetrics : slowestMethods) {
+            stringBuilder.append("\n").append(methodMetrics.getName())
+                    .append(String.format(Locale.ROOT, " %.3f ms",
+                            methodMetrics.getNanoseconds() / NANOSECONDS_PER_MILLISECOND))
+                    .append(", solving passes: ").append(methodMetrics.getNumberOfSolvingPasses())
+                    .append(", work items: ").append(methodMetrics.getNumberOfWorkItems())
+                    .append(", pruned work items: ").append(methodMetrics.getNumberOfPrunedWorkItems())
+                    .append(", overloads tried/rejected: ").append(methodMetrics.getNumberOfTriedOverloads())
+                    .append("/").append(methodMetrics.getNumberOfRejectedOverloads())
+                    .append(", binding collection copies: ").append(methodMetrics.getNumberOfBindingCollectionCopies())
+                    .append(", iterative rounds: ").append(methodMetrics.getNumberOfIterativeRounds())
+                    .append(", soft typing fallbacks: ").append(methodMetrics.getNumberOfSoftTypingFallbacks())
+                    .append(", exceeded work budgets: ").append(methodMetrics.getNumberOfExceededWorkBudgets());
+        }
+        return stringBuilder.toString();
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.metrics;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+
+/**
+ * Represents a listener which is informed about the work the constraint solver does per constraint collection
+ * (method or global default namespace).
+ * <p/>
+ * The listener is called concurrently by the threads of the constraint solver and on hot paths. Hence,
+ * implementations need to be thread safe and cheap, the absolute name of the constraint collection should only be
+ * determined if it is needed.
+ */
+public interface ISolverMetricsListener
+{
+    /**
+     * Is called each time the constraints of the given collection were solved, a method is solved several times if
+     * it has to wait for dependencies, is solved in the iterative mode or falls back to soft typing.
+     */
+    void constraintsSolved(IConstraintCollection constraintCollection, long nanoseconds);
+
+    void workItemCreated(IConstraintCollection constraintCollection);
+
+    /**
+     * Is called if a work item was dropped since another work item with the same state was already expanded or since
+     * it only differed from another work item in the bindings of a completed local component.
+     */
+    void workItemPruned(IConstraintCollection constraintCollection);
+
+    void overloadTried(IConstraintCollection constraintCollection);
+
+    /**
+     * Is called if a tried overload was not applicable, either since the pre-check already ruled it out (the lower
+     * bound of an argument has no relation to the fixed type of the corresponding parameter) or since aggregating
+     * its binding threw a BoundException. Overloads which are skipped since they are known to be inapplicable for
+     * the given arguments are neither tried nor rejected.
+     */
+    void overloadRejected(IConstraintCollection constraintCollection);
+
+    void bindingCollectionCopied(IConstraintCollection constraintCollection);
+
+    void iterativeRound(IConstraintCollection constraintCollection);
+
+    void softTypingFallback(IConstraintCollection constraintCollection);
+
+    /**
+     * Is called if solving the constraints of the given collection was aborted since it exceeded the work budget
+     * defined in the settings of the constraint solver, the collection is solved with soft typing instead.
+     */
+    void workBudgetExceeded(IConstraintCollection constraintCollection);
+}
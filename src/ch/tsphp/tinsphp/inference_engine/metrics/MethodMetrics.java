@@ -0,0 +1,115 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The metrics of one constraint collection collected by the {@link AggregatingSolverMetricsListener}.
+ */
+public class MethodMetrics
+{
+    private final String name;
+    private final AtomicLong nanoseconds = new AtomicLong();
+    private final AtomicLong numberOfSolvingPasses = new AtomicLong();
+    private final AtomicLong numberOfWorkItems = new AtomicLong();
+    private final AtomicLong numberOfPrunedWorkItems = new AtomicLong();
+    private final AtomicLong numberOfTriedOverloads = new AtomicLong();
+    private final AtomicLong numberOfRejectedOverloads = new AtomicLong();
+    private final AtomicLong numberOfBindingCollectionCopies = new AtomicLong();
+    private final AtomicLong numberOfIterativeRounds = new AtomicLong();
+    private final AtomicLong numberOfSoftTypingFallbacks = new AtomicLong();
+    private final AtomicLong numberOfExceededWorkBudgets = new AtomicLong();
+
+    public MethodMetrics(String theName) {
+        name = theName;
+    }
+
+    void addSolvingPass(long theNanoseconds) {
+        nanoseconds.addAndGet(theNanoseconds);
+        numberOfSolvingPasses.incrementAndGet();
+    }
+
+    void incrementWorkItems() {
+        numberOfWorkItems.incrementAndGet();
+    }
+
+    void incrementPrunedWorkItems() {
+        numberOfPrunedWorkItems.incrementAndGet();
+    }
+
+    void incrementTriedOverloads() {
+        numberOfTriedOverloads.incrementAndGet();
+    }
+
+    void incrementRejectedOverloads() {
+        numberOfRejectedOverloads.incrementAndGet();
+    }
+
+    void incrementBindingCollectionCopies() {
+        numberOfBindingCollectionCopies.incrementAndGet();
+    }
+
+    void incrementIterativeRounds() {
+        numberOfIterativeRounds.incrementAndGet();
+    }
+
+    void incrementSoftTypingFallbacks() {
+        numberOfSoftTypingFallbacks.incrementAndGet();
+    }
+
+    void incrementExceededWorkBudgets() {
+        numberOfExceededWorkBudgets.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the time spent solving the constraints summed up over all solving passes.
+     */
+    public long getNanoseconds() {
+        return nanoseconds.get();
+    }
+
+    public long getNumberOfSolvingPasses() {
+        return numberOfSolvingPasses.get();
+    }
+
+    public long getNumberOfWorkItems() {
+        return numberOfWorkItems.get();
+    }
+
+    public long getNumberOfPrunedWorkItems() {
+        return numberOfPrunedWorkItems.get();
+    }
+
+    public long getNumberOfTriedOverloads() {
+        return numberOfTriedOverloads.get();
+    }
+
+    public long getNumberOfRejectedOverloads() {
+        return numberOfRejectedOverloads.get();
+    }
+
+    public long getNumberOfBindingCollectionCopies() {
+        return numberOfBindingCollectionCopies.get();
+    }
+
+    public long getNumberOfIterativeRounds() {
+        return numberOfIterativeRounds.get();
+    }
+
+    public long getNumberOfSoftTypingFallbacks() {
+        return numberOfSoftTypingFallbacks.get();
+    }
+
+    public long getNumberOfExceededWorkBudgets() {
+        return numberOfExceededWorkBudgets.get();
+    }
+}
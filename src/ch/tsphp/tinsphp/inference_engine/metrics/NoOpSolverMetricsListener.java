@@ -0,0 +1,60 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.metrics;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+
+/**
+ * Default listener which ignores all metrics.
+ */
+public class NoOpSolverMetricsListener implements ISolverMetricsListener
+{
+    @Override
+    public void constraintsSolved(IConstraintCollection constraintCollection, long nanoseconds) {
+        //nothing to do
+    }
+
+    @Override
+    public void workItemCreated(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void workItemPruned(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void overloadTried(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void overloadRejected(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void bindingCollectionCopied(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void iterativeRound(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void softTypingFallback(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+
+    @Override
+    public void workBudgetExceeded(IConstraintCollection constraintCollection) {
+        //nothing to do
+    }
+}
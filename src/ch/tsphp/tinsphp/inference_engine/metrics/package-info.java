@@ -0,0 +1,10 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+/**
+ * Contains classes which collect metrics about the constraint solving.
+ */
+package ch.tsphp.tinsphp.inference_engine.metrics;
@@ -43,6 +43,8 @@ import ch.tsphp.tinsphp.inference_engine.issues.InferenceIssueReporter;
 import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -53,6 +55,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import static ch.tsphp.tinsphp.common.TinsPHPConstants.RETURN_VARIABLE_NAME;
 import static ch.tsphp.tinsphp.core.StandardConstraintAndVariables.T_LHS;
@@ -65,6 +68,10 @@ import static ch.tsphp.tinsphp.inference_engine.test.integration.testutils.Bindi
         .withVariableBindings;
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -435,6 +442,40 @@ public class ConstraintSolverTest
         ));
     }
 
+    @Test(timeout = 10000)
+    public void solveConstraints_ExecutorRejectedTaskInPreviousRun_DoesNotWaitForIt() {
+        ISymbolFactory symbolFactory = new HardCodedSymbolsInitialiser().getSymbolFactory();
+        ExecutorService executorService = mock(ExecutorService.class);
+        doThrow(new RejectedExecutionException()).doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(executorService).execute(any(Runnable.class));
+        IMethodSymbol methodSymbol = mock(IMethodSymbol.class);
+        when(methodSymbol.getAbsoluteName()).thenReturn("foo");
+
+        IConstraintSolver constraintSolver = new ConstraintSolver(
+                symbolFactory,
+                mock(ISoftTypingConstraintSolver.class),
+                mock(IConstraintSolverHelper.class),
+                executorService,
+                new ConcurrentHashMap<String, ConcurrentMap<String, List<Integer>>>(),
+                new ConcurrentHashMap<String, Set<String>>(),
+                new ConcurrentHashMap<String, Set<WorkItemDto>>());
+        try {
+            constraintSolver.solveConstraints(asList(methodSymbol), mock(IGlobalNamespaceScope.class));
+            fail("RejectedExecutionException expected");
+        } catch (RejectedExecutionException ex) {
+            //expected, the second run shall not wait on the rejected task
+        }
+        constraintSolver.solveConstraints(asList(methodSymbol), mock(IGlobalNamespaceScope.class));
+
+        verify(methodSymbol).setOverloads(anyListOf(IFunctionType.class));
+    }
+
     private IConstraintSolver createConstraintSolver(
             ISymbolFactory symbolFactory, ITypeHelper typeHelper, IInferenceIssueReporter inferenceIssueReporter) {
 
@@ -38,6 +38,7 @@ import ch.tsphp.tinsphp.inference_engine.constraints.MostSpecificOverloadDecider
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolver;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverHelper;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolver;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolverHelper;
 import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ISoftTypingConstraintSolver;
@@ -63,6 +64,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertFalse;
 
@@ -70,6 +72,7 @@ import static org.junit.Assert.assertFalse;
 public abstract class AReferenceTest extends ADefinitionTest
 {
     public static int numberOfThreads = 1;
+    public static boolean useWorkStealing = false;
     protected ErrorReportingTinsPHPReferenceWalker reference;
     protected IReferencePhaseController referencePhaseController;
     protected IAstModificationHelper astModificationHelper;
@@ -143,7 +146,13 @@ public abstract class AReferenceTest extends ADefinitionTest
                 mostSpecificOverloadDecider
         );
 
-        executorService = Executors.newFixedThreadPool(numberOfThreads);
+        ConstraintSolverSettingsDto constraintSolverSettings = new ConstraintSolverSettingsDto();
+        if (useWorkStealing) {
+            executorService = new ForkJoinPool(numberOfThreads);
+            constraintSolverSettings.useWorkStealing = true;
+        } else {
+            executorService = Executors.newFixedThreadPool(numberOfThreads);
+        }
         constraintSolver = createConstraintSolver(
                 symbolFactory,
                 softTypingConstraintSolver,
@@ -151,7 +160,8 @@ public abstract class AReferenceTest extends ADefinitionTest
                 executorService,
                 directDependencies,
                 methodsWithDependents,
-                dependentMethods
+                dependentMethods,
+                constraintSolverSettings
         );
 
         constraintCreator = createConstraintCreator(symbolFactory);
@@ -270,7 +280,8 @@ public abstract class AReferenceTest extends ADefinitionTest
             ExecutorService theExecutorService,
             ConcurrentMap<String, ConcurrentMap<String, List<Integer>>> theDirectDependencies,
             ConcurrentMap<String, Set<String>> theMethodsWithDependents,
-            ConcurrentMap<String, Set<WorkItemDto>> theDependentMethods) {
+            ConcurrentMap<String, Set<WorkItemDto>> theDependentMethods,
+            ConstraintSolverSettingsDto theSettings) {
         return new ConstraintSolver(
                 theSymbolFactory,
                 theSoftTypingConstraintSolver,
@@ -278,7 +289,8 @@ public abstract class AReferenceTest extends ADefinitionTest
                 theExecutorService,
                 theDirectDependencies,
                 theMethodsWithDependents,
-                theDependentMethods);
+                theDependentMethods,
+                theSettings);
     }
 
 
@@ -0,0 +1,54 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fixture of the system tests which solve programs with specific solver settings and inspect the recorded metrics.
+ */
+@Ignore
+public abstract class ASolverSystemTest
+{
+    protected ExecutorService executorService;
+    protected AggregatingSolverMetricsListener metricsListener;
+    protected ConstraintSolverSettingsDto settings;
+
+    @Before
+    public void setUp() {
+        executorService = createExecutorService();
+        metricsListener = new AggregatingSolverMetricsListener();
+        settings = new ConstraintSolverSettingsDto();
+        settings.metricsListener = metricsListener;
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    protected ExecutorService createExecutorService() {
+        return Executors.newFixedThreadPool(4);
+    }
+
+    /**
+     * Creates an inference engine with the current settings and solves the given program.
+     */
+    protected IInferenceEngineInitialiser solveProgram(String program) {
+        IInferenceEngineInitialiser initialiser = SystemTestHelper.createInitialiser(executorService, settings);
+        SystemTestHelper.solve(initialiser, program);
+        return initialiser;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getMethodSymbol;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.solve;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AssignmentSimplificationTest extends ASolverSystemTest
+{
+    private static final String PROGRAM =
+            "<?php function foo($x){ $a = $x + 1; if($x > 0){ return $a; } return 2;} ?>";
+
+    @Test
+    public void solveConstraints_ReturnStatements_EliminatesOneConstraintPerReturnAndKeepsTheirVariables() {
+        IInferenceEngineInitialiser initialiser = solveProgram(PROGRAM);
+        IMethodSymbol methodSymbol = getMethodSymbol(initialiser, "foo()");
+
+        settings.useAssignmentSimplification = true;
+        IInferenceEngineInitialiser simplifyingInitialiser = solveProgram(PROGRAM);
+
+        IMethodSymbol result = getMethodSymbol(simplifyingInitialiser, "foo()");
+        assertThat(result.getConstraints().size(), is(methodSymbol.getConstraints().size() - 2));
+        assertThat(getVariableIds(result), is(getVariableIds(methodSymbol)));
+    }
+
+    @Test
+    public void solveConstraints_SecondRunWithoutEliminableVariables_NoVariablesOfFirstRun() {
+        String program = "<?php function foo($x){ $a = $x + 1; $a = 2; echo $a;} ?>";
+        settings.useAssignmentSimplification = true;
+        Set<String> variableIds = getVariableIds(getMethodSymbol(solveProgram(program), "foo()"));
+
+        IInferenceEngineInitialiser reusedInitialiser = solveProgram(PROGRAM);
+        reusedInitialiser.reset();
+        solve(reusedInitialiser, program);
+
+        assertThat(getVariableIds(getMethodSymbol(reusedInitialiser, "foo()")), is(variableIds));
+    }
+
+    private Set<String> getVariableIds(IMethodSymbol methodSymbol) {
+        Set<String> variableIds = new HashSet<>();
+        for (IBindingCollection bindingCollection : methodSymbol.getBindings()) {
+            variableIds.addAll(bindingCollection.getVariableIds());
+        }
+        return variableIds;
+    }
+}
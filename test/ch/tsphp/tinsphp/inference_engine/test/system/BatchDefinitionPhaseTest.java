@@ -0,0 +1,82 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.common.symbols.ISymbol;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.issues.EIssueSeverity;
+import ch.tsphp.tinsphp.inference_engine.InferenceEngine;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import org.antlr.runtime.tree.TreeNodeStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.parse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+public class BatchDefinitionPhaseTest
+{
+    private static final int NUMBER_OF_FILES = 16;
+
+    private ExecutorService executorService;
+    private List<ITSPHPAst> asts;
+    private List<TreeNodeStream> treeNodeStreams;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+        asts = new ArrayList<>();
+        treeNodeStreams = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void enrichWithDefinitions_SameFunctionInAllFiles_FirstFileWinsAndOthersAreDoubleDefinitions() {
+        List<String> programs = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_FILES; ++i) {
+            programs.add("<?php function foo(){return " + i + ";} function bar" + i + "(){return 1;} ?>");
+        }
+        parse(programs, asts, treeNodeStreams);
+
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, new ConstraintSolverSettingsDto());
+        InferenceEngine inferenceEngine = (InferenceEngine) initialiser.getEngine();
+        inferenceEngine.enrichWithDefinitions(asts, treeNodeStreams);
+        for (int i = 0; i < NUMBER_OF_FILES; ++i) {
+            inferenceEngine.enrichWithReferences(asts.get(i), treeNodeStreams.get(i));
+        }
+
+        List<ISymbol> symbols = initialiser.getGlobalDefaultNamespace().getSymbols().get("foo()");
+        assertThat(symbols.size(), is(NUMBER_OF_FILES));
+        for (int i = 0; i < NUMBER_OF_FILES; ++i) {
+            assertThat(getCompilationUnit(symbols.get(i).getDefinitionAst()), is(sameInstance(asts.get(i))));
+        }
+        assertThat(inferenceEngine.hasFound(EnumSet.of(EIssueSeverity.FatalError)), is(true));
+    }
+
+    private ITSPHPAst getCompilationUnit(ITSPHPAst ast) {
+        ITSPHPAst compilationUnit = ast;
+        while (compilationUnit.getParent() != null) {
+            compilationUnit = (ITSPHPAst) compilationUnit.getParent();
+        }
+        return compilationUnit;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.tinsphp.common.IInferenceEngine;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.issues.EIssueSeverity;
+import ch.tsphp.tinsphp.inference_engine.InferenceEngine;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import org.antlr.runtime.tree.TreeNodeStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getSignatures;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.parse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BatchReferencePhaseTest
+{
+    private static final int NUMBER_OF_FILES = 8;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void enrichWithReferences_SeveralFilesWithFunctions_SameMethodSymbolsAndSignaturesAsSequential() {
+        List<String> programs = new ArrayList<>();
+        programs.add("<?php function f0($x){if($x){return $x + 1;} return $x;} $a0 = f0(1); ?>");
+        for (int i = 1; i < NUMBER_OF_FILES; ++i) {
+            programs.add("<?php $a" + i + " = f" + (i - 1) + "(" + i + ");"
+                    + " function f" + i + "($x){$y = f" + (i - 1) + "($x); return $y . 'a';}"
+                    + " function g" + i + "($x, $y){ while($x){ $x = $x - $y; } return $x;} ?>");
+        }
+
+        IInferenceEngineInitialiser sequentialInitialiser =
+                createInitialiser(executorService, new ConstraintSolverSettingsDto());
+        IInferenceEngine sequentialEngine = sequentialInitialiser.getEngine();
+        List<ITSPHPAst> asts = new ArrayList<>();
+        List<TreeNodeStream> treeNodeStreams = new ArrayList<>();
+        parse(programs, asts, treeNodeStreams);
+        for (int i = 0; i < NUMBER_OF_FILES; ++i) {
+            sequentialEngine.enrichWithDefinitions(asts.get(i), treeNodeStreams.get(i));
+        }
+        for (int i = 0; i < NUMBER_OF_FILES; ++i) {
+            sequentialEngine.enrichWithReferences(asts.get(i), treeNodeStreams.get(i));
+        }
+        sequentialEngine.solveConstraints();
+
+        IInferenceEngineInitialiser initialiser =
+                createInitialiser(executorService, new ConstraintSolverSettingsDto());
+        InferenceEngine inferenceEngine = (InferenceEngine) initialiser.getEngine();
+        asts = new ArrayList<>();
+        treeNodeStreams = new ArrayList<>();
+        parse(programs, asts, treeNodeStreams);
+        inferenceEngine.enrichWithDefinitions(asts, treeNodeStreams);
+        inferenceEngine.enrichWithReferences(asts, treeNodeStreams);
+        inferenceEngine.solveConstraints();
+
+        assertThat(inferenceEngine.hasFound(EnumSet.allOf(EIssueSeverity.class)), is(false));
+        assertThat(getSignatures(initialiser), is(getSignatures(sequentialInitialiser)));
+    }
+}
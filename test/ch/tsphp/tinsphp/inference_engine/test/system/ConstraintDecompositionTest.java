@@ -0,0 +1,45 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.inference_engine.metrics.MethodMetrics;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class ConstraintDecompositionTest extends ASolverSystemTest
+{
+    private static final String PROGRAM = "<?php function foo($x){ $a = 1 + 2; $b = $a * 3; $c = $b * 2.5;"
+            + " $d = $c - 1; return $x + 1;} ?>";
+
+    @Test
+    public void solveConstraints_LocalComponentWithSeveralSolutions_PrunesWorkItems() {
+        solveProgram(PROGRAM);
+        long numberOfWorkItems = metricsListener.getMetrics("\\foo()").getNumberOfWorkItems();
+        metricsListener.reset();
+
+        settings.useConstraintDecomposition = true;
+        solveProgram(PROGRAM);
+
+        MethodMetrics result = metricsListener.getMetrics("\\foo()");
+        assertThat(result.getNumberOfPrunedWorkItems(), is(greaterThan(0L)));
+        assertThat(result.getNumberOfWorkItems(), is(lessThan(numberOfWorkItems)));
+    }
+
+    @Test
+    public void solveConstraints_OnlyComponentsWithParameters_NothingPruned() {
+        settings.useConstraintDecomposition = true;
+
+        solveProgram("<?php function foo($x, $y){ $a = $x + 1; return $a * $y;} ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\foo()");
+        assertThat(result.getNumberOfPrunedWorkItems(), is(0L));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getMethodSymbol;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ConstraintReorderingTest extends ASolverSystemTest
+{
+    @Test
+    public void solveConstraints_ConstantAndParameterExpressions_ConstantExpressionIsSolvedFirst() {
+        settings.useConstraintReordering = true;
+
+        IInferenceEngineInitialiser initialiser = solveProgram(
+                "<?php function foo($x, $y){ $a = $x + $y; $b = 1 + 2.5; return $a * $b;} ?>");
+
+        List<String> result = getArgumentNames(getMethodSymbol(initialiser, "foo()").getConstraints().get(0));
+        assertThat(result.toString(), result.size(), is(2));
+        assertThat(result.toString(), result.get(0).startsWith("1@"), is(true));
+        assertThat(result.toString(), result.get(1).startsWith("2.5@"), is(true));
+    }
+
+    private List<String> getArgumentNames(IConstraint constraint) {
+        List<String> names = new ArrayList<>();
+        for (IVariable argument : constraint.getArguments()) {
+            names.add(argument.getAbsoluteName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.AstHelper;
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.common.TSPHPAstAdaptor;
+import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.inference.constraints.TypeVariableReference;
+import ch.tsphp.tinsphp.common.scopes.IGlobalNamespaceScope;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolver;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.IConstraintSolverHelper;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ISoftTypingConstraintSolver;
+import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The global default namespace of a program has a single solution since only the most specific overload is applied,
+ * hence the constraint solver helper is stubbed such that each constraint has two applicable overloads. That the
+ * results of programs are the same in both modes is covered by {@link SolverSettingsTest}.
+ */
+public class FirstSolutionTest
+{
+    private static final int NUMBER_OF_CONSTRAINTS = 3;
+
+    private ISymbolFactory symbolFactory;
+    private ExecutorService executorService;
+    private ConstraintSolverSettingsDto settings;
+    private IConstraintSolverHelper constraintSolverHelper;
+
+    @Before
+    public void setUp() {
+        ISymbolsInitialiser symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        //the core initialises the primitive types of the symbol factory which are used when fixing types
+        new HardCodedCoreInitialiser(new AstHelper(new TSPHPAstAdaptor()), symbolsInitialiser);
+        symbolFactory = symbolsInitialiser.getSymbolFactory();
+        executorService = Executors.newSingleThreadExecutor();
+        settings = new ConstraintSolverSettingsDto();
+        settings.useParallelGlobalDefaultNamespaceRegions = false;
+        constraintSolverHelper = mock(IConstraintSolverHelper.class);
+        doAnswer(new TwoSuccessorsAnswer())
+                .when(constraintSolverHelper).solve(any(WorkItemDto.class), any(IConstraint.class));
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void solveConstraints_AllSolutionsInGlobalDefaultNamespace_ExpandsAllWorkItems() {
+        settings.useFirstSolutionInGlobalDefaultNamespace = false;
+
+        IBindingCollection result = solveGlobalDefaultNamespace();
+
+        //1 + 2 + 4 work items have a constraint left, 8 solutions
+        verify(constraintSolverHelper, times(7)).solve(any(WorkItemDto.class), any(IConstraint.class));
+        assertFirstOverloadWasApplied(result);
+    }
+
+    @Test
+    public void solveConstraints_FirstSolutionInGlobalDefaultNamespace_ExpandsOnlyOneWorkItemPerConstraint() {
+        settings.useFirstSolutionInGlobalDefaultNamespace = true;
+
+        IBindingCollection result = solveGlobalDefaultNamespace();
+
+        verify(constraintSolverHelper, times(NUMBER_OF_CONSTRAINTS))
+                .solve(any(WorkItemDto.class), any(IConstraint.class));
+        assertFirstOverloadWasApplied(result);
+    }
+
+    private IBindingCollection solveGlobalDefaultNamespace() {
+        IMinimalMethodSymbol methodSymbol = symbolFactory.createMinimalMethodSymbol("foo");
+        methodSymbol.setOverloads(asList(mock(IFunctionType.class), mock(IFunctionType.class)));
+        List<IConstraint> constraints = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_CONSTRAINTS; ++i) {
+            IVariable lhs = symbolFactory.createVariable("e" + i);
+            constraints.add(symbolFactory.createConstraint(
+                    mock(ITSPHPAst.class), lhs, new ArrayList<IVariable>(), methodSymbol));
+        }
+        IGlobalNamespaceScope globalDefaultNamespace = mock(IGlobalNamespaceScope.class);
+        when(globalDefaultNamespace.getAbsoluteName()).thenReturn("\\");
+        when(globalDefaultNamespace.getConstraints()).thenReturn(constraints);
+
+        ConstraintSolver constraintSolver = new ConstraintSolver(
+                symbolFactory,
+                mock(ISoftTypingConstraintSolver.class),
+                constraintSolverHelper,
+                executorService,
+                new ConcurrentHashMap<String, ConcurrentMap<String, List<Integer>>>(),
+                new ConcurrentHashMap<String, Set<String>>(),
+                new ConcurrentHashMap<String, Set<WorkItemDto>>(),
+                settings);
+        constraintSolver.solveConstraints(new ArrayList<IMethodSymbol>(), globalDefaultNamespace);
+
+        ArgumentCaptor<IBindingCollection> captor = ArgumentCaptor.forClass(IBindingCollection.class);
+        verify(globalDefaultNamespace).addBindingCollection(captor.capture());
+        return captor.getValue();
+    }
+
+    private void assertFirstOverloadWasApplied(IBindingCollection bindingCollection) {
+        for (int i = 0; i < NUMBER_OF_CONSTRAINTS; ++i) {
+            assertThat(bindingCollection.getTypeVariable("e" + i), is("T" + i + "_0"));
+        }
+    }
+
+    /**
+     * Binds the lhs of the constraint to a different type variable per successor, the first successor corresponds
+     * to the first applicable overload.
+     */
+    private class TwoSuccessorsAnswer implements Answer<Void>
+    {
+        @Override
+        public Void answer(InvocationOnMock invocation) {
+            WorkItemDto workItemDto = (WorkItemDto) invocation.getArguments()[0];
+            IConstraint constraint = (IConstraint) invocation.getArguments()[1];
+            for (int i = 0; i < 2; ++i) {
+                IBindingCollection bindings = symbolFactory.createBindingCollection(workItemDto.bindingCollection);
+                bindings.addVariable(constraint.getLeftHandSide().getAbsoluteName(),
+                        new TypeVariableReference("T" + workItemDto.pointer + "_" + i));
+                workItemDto.workDeque.add(new WorkItemDto(workItemDto, workItemDto.pointer + 1, bindings, null, false));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.assertSameSignatures;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getMethodSymbol;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.solve;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+
+public class IncrementalSolvingTest
+{
+    private static final String PROGRAM = "<?php\n"
+            + "function foo($x){return $x + 1;}\n"
+            + "function bar($y){return $y . 'a';}\n"
+            + "function baz($z){return foo($z);}\n"
+            + "function qux($w){return bar($w);}\n"
+            + "$a = baz(1); $b = qux(2);\n"
+            + "?>";
+
+    private static final String PROGRAM_WITH_CHANGED_BAR = "<?php\n"
+            + "function foo($x){return $x + 1;}\n"
+            + "function bar($y){return $y * 2;}\n"
+            + "function baz($z){return foo($z);}\n"
+            + "function qux($w){return bar($w);}\n"
+            + "$a = baz(1); $b = qux(2);\n"
+            + "?>";
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void solveConstraints_NothingChanged_TakesOverAllOverloads() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, PROGRAM);
+        IFunctionType fooOverload = getOverload(initialiser, "foo()");
+        IFunctionType quxOverload = getOverload(initialiser, "qux()");
+        initialiser.reset();
+        solve(initialiser, PROGRAM);
+
+        assertThat(getOverload(initialiser, "foo()").getBindingCollection(),
+                is(sameInstance(fooOverload.getBindingCollection())));
+        assertThat(getOverload(initialiser, "qux()").getBindingCollection(),
+                is(sameInstance(quxOverload.getBindingCollection())));
+    }
+
+    @Test
+    public void solveConstraints_NothingChanged_TakenOverOverloadsUseParametersOfCurrentRun() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, PROGRAM);
+        IFunctionType fooOverload = getOverload(initialiser, "foo()");
+        initialiser.reset();
+        solve(initialiser, PROGRAM);
+
+        IFunctionType result = getOverload(initialiser, "foo()");
+        assertThat(result, is(not(sameInstance(fooOverload))));
+        assertThat(result.getParameters().get(0), is(not(sameInstance(fooOverload.getParameters().get(0)))));
+        assertThat(result.getSignature(), is(fooOverload.getSignature()));
+    }
+
+    @Test
+    public void solveConstraints_OneFunctionChanged_SolvesOnlyTheFunctionAndItsCallersAgain() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, PROGRAM);
+        IFunctionType fooOverload = getOverload(initialiser, "foo()");
+        IFunctionType bazOverload = getOverload(initialiser, "baz()");
+        IFunctionType barOverload = getOverload(initialiser, "bar()");
+        IFunctionType quxOverload = getOverload(initialiser, "qux()");
+        initialiser.reset();
+        solve(initialiser, PROGRAM_WITH_CHANGED_BAR);
+
+        assertThat(getOverload(initialiser, "foo()").getBindingCollection(),
+                is(sameInstance(fooOverload.getBindingCollection())));
+        assertThat(getOverload(initialiser, "baz()").getBindingCollection(),
+                is(sameInstance(bazOverload.getBindingCollection())));
+        assertThat(getOverload(initialiser, "bar()").getBindingCollection(),
+                is(not(sameInstance(barOverload.getBindingCollection()))));
+        assertThat(getOverload(initialiser, "qux()").getBindingCollection(),
+                is(not(sameInstance(quxOverload.getBindingCollection()))));
+    }
+
+    @Test
+    public void solveConstraints_OneFunctionChanged_SameSignaturesAsWithoutIncrementalSolving() {
+        IInferenceEngineInitialiser incrementalInitialiser = createInitialiser(executorService, createSettings(true));
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(false));
+
+        solve(incrementalInitialiser, PROGRAM);
+        incrementalInitialiser.reset();
+        solve(incrementalInitialiser, PROGRAM_WITH_CHANGED_BAR);
+        solve(initialiser, PROGRAM_WITH_CHANGED_BAR);
+
+        assertSameSignatures(initialiser, incrementalInitialiser, "foo()", "bar()", "baz()", "qux()");
+    }
+
+    private IFunctionType getOverload(IInferenceEngineInitialiser initialiser, String methodName) {
+        return getMethodSymbol(initialiser, methodName).getOverloads().iterator().next();
+    }
+
+    private ConstraintSolverSettingsDto createSettings(boolean useIncrementalSolving) {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.useIncrementalSolving = useIncrementalSolving;
+        return settings;
+    }
+}
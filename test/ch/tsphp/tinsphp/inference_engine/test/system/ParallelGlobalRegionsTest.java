@@ -0,0 +1,64 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.metrics.MethodMetrics;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.describeGlobalBindings;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+
+public class ParallelGlobalRegionsTest extends ASolverSystemTest
+{
+    //three regions: $a and $b, $c and $d, $e and $f -- no methods, hence each task of the executor solves a region
+    private static final String PROGRAM = "<?php $a = 1; $b = $a * 2.5; $c = 'x' . 'y'; $d = $c . 1;"
+            + " $e = true; $f = !$e; ?>";
+
+    @Override
+    protected ExecutorService createExecutorService() {
+        return new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+    }
+
+    @Test
+    public void solveConstraints_ParallelGlobalDefaultNamespaceRegions_MergedBindingsSameAsSequential() {
+        IInferenceEngineInitialiser initialiser = solveProgram(PROGRAM);
+        Map<String, String> bindings = describeGlobalBindings(initialiser);
+        long numberOfTasks = getTaskCount();
+
+        settings.useParallelGlobalDefaultNamespaceRegions = true;
+        IInferenceEngineInitialiser parallelInitialiser = solveProgram(PROGRAM);
+
+        assertThat(numberOfTasks, is(0L));
+        assertThat(getTaskCount(), is(3L));
+        assertThat(bindings.size(), is(greaterThan(6)));
+        assertThat(describeGlobalBindings(parallelInitialiser), is(bindings));
+    }
+
+    @Test
+    public void solveConstraints_ParallelGlobalDefaultNamespaceRegions_OneBindingCollectionAndMetricsUnderGlobalName() {
+        settings.useParallelGlobalDefaultNamespaceRegions = true;
+        IInferenceEngineInitialiser initialiser = solveProgram(PROGRAM);
+
+        MethodMetrics result = metricsListener.getMetrics("\\");
+        assertThat(initialiser.getGlobalDefaultNamespace().getBindings().size(), is(1));
+        assertThat(result.getNumberOfWorkItems(), is(greaterThan(1L)));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(0L));
+    }
+
+    private long getTaskCount() {
+        return ((ThreadPoolExecutor) executorService).getTaskCount();
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.assertSameSignatures;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getMethodSymbol;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.solve;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+public class PersistentSignatureCacheTest
+{
+    private static final String PROGRAM = "<?php\n"
+            + "function foo($x){return $x + 1;}\n"
+            + "function bar($y){return $y . 'a';}\n"
+            + "function baz($z, $v){return $v ? foo($z) : bar($z);}\n"
+            + "function qux($w){return $w || false;}\n"
+            + "$a = baz(1, true); $b = qux(2);\n"
+            + "?>";
+
+    private static final String PROGRAM_WITH_QUUX = "<?php\n"
+            + "function foo($x){return $x + 1;}\n"
+            + "function bar($y){return $y . 'a';}\n"
+            + "function baz($z, $v){return $v ? foo($z) : bar($z);}\n"
+            + "function qux($w){return $w || false;}\n"
+            + "function quux($u){return $u - 1;}\n"
+            + "$a = baz(1, true); $b = qux(2);\n"
+            + "?>";
+
+    private static final String[] METHOD_NAMES = new String[]{"foo()", "bar()", "baz()", "qux()"};
+
+    private ExecutorService executorService;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        executorService = Executors.newSingleThreadExecutor();
+        file = File.createTempFile("signatures", ".cache");
+        if (!file.delete()) {
+            throw new IOException("could not delete " + file);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+        //best effort, the file is in the temp folder anyway
+        file.delete();
+    }
+
+    @Test
+    public void solveConstraints_FirstRun_StoresSignaturesInFile() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(file));
+
+        solve(initialiser, PROGRAM);
+
+        assertThat(file.exists(), is(true));
+        assertThat(file.length() > 0, is(true));
+    }
+
+    @Test
+    public void solveConstraints_SecondProcess_TakesOverOverloadsWithoutSolving() {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(file));
+
+        solve(initialiser, PROGRAM);
+
+        //methods which are solved have binding collections, cache hits do not
+        for (String methodName : METHOD_NAMES) {
+            assertThat(methodName, getMethodSymbol(initialiser, methodName).getBindings(), is(empty()));
+            assertThat(methodName, getMethodSymbol(initialiser, methodName).getOverloads(), is(not(empty())));
+        }
+    }
+
+    @Test
+    public void solveConstraints_SecondProcessConsumesLocalVariableTypes_SolvesMethodsAgain() {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        ConstraintSolverSettingsDto settings = createSettings(file);
+        settings.areOnlySignaturesConsumed = false;
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, settings);
+
+        solve(initialiser, PROGRAM);
+
+        for (String methodName : METHOD_NAMES) {
+            assertThat(methodName, getMethodSymbol(initialiser, methodName).getBindings(), is(not(empty())));
+        }
+    }
+
+    @Test
+    public void solveConstraints_SecondProcessStoresAgain_ReplacesTheReadFile() {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(file));
+        solve(initialiser, PROGRAM_WITH_QUUX);
+        IInferenceEngineInitialiser thirdInitialiser = createInitialiser(executorService, createSettings(file));
+
+        solve(thirdInitialiser, PROGRAM_WITH_QUUX);
+
+        assertThat(getMethodSymbol(thirdInitialiser, "quux()").getBindings(), is(empty()));
+    }
+
+    @Test
+    public void solveConstraints_SecondProcess_SameSignaturesAsWithoutCache() {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        IInferenceEngineInitialiser cachedInitialiser = createInitialiser(executorService, createSettings(file));
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(null));
+
+        solve(cachedInitialiser, PROGRAM);
+        solve(initialiser, PROGRAM);
+
+        assertSameSignatures(initialiser, cachedInitialiser, METHOD_NAMES);
+    }
+
+    @Test
+    public void solveConstraints_TruncatedFile_SameSignaturesAsWithoutCache() throws IOException {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        IInferenceEngineInitialiser cachedInitialiser = createInitialiser(executorService, createSettings(file));
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(null));
+
+        solve(cachedInitialiser, PROGRAM);
+        solve(initialiser, PROGRAM);
+
+        assertSameSignatures(initialiser, cachedInitialiser, METHOD_NAMES);
+    }
+
+    @Test
+    public void solveConstraints_CorruptFile_SameSignaturesAsWithoutCache() throws IOException {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        //the header stays intact, hence the entries are read
+        for (int i = 12; i < bytes.length; i += 7) {
+            bytes[i] = (byte) 0xFF;
+        }
+        Files.write(file.toPath(), bytes);
+        IInferenceEngineInitialiser cachedInitialiser = createInitialiser(executorService, createSettings(file));
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(null));
+
+        solve(cachedInitialiser, PROGRAM);
+        solve(initialiser, PROGRAM);
+
+        assertSameSignatures(initialiser, cachedInitialiser, METHOD_NAMES);
+    }
+
+    @Test
+    public void solveConstraints_CorruptEntries_SameSignaturesAsWithoutCache() throws IOException {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        //skip magic number and version, the fingerprints and the lengths stay intact
+        buffer.position(8);
+        int numberOfEntries = buffer.getInt();
+        for (int i = 0; i < numberOfEntries; ++i) {
+            int fingerprintLength = buffer.getInt();
+            buffer.position(buffer.position() + fingerprintLength);
+            int length = buffer.getInt();
+            for (int j = 0; j < length; ++j) {
+                buffer.put((byte) 0xFF);
+            }
+        }
+        Files.write(file.toPath(), buffer.array());
+        IInferenceEngineInitialiser cachedInitialiser = createInitialiser(executorService, createSettings(file));
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(null));
+
+        solve(cachedInitialiser, PROGRAM);
+        solve(initialiser, PROGRAM);
+
+        assertSameSignatures(initialiser, cachedInitialiser, METHOD_NAMES);
+    }
+
+    @Test
+    public void solveConstraints_TruncatedFile_IsReplacedWithValidFile() throws IOException {
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        solve(createInitialiser(executorService, createSettings(file)), PROGRAM);
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(file));
+
+        solve(initialiser, PROGRAM);
+
+        for (String methodName : METHOD_NAMES) {
+            assertThat(methodName, getMethodSymbol(initialiser, methodName).getBindings(), is(empty()));
+        }
+    }
+
+    private ConstraintSolverSettingsDto createSettings(File signatureCacheFile) {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.signatureCacheFile = signatureCacheFile;
+        settings.areOnlySignaturesConsumed = true;
+        return settings;
+    }
+}
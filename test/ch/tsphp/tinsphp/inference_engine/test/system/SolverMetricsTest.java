@@ -0,0 +1,78 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.inference_engine.metrics.MethodMetrics;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+
+public class SolverMetricsTest extends ASolverSystemTest
+{
+    @Test
+    public void solveConstraints_OverloadedOperators_RecordsMetricsPerMethod() {
+        solveProgram("<?php function foo($x, $y){return $x + $y;} $a = foo(1, 2); $b = $a + true; $c = 1 - 2.5; ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\foo()");
+
+        assertThat(result.getNumberOfSolvingPasses(), is(1L));
+        assertThat(result.getNumberOfWorkItems(), is(greaterThan(1L)));
+        assertThat(result.getNumberOfTriedOverloads(), is(greaterThan(1L)));
+        assertThat(result.getNumberOfBindingCollectionCopies(), is(greaterThan(0L)));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(0L));
+    }
+
+    @Test
+    public void solveConstraints_GlobalDefaultNamespace_RecordsRejectedOverloads() {
+        solveProgram("<?php $a = 1; $b = $a + true; $c = 1 - 2.5; ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\");
+
+        assertThat(result.getNumberOfSolvingPasses(), is(1L));
+        assertThat(result.getNumberOfRejectedOverloads(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void solveConstraints_IndirectRecursion_RecordsIterativeRounds() {
+        solveProgram("<?php function foo($x){ if($x > 0){return bar($x - 1);} return $x;}"
+                + " function bar($x){ if($x > 0){return foo($x - 1);} return $x;} ?>");
+
+        assertThat(metricsListener.getMetrics("\\foo()").getNumberOfIterativeRounds()
+                + metricsListener.getMetrics("\\bar()").getNumberOfIterativeRounds(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void solveConstraints_NotApplicableOverload_RecordsSoftTypingFallback() {
+        solveProgram("<?php function foo(array $x){return $x + 1;} ?>");
+
+        assertThat(metricsListener.getMetrics("\\foo()").getNumberOfSoftTypingFallbacks(), is(1L));
+    }
+
+    @Test
+    public void solveConstraints_InapplicableOverloadsForFixedArguments_RejectedWithoutCopyingBindings() {
+        solveProgram("<?php $a = [1] + [2]; ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\");
+
+        //each tried overload would require a copy of the bindings if rejecting required to aggregate the binding
+        assertThat(result.getNumberOfRejectedOverloads(), is(greaterThan(0L)));
+        assertThat(result.getNumberOfBindingCollectionCopies(), is(lessThan(result.getNumberOfTriedOverloads())));
+    }
+
+    @Test
+    public void createReport_AfterSolving_ContainsSolvedMethod() {
+        solveProgram("<?php function foo($x, $y){return $x + $y;} ?>");
+
+        String result = metricsListener.createReport(10);
+
+        assertThat(result, containsString("\\foo()"));
+    }
+}
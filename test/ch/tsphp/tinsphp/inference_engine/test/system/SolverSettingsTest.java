@@ -0,0 +1,115 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.assertSameResults;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.solve;
+
+/**
+ * Solves the same programs with the default settings and with one optional solver setting changed, the inferred
+ * signatures and the bindings of the global default namespace have to be the same.
+ */
+@RunWith(Parameterized.class)
+public class SolverSettingsTest
+{
+    private static final List<String> PROGRAMS = Arrays.asList(
+            //overloaded operators
+            "<?php function foo($x, $y){return $x + $y;} $a = foo(1, 2); $b = $a + true; $c = 1 - 2.5; ?>",
+            //return statements
+            "<?php function foo($x){ $a = $x + 1; if($x > 0){ return $a; } return 2;} $b = foo(1); ?>",
+            //local component with several solutions
+            "<?php function foo($x){ $a = 1 + 2; $b = $a * 3; $c = $b * 2.5; $d = $c - 1; return $x + 1;}"
+                    + " $e = foo(1); ?>",
+            //constant and parameter expressions
+            "<?php function foo($x, $y){ $a = $x + $y; $b = 1 + 2.5; return $a * $b;} $c = foo(1, 2); ?>",
+            //indirect recursion
+            "<?php function foo($x){ if($x > 0){return bar($x - 1);} return $x;}"
+                    + " function bar($x){ if($x > 0){return foo($x - 1);} return $x;}"
+                    + " function baz($x){ return foo($x) + 1;} $a = baz(1); ?>",
+            //independent regions in the global default namespace
+            "<?php $a = 1; $b = $a * 2.5; $c = 'x' . 'y'; $d = $c . 1; $e = true; $f = !$e; ?>");
+
+    private final ConstraintSolverSettingsDto settings;
+    private ExecutorService executorService;
+
+    public SolverSettingsTest(String theSettingName, ConstraintSolverSettingsDto theSettings) {
+        settings = theSettings;
+    }
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void solveConstraints_SettingChanged_SameResultsAsWithDefaultSettings() {
+        for (String program : PROGRAMS) {
+            IInferenceEngineInitialiser initialiser = createInitialiser(
+                    executorService, new ConstraintSolverSettingsDto());
+            solve(initialiser, program);
+            IInferenceEngineInitialiser changedInitialiser = createInitialiser(executorService, settings);
+            solve(changedInitialiser, program);
+
+            assertSameResults(program, initialiser, changedInitialiser);
+        }
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> settings() {
+        ConstraintSolverSettingsDto metricsListener = new ConstraintSolverSettingsDto();
+        metricsListener.metricsListener = new AggregatingSolverMetricsListener();
+        ConstraintSolverSettingsDto workItemDeduplication = new ConstraintSolverSettingsDto();
+        workItemDeduplication.useWorkItemDeduplication = true;
+        ConstraintSolverSettingsDto maxWorkItems = new ConstraintSolverSettingsDto();
+        maxWorkItems.maxWorkItemsPerMethod = 100000;
+        ConstraintSolverSettingsDto maxSolvingTime = new ConstraintSolverSettingsDto();
+        maxSolvingTime.maxSolvingTimePerMethod = 60000;
+        ConstraintSolverSettingsDto constraintDecomposition = new ConstraintSolverSettingsDto();
+        constraintDecomposition.useConstraintDecomposition = true;
+        ConstraintSolverSettingsDto constraintReordering = new ConstraintSolverSettingsDto();
+        constraintReordering.useConstraintReordering = true;
+        ConstraintSolverSettingsDto assignmentSimplification = new ConstraintSolverSettingsDto();
+        assignmentSimplification.useAssignmentSimplification = true;
+        ConstraintSolverSettingsDto firstSolution = new ConstraintSolverSettingsDto();
+        firstSolution.useFirstSolutionInGlobalDefaultNamespace = true;
+        ConstraintSolverSettingsDto parallelRegions = new ConstraintSolverSettingsDto();
+        parallelRegions.useParallelGlobalDefaultNamespaceRegions = true;
+
+        return Arrays.asList(new Object[][]{
+                {"metricsListener", metricsListener},
+                {"useWorkItemDeduplication", workItemDeduplication},
+                {"maxWorkItemsPerMethod", maxWorkItems},
+                {"maxSolvingTimePerMethod", maxSolvingTime},
+                {"useConstraintDecomposition", constraintDecomposition},
+                {"useConstraintReordering", constraintReordering},
+                {"useAssignmentSimplification", assignmentSimplification},
+                {"useFirstSolutionInGlobalDefaultNamespace", firstSolution},
+                {"useParallelGlobalDefaultNamespaceRegions", parallelRegions},
+        });
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.InferenceEngine;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener;
+import org.antlr.runtime.tree.TreeNodeStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getSignatures;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.parse;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StreamingSolvingTest
+{
+    private static final List<String> PROGRAMS = Arrays.asList(
+            "<?php\n"
+                    + "function caller($x){return callee($x) + leaf($x);}\n"
+                    + "function leaf($x){return $x * 2;}\n"
+                    + "function callee($x){return leaf($x) . '';}\n"
+                    + "$a = caller(1);\n"
+                    + "?>",
+            "<?php\n"
+                    + "function isEven($x){if($x == 0){return true;} return isOdd($x - 1);}\n"
+                    + "function isOdd($x){if($x == 0){return false;} return isEven($x - 1);}\n"
+                    + "function evenCaller($x){return isEven($x) || leaf($x);}\n"
+                    + "function fac($x){return $x > 0 ? $x * fac($x - 1) : 1;}\n"
+                    + "$b = evenCaller(2); $c = fac(3);\n"
+                    + "?>");
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void solveConstraints_StreamingSolving_SameSignaturesAsWithoutStreaming() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(false));
+        IInferenceEngineInitialiser streamingInitialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, false);
+        solve(streamingInitialiser, false);
+
+        assertThat(getSignatures(streamingInitialiser), is(getSignatures(initialiser)));
+    }
+
+    @Test
+    public void solveConstraints_StreamingSolvingAndBatch_SameSignaturesAsWithoutStreaming() {
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(false));
+        IInferenceEngineInitialiser streamingInitialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, false);
+        solve(streamingInitialiser, true);
+
+        assertThat(getSignatures(streamingInitialiser), is(getSignatures(initialiser)));
+    }
+
+    @Test
+    public void solveConstraints_StreamingSolvingWithClassMethod_SameSignaturesAsWithoutStreaming() {
+        List<String> programs = new ArrayList<>(PROGRAMS);
+        programs.add("<?php\n"
+                + "class A{ function foo($x){return leaf($x);} }\n"
+                + "function afterClass($x){return leaf($x) + 1;}\n"
+                + "$d = afterClass(4);\n"
+                + "?>");
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, createSettings(false));
+        IInferenceEngineInitialiser streamingInitialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(initialiser, programs, false);
+        solve(streamingInitialiser, programs, false);
+
+        assertThat(getSignatures(streamingInitialiser), is(getSignatures(initialiser)));
+    }
+
+    @Test
+    public void solveConstraints_StreamingSolvingSecondRun_SameSignaturesAsFirstRun() {
+        IInferenceEngineInitialiser streamingInitialiser = createInitialiser(executorService, createSettings(true));
+
+        solve(streamingInitialiser, false);
+        List<String> signatures = getSignatures(streamingInitialiser);
+        solve(streamingInitialiser, true);
+
+        assertThat(getSignatures(streamingInitialiser), is(signatures));
+    }
+
+    @Test
+    public void solveConstraints_ReferencePhaseWithoutSolvingBefore_SolvesEachMethodOnce() {
+        AggregatingSolverMetricsListener metricsListener = new AggregatingSolverMetricsListener();
+        ConstraintSolverSettingsDto settings = createSettings(true);
+        settings.metricsListener = metricsListener;
+        IInferenceEngineInitialiser streamingInitialiser = createInitialiser(executorService, settings);
+
+        enrich(streamingInitialiser, false);
+        streamingInitialiser.reset();
+        metricsListener.reset();
+        solve(streamingInitialiser, false);
+
+        for (String methodName : new String[]{"\\caller()", "\\leaf()", "\\callee()", "\\fac()"}) {
+            assertThat(methodName, metricsListener.getMetrics(methodName).getNumberOfSolvingPasses(), is(1L));
+        }
+    }
+
+    private void solve(IInferenceEngineInitialiser initialiser, boolean useBatch) {
+        solve(initialiser, PROGRAMS, useBatch);
+    }
+
+    private void solve(IInferenceEngineInitialiser initialiser, List<String> programs, boolean useBatch) {
+        enrich(initialiser, programs, useBatch);
+        initialiser.getEngine().solveConstraints();
+    }
+
+    private void enrich(IInferenceEngineInitialiser initialiser, boolean useBatch) {
+        enrich(initialiser, PROGRAMS, useBatch);
+    }
+
+    private void enrich(IInferenceEngineInitialiser initialiser, List<String> programs, boolean useBatch) {
+        List<ITSPHPAst> asts = new ArrayList<>();
+        List<TreeNodeStream> treeNodeStreams = new ArrayList<>();
+        parse(programs, asts, treeNodeStreams);
+
+        initialiser.reset();
+        InferenceEngine inferenceEngine = (InferenceEngine) initialiser.getEngine();
+        if (useBatch) {
+            inferenceEngine.enrichWithDefinitions(asts, treeNodeStreams);
+            inferenceEngine.enrichWithReferences(asts, treeNodeStreams);
+        } else {
+            for (int i = 0; i < asts.size(); ++i) {
+                inferenceEngine.enrichWithDefinitions(asts.get(i), treeNodeStreams.get(i));
+            }
+            for (int i = 0; i < asts.size(); ++i) {
+                inferenceEngine.enrichWithReferences(asts.get(i), treeNodeStreams.get(i));
+            }
+        }
+    }
+
+    private ConstraintSolverSettingsDto createSettings(boolean useStreamingSolving) {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.useStreamingSolving = useStreamingSolving;
+        return settings;
+    }
+}
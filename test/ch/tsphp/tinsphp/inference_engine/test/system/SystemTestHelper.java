@@ -0,0 +1,191 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.AstHelper;
+import ch.tsphp.common.IAstHelper;
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.common.ITSPHPAstAdaptor;
+import ch.tsphp.common.ParserUnitDto;
+import ch.tsphp.common.TSPHPAstAdaptor;
+import ch.tsphp.tinsphp.common.IInferenceEngine;
+import ch.tsphp.tinsphp.common.IParser;
+import ch.tsphp.tinsphp.common.config.ICoreInitialiser;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
+import ch.tsphp.tinsphp.inference_engine.config.HardCodedInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.parser.config.HardCodedParserInitialiser;
+import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
+import org.antlr.runtime.tree.CommonTreeNodeStream;
+import org.antlr.runtime.tree.TreeNodeStream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Runs whole programs through an inference engine and describes the results, used by the system tests which compare
+ * the results of different solver settings.
+ */
+public class SystemTestHelper
+{
+    //see BindingCollection.createHelperVariable
+    private static final String HELPER_VARIABLE_PREFIX = "!help";
+
+    private SystemTestHelper() {
+    }
+
+    public static IInferenceEngineInitialiser createInitialiser(
+            ExecutorService executorService, ConstraintSolverSettingsDto settings) {
+        ITSPHPAstAdaptor astAdaptor = new TSPHPAstAdaptor();
+        IAstHelper astHelper = new AstHelper(astAdaptor);
+        ISymbolsInitialiser symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        ICoreInitialiser coreInitialiser = new HardCodedCoreInitialiser(astHelper, symbolsInitialiser);
+        return new HardCodedInferenceEngineInitialiser(
+                astAdaptor, astHelper, symbolsInitialiser, coreInitialiser, executorService, settings);
+    }
+
+    /**
+     * Parses the given programs and adds their compilation units and tree node streams to the given lists.
+     */
+    public static void parse(List<String> programs, List<ITSPHPAst> asts, List<TreeNodeStream> treeNodeStreams) {
+        ITSPHPAstAdaptor astAdaptor = new TSPHPAstAdaptor();
+        IParser parser = new HardCodedParserInitialiser(astAdaptor).getParser();
+        for (String program : programs) {
+            ParserUnitDto parserUnitDto = parser.parse(program);
+            CommonTreeNodeStream commonTreeNodeStream =
+                    new CommonTreeNodeStream(astAdaptor, parserUnitDto.compilationUnit);
+            commonTreeNodeStream.setTokenStream(parserUnitDto.tokenStream);
+            asts.add(parserUnitDto.compilationUnit);
+            treeNodeStreams.add(commonTreeNodeStream);
+        }
+    }
+
+    /**
+     * Runs the definition and the reference phase for the given program and solves the constraints afterwards.
+     */
+    public static void solve(IInferenceEngineInitialiser initialiser, String program) {
+        List<ITSPHPAst> asts = new ArrayList<>();
+        List<TreeNodeStream> treeNodeStreams = new ArrayList<>();
+        List<String> programs = new ArrayList<>();
+        programs.add(program);
+        parse(programs, asts, treeNodeStreams);
+
+        IInferenceEngine inferenceEngine = initialiser.getEngine();
+        inferenceEngine.enrichWithDefinitions(asts.get(0), treeNodeStreams.get(0));
+        inferenceEngine.enrichWithReferences(asts.get(0), treeNodeStreams.get(0));
+        inferenceEngine.solveConstraints();
+    }
+
+    public static IMethodSymbol getMethodSymbol(IInferenceEngineInitialiser initialiser, String name) {
+        for (IMethodSymbol methodSymbol : initialiser.getMethodSymbols()) {
+            if (methodSymbol.getName().equals(name)) {
+                return methodSymbol;
+            }
+        }
+        throw new IllegalArgumentException(name + " was not defined");
+    }
+
+    public static List<String> getSignatures(IInferenceEngineInitialiser initialiser, String methodName) {
+        List<String> signatures = new ArrayList<>();
+        for (IFunctionType overload : getMethodSymbol(initialiser, methodName).getOverloads()) {
+            signatures.add(overload.getSignature());
+        }
+        return signatures;
+    }
+
+    /**
+     * Returns the signatures of all methods (one entry per method) followed by the bindings of the global default
+     * namespace.
+     */
+    public static List<String> getSignatures(IInferenceEngineInitialiser initialiser) {
+        List<String> signatures = new ArrayList<>();
+        for (IMethodSymbol methodSymbol : initialiser.getMethodSymbols()) {
+            StringBuilder stringBuilder = new StringBuilder(methodSymbol.getName());
+            for (IFunctionType overload : methodSymbol.getOverloads()) {
+                stringBuilder.append(" ").append(overload.getSignature());
+            }
+            signatures.add(stringBuilder.toString());
+        }
+        signatures.add(initialiser.getGlobalDefaultNamespace().getBindings().toString());
+        return signatures;
+    }
+
+    /**
+     * Maps the variables of the global default namespace to their type bounds, whether their type is fixed and the
+     * variables which share the same type variable. Helper variables are left out, they are internal to the solver.
+     */
+    public static Map<String, String> describeGlobalBindings(IInferenceEngineInitialiser initialiser) {
+        IBindingCollection bindingCollection = initialiser.getGlobalDefaultNamespace().getBindings().get(0);
+        Map<String, Set<String>> variablesPerTypeVariable = new HashMap<>();
+        for (String variableId : bindingCollection.getVariableIds()) {
+            if (!variableId.startsWith(HELPER_VARIABLE_PREFIX)) {
+                String typeVariable = bindingCollection.getTypeVariable(variableId);
+                if (!variablesPerTypeVariable.containsKey(typeVariable)) {
+                    variablesPerTypeVariable.put(typeVariable, new TreeSet<String>());
+                }
+                variablesPerTypeVariable.get(typeVariable).add(variableId);
+            }
+        }
+
+        Map<String, String> bindings = new HashMap<>();
+        for (Set<String> variableIds : variablesPerTypeVariable.values()) {
+            for (String variableId : variableIds) {
+                String typeVariable = bindingCollection.getTypeVariable(variableId);
+                String lowerBounds = bindingCollection.hasLowerTypeBounds(typeVariable)
+                        ? bindingCollection.getLowerTypeBounds(typeVariable).getAbsoluteName()
+                        : null;
+                String upperBounds = bindingCollection.hasUpperTypeBounds(typeVariable)
+                        ? bindingCollection.getUpperTypeBounds(typeVariable).getAbsoluteName()
+                        : null;
+                boolean hasFixedType = bindingCollection.getTypeVariableReference(variableId).hasFixedType();
+                bindings.put(variableId, lowerBounds + ", " + upperBounds + ", fixed: " + hasFixedType
+                        + ", shared with: " + variableIds);
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Asserts that all methods have the same signatures in both initialisers and that the bindings of the global
+     * default namespace are the same.
+     */
+    public static void assertSameResults(
+            String reason, IInferenceEngineInitialiser expected, IInferenceEngineInitialiser actual) {
+        for (IMethodSymbol methodSymbol : expected.getMethodSymbols()) {
+            String methodName = methodSymbol.getName();
+            assertThat(reason + " " + methodName, getSignatures(actual, methodName),
+                    is(getSignatures(expected, methodName)));
+        }
+        assertThat(reason, describeGlobalBindings(actual), is(describeGlobalBindings(expected)));
+    }
+
+    /**
+     * Asserts that the given methods have overloads and the same signatures in both initialisers.
+     */
+    public static void assertSameSignatures(
+            IInferenceEngineInitialiser expected, IInferenceEngineInitialiser actual, String... methodNames) {
+        for (String methodName : methodNames) {
+            List<String> signatures = getSignatures(expected, methodName);
+            assertThat(methodName, signatures.size(), is(greaterThan(0)));
+            assertThat(methodName, getSignatures(actual, methodName), is(signatures));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.system;
+
+import ch.tsphp.common.exceptions.TSPHPException;
+import ch.tsphp.tinsphp.common.config.IInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.common.issues.EIssueSeverity;
+import ch.tsphp.tinsphp.common.issues.IIssueLogger;
+import ch.tsphp.tinsphp.inference_engine.metrics.MethodMetrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.createInitialiser;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.getMethodSymbol;
+import static ch.tsphp.tinsphp.inference_engine.test.system.SystemTestHelper.solve;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.core.Is.is;
+
+public class WorkBudgetTest extends ASolverSystemTest
+{
+    private static final String PROGRAM = "<?php function foo($x, $y){return $x + $y * $x - $y;}"
+            + " function bar(){return 1;} $a = foo(1, 2) + bar(); ?>";
+
+    @Test
+    public void solveConstraints_WorkItemBudgetExceeded_FallsBackToSoftTypingOnlyForTheMethod() {
+        settings.maxWorkItemsPerMethod = 8;
+
+        IInferenceEngineInitialiser initialiser = solveProgram(PROGRAM);
+
+        MethodMetrics result = metricsListener.getMetrics("\\foo()");
+        assertThat(result.getNumberOfExceededWorkBudgets(), is(1L));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(1L));
+        assertThat(getMethodSymbol(initialiser, "foo()").getOverloads().size(), is(1));
+        assertThat(metricsListener.getMetrics("\\bar()").getNumberOfExceededWorkBudgets(), is(0L));
+        assertThat(metricsListener.getMetrics("\\bar()").getNumberOfSoftTypingFallbacks(), is(0L));
+    }
+
+    @Test
+    public void solveConstraints_WorkItemBudgetExceeded_ReportsWarning() {
+        settings.maxWorkItemsPerMethod = 8;
+        IInferenceEngineInitialiser initialiser = createInitialiser(executorService, settings);
+        final List<String> messages = new ArrayList<>();
+        initialiser.getEngine().registerIssueLogger(new IIssueLogger()
+        {
+            @Override
+            public void log(TSPHPException exception, EIssueSeverity severity) {
+                messages.add(severity + " " + exception.getMessage());
+            }
+        });
+
+        solve(initialiser, PROGRAM);
+
+        assertThat(initialiser.getEngine().hasFound(EnumSet.of(EIssueSeverity.Warning)), is(true));
+        assertThat(messages, hasItem(containsString("Warning Line 1|15 - solving \\foo() exceeded the work budget")));
+    }
+
+    @Test
+    public void solveConstraints_WorkItemBudgetExceededInGlobalDefaultNamespace_FallsBackToSoftTyping() {
+        settings.maxWorkItemsPerMethod = 2;
+
+        solveProgram("<?php $a = 1 + 2; $b = $a * 2.5; $c = $b - $a; ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\");
+        assertThat(result.getNumberOfExceededWorkBudgets(), is(1L));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(1L));
+    }
+
+    @Test
+    public void solveConstraints_WorkItemBudgetExceededByCallerOfMutuallyRecursiveMethods_FallsBackToSoftTyping() {
+        settings.maxWorkItemsPerMethod = 4;
+
+        //baz waits on foo until the iterative mode is over and exceeds the budget when it is solved afterwards
+        IInferenceEngineInitialiser initialiser = solveProgram(
+                "<?php function foo($x){ if($x > 0){return bar($x - 1);} return $x;}"
+                        + " function bar($x){ if($x > 0){return foo($x - 1);} return $x;}"
+                        + " function baz($x){ $a = foo($x); return $a + $x * 2 - 1;} ?>");
+
+        MethodMetrics result = metricsListener.getMetrics("\\baz()");
+        assertThat(result.getNumberOfExceededWorkBudgets(), is(1L));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(1L));
+        assertThat(getMethodSymbol(initialiser, "baz()").getOverloads().size(), is(1));
+        assertThat(metricsListener.getMetrics("\\foo()").getNumberOfExceededWorkBudgets(), is(0L));
+        assertThat(getMethodSymbol(initialiser, "foo()").getOverloads().size(), is(2));
+    }
+}
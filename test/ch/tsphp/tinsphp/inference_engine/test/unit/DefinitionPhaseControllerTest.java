@@ -27,11 +27,20 @@ import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
 import ch.tsphp.tinsphp.inference_engine.DefinitionPhaseController;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.collection.IsMapContaining.hasEntry;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -187,6 +196,81 @@ public class DefinitionPhaseControllerTest
         verify(symbolFactory).createVariableSymbol(modifierAst, identifierAst);
     }
 
+    @Test
+    public void defineVariable_CompilationUnitControllerAndNamespaceScope_DefersDefinition() {
+        INamespaceScope namespaceScope = mock(INamespaceScope.class);
+        ITSPHPAst identifierAst = mock(ITSPHPAst.class);
+        IVariableSymbol variableSymbol = mock(IVariableSymbol.class);
+        when(symbolFactory.createVariableSymbol(any(ITSPHPAst.class), eq(identifierAst))).thenReturn(variableSymbol);
+
+        DefinitionPhaseController controller = new DefinitionPhaseController(symbolFactory, scopeFactory);
+        DefinitionPhaseController compilationUnitController = controller.createCompilationUnitController();
+        compilationUnitController.defineVariable(
+                namespaceScope, mock(ITSPHPAst.class), mock(ITSPHPAst.class), identifierAst);
+
+        verify(identifierAst).setSymbol(variableSymbol);
+        verify(identifierAst).setScope(namespaceScope);
+        verify(namespaceScope, never()).define(variableSymbol);
+    }
+
+    @Test
+    public void defineVariable_CompilationUnitControllerAndOtherScope_DefinesImmediately() {
+        IScope scope = mock(IScope.class);
+        ITSPHPAst identifierAst = mock(ITSPHPAst.class);
+        IVariableSymbol variableSymbol = mock(IVariableSymbol.class);
+        when(symbolFactory.createVariableSymbol(any(ITSPHPAst.class), eq(identifierAst))).thenReturn(variableSymbol);
+
+        DefinitionPhaseController controller = new DefinitionPhaseController(symbolFactory, scopeFactory);
+        DefinitionPhaseController compilationUnitController = controller.createCompilationUnitController();
+        compilationUnitController.defineVariable(scope, mock(ITSPHPAst.class), mock(ITSPHPAst.class), identifierAst);
+
+        verifyScopeSymbolAndDefine(scope, identifierAst, variableSymbol);
+    }
+
+    @Test
+    public void mergeCompilationUnitControllers_TwoControllers_DefinesInGivenOrder() {
+        INamespaceScope namespaceScope = mock(INamespaceScope.class);
+        ITSPHPAst identifierAst1 = mock(ITSPHPAst.class);
+        IVariableSymbol variableSymbol1 = mock(IVariableSymbol.class);
+        when(symbolFactory.createVariableSymbol(any(ITSPHPAst.class), eq(identifierAst1))).thenReturn(variableSymbol1);
+        ITSPHPAst identifierAst2 = mock(ITSPHPAst.class);
+        IVariableSymbol variableSymbol2 = mock(IVariableSymbol.class);
+        when(symbolFactory.createVariableSymbol(any(ITSPHPAst.class), eq(identifierAst2))).thenReturn(variableSymbol2);
+
+        DefinitionPhaseController controller = new DefinitionPhaseController(symbolFactory, scopeFactory);
+        DefinitionPhaseController compilationUnitController1 = controller.createCompilationUnitController();
+        DefinitionPhaseController compilationUnitController2 = controller.createCompilationUnitController();
+        compilationUnitController2.defineVariable(
+                namespaceScope, mock(ITSPHPAst.class), mock(ITSPHPAst.class), identifierAst2);
+        compilationUnitController1.defineVariable(
+                namespaceScope, mock(ITSPHPAst.class), mock(ITSPHPAst.class), identifierAst1);
+        controller.mergeCompilationUnitControllers(
+                Arrays.asList(compilationUnitController1, compilationUnitController2));
+
+        InOrder inOrder = inOrder(namespaceScope);
+        inOrder.verify(namespaceScope).define(variableSymbol1);
+        inOrder.verify(namespaceScope).define(variableSymbol2);
+    }
+
+    @Test
+    public void mergeCompilationUnitControllers_NamespacesDefinedInReverseOrder_OrdersNamespacesAsGiven() {
+        initScopeFactoryForGlobalDefaultNamespace();
+        NamespaceAndGlobalPair namespaceAndGlobal1 = initDefineNamespace("a");
+        NamespaceAndGlobalPair namespaceAndGlobal2 = initDefineNamespace("b");
+
+        DefinitionPhaseController controller = new DefinitionPhaseController(symbolFactory, scopeFactory);
+        DefinitionPhaseController compilationUnitController1 = controller.createCompilationUnitController();
+        DefinitionPhaseController compilationUnitController2 = controller.createCompilationUnitController();
+        compilationUnitController2.defineNamespace("b");
+        compilationUnitController1.defineNamespace("a");
+        controller.mergeCompilationUnitControllers(
+                Arrays.asList(compilationUnitController1, compilationUnitController2));
+        ILowerCaseStringMap<IGlobalNamespaceScope> scopes = controller.getGlobalNamespaceScopes();
+
+        assertThat(new ArrayList<>(scopes.values()), contains(
+                globalDefaultScope, namespaceAndGlobal1.globalNamespaceScope, namespaceAndGlobal2.globalNamespaceScope));
+    }
+
     //TODO rstoll TINS-161 inference OOP
 //    @Test
 //    public void defineInterface_NoExtends_SetScopeForIdentifierAndCreateInterfaceSymbolAndDefineIt() {
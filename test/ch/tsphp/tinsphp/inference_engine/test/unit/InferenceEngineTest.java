@@ -6,6 +6,7 @@
 
 package ch.tsphp.tinsphp.inference_engine.test.unit;
 
+import ch.tsphp.common.ITSPHPAst;
 import ch.tsphp.common.ITSPHPAstAdaptor;
 import ch.tsphp.tinsphp.common.IInferenceEngine;
 import ch.tsphp.tinsphp.common.inference.IDefinitionPhaseController;
@@ -13,9 +14,12 @@ import ch.tsphp.tinsphp.common.inference.IReferencePhaseController;
 import ch.tsphp.tinsphp.common.issues.EIssueSeverity;
 import ch.tsphp.tinsphp.common.issues.IInferenceIssueReporter;
 import ch.tsphp.tinsphp.inference_engine.InferenceEngine;
+import org.antlr.runtime.tree.TreeNodeStream;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -34,6 +38,28 @@ public class InferenceEngineTest
         assertThat(result, is(false));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void enrichWithDefinitions_LessTreeNodeStreamsThanAsts_ThrowsIllegalArgumentException() {
+        List<ITSPHPAst> asts = Arrays.asList(mock(ITSPHPAst.class), mock(ITSPHPAst.class));
+        List<TreeNodeStream> treeNodeStreams = Arrays.asList(mock(TreeNodeStream.class));
+
+        InferenceEngine inferenceEngine = (InferenceEngine) createInferenceEngine();
+        inferenceEngine.enrichWithDefinitions(asts, treeNodeStreams);
+
+        //assert in annotation
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void enrichWithReferences_LessTreeNodeStreamsThanAsts_ThrowsIllegalArgumentException() {
+        List<ITSPHPAst> asts = Arrays.asList(mock(ITSPHPAst.class), mock(ITSPHPAst.class));
+        List<TreeNodeStream> treeNodeStreams = Arrays.asList(mock(TreeNodeStream.class));
+
+        InferenceEngine inferenceEngine = (InferenceEngine) createInferenceEngine();
+        inferenceEngine.enrichWithReferences(asts, treeNodeStreams);
+
+        //assert in annotation
+    }
+
     private IInferenceEngine createInferenceEngine() {
         return createInferenceEngine(mock(ITSPHPAstAdaptor.class),
                 mock(IInferenceIssueReporter.class),
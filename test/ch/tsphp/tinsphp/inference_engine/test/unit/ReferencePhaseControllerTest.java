@@ -1708,6 +1708,32 @@ public class ReferencePhaseControllerTest
         verify(enclosingSymbols).put("b", true);
     }
 
+    @Test
+    public void methodFinished_Standard_DelegatesToConstraintSolver() {
+        IMethodSymbol methodSymbol = mock(IMethodSymbol.class);
+        IConstraintSolver constraintSolver = mock(IConstraintSolver.class);
+        ICore core = mock(ICore.class);
+        when(core.getPrimitiveTypes()).thenReturn(new HashMap<String, ITypeSymbol>());
+
+        ReferencePhaseController controller = (ReferencePhaseController) createController(
+                createSymbolFactoryMock(),
+                mock(IInferenceIssueReporter.class),
+                mock(IAstModificationHelper.class),
+                mock(ISymbolResolverController.class),
+                mock(ISymbolCheckController.class),
+                mock(IVariableDeclarationCreator.class),
+                mock(IScopeHelper.class),
+                mock(IModifierHelper.class),
+                mock(IConstraintCreator.class),
+                constraintSolver,
+                core,
+                mock(IGlobalNamespaceScope.class)
+        );
+        controller.methodFinished(methodSymbol);
+
+        verify(constraintSolver).methodFinished(methodSymbol);
+    }
+
     @Test
     public void
     addImplicitReturnStatementIfRequired_IsReturningAndHasAtLeastOneReturnOrThrow_NothingAddedIssueReporterNotCalled() {
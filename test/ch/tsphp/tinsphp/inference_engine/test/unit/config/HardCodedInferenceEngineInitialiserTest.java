@@ -17,14 +17,17 @@ import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
 import ch.tsphp.tinsphp.common.scopes.IGlobalNamespaceScope;
 import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
 import ch.tsphp.tinsphp.inference_engine.config.HardCodedInferenceEngineInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
 import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
 import org.junit.Test;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsNot.not;
 
 public class HardCodedInferenceEngineInitialiserTest
@@ -71,6 +74,27 @@ public class HardCodedInferenceEngineInitialiserTest
         assertThat(result, is(not(firstCall)));
     }
 
+    @Test
+    public void getEngine_WorkStealingWithForkJoinPool_ReturnsEngine() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.useWorkStealing = true;
+        IInferenceEngineInitialiser initialiser = createInitialiser(new ForkJoinPool(), settings);
+
+        IInferenceEngine result = initialiser.getEngine();
+
+        assertThat(result, is(not(nullValue())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_WorkStealingWithoutForkJoinPool_ThrowsIllegalArgumentException() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.useWorkStealing = true;
+
+        createInitialiser(Executors.newSingleThreadExecutor(), settings);
+
+        //assert in annotation
+    }
+
     private IInferenceEngineInitialiser createInitialiser() {
         ITSPHPAstAdaptor astAdaptor = new TSPHPAstAdaptor();
         IAstHelper astHelper = new AstHelper(astAdaptor);
@@ -81,4 +105,14 @@ public class HardCodedInferenceEngineInitialiserTest
                 astAdaptor, astHelper, symbolsInitialiser, coreInitialiser, executorService);
     }
 
+    private IInferenceEngineInitialiser createInitialiser(
+            ExecutorService executorService, ConstraintSolverSettingsDto settings) {
+        ITSPHPAstAdaptor astAdaptor = new TSPHPAstAdaptor();
+        IAstHelper astHelper = new AstHelper(astAdaptor);
+        ISymbolsInitialiser symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        ICoreInitialiser coreInitialiser = new HardCodedCoreInitialiser(astHelper, symbolsInitialiser);
+        return new HardCodedInferenceEngineInitialiser(
+                astAdaptor, astHelper, symbolsInitialiser, coreInitialiser, executorService, settings);
+    }
+
 }
@@ -8,6 +8,7 @@ package ch.tsphp.tinsphp.inference_engine.test.unit.constraints;
 
 import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
 import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
 import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
 import ch.tsphp.tinsphp.common.utils.ITypeHelper;
 import ch.tsphp.tinsphp.inference_engine.constraints.IMostSpecificOverloadDecider;
@@ -15,13 +16,20 @@ import ch.tsphp.tinsphp.inference_engine.constraints.MostSpecificOverloadDecider
 import ch.tsphp.tinsphp.inference_engine.constraints.OverloadRankingDto;
 import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class MostSpecificOverloadDeciderTest
@@ -96,12 +104,120 @@ public class MostSpecificOverloadDeciderTest
         assertThat(result, is(third));
     }
 
+    @Test
+    public void inNormalMode_SameOverloadsAppliedTheSameWayTwice_ReturnsDtoAndBindingsOfSecondCall() {
+        WorkItemDto workItemDto = new WorkItemDto(null, null, 0, true, mock(IBindingCollection.class));
+        IFunctionType overload1 = createSimplifiedOverload();
+        IFunctionType overload2 = createSimplifiedOverload();
+
+        IMostSpecificOverloadDecider decider = createMostSpecificOverloadDecider();
+        List<OverloadRankingDto> firstApplicableOverloads = createNarrowedAndNotNarrowed(overload1, overload2);
+        OverloadRankingDto firstResult = decider.inNormalMode(workItemDto, firstApplicableOverloads, null);
+        List<OverloadRankingDto> applicableOverloads = createNarrowedAndNotNarrowed(overload1, overload2);
+        OverloadRankingDto result = decider.inNormalMode(workItemDto, applicableOverloads, null);
+
+        assertThat(firstResult.bindings, is(firstApplicableOverloads.get(1).bindings));
+        assertThat(result, is(applicableOverloads.get(1)));
+        assertThat(result.overload, is(overload2));
+        assertThat(result.bindings, is(applicableOverloads.get(1).bindings));
+    }
+
+    @Test
+    public void inNormalMode_SameOverloadsAppliedDifferently_DecidesAgain() {
+        WorkItemDto workItemDto = new WorkItemDto(null, null, 0, true, mock(IBindingCollection.class));
+        IFunctionType overload1 = createSimplifiedOverload();
+        IFunctionType overload2 = createSimplifiedOverload();
+
+        IMostSpecificOverloadDecider decider = createMostSpecificOverloadDecider();
+        OverloadRankingDto firstResult = decider.inNormalMode(
+                workItemDto, createNarrowedAndNotNarrowed(overload1, overload2), null);
+        List<OverloadRankingDto> applicableOverloads = new ArrayList<>();
+        applicableOverloads.add(createAppliedOverload(overload1, false));
+        applicableOverloads.add(createAppliedOverload(overload2, true));
+        OverloadRankingDto result = decider.inNormalMode(workItemDto, applicableOverloads, null);
+
+        assertThat(firstResult.overload, is(overload2));
+        assertThat(result, is(applicableOverloads.get(0)));
+        assertThat(result.overload, is(overload1));
+        assertThat(result.bindings, is(applicableOverloads.get(0).bindings));
+    }
+
+    @Test
+    public void inNormalMode_NonFixedOverloadsRankedTwice_CopiesAndFixesThemOnlyOnce() {
+        WorkItemDto workItemDto = new WorkItemDto(null, null, 0, true, mock(IBindingCollection.class));
+        IFunctionType overload1 = createSimplifiedOverload();
+        when(overload1.isFixed()).thenReturn(false);
+        IFunctionType overload2 = createSimplifiedOverload();
+        when(overload2.isFixed()).thenReturn(false);
+        ISymbolFactory symbolFactory = createSymbolFactoryCreatingFunctionTypes();
+
+        IMostSpecificOverloadDecider decider = createMostSpecificOverloadDecider(symbolFactory);
+        decider.inNormalMode(workItemDto, createNarrowedAndNotNarrowed(overload1, overload2), null);
+        decider.inNormalMode(workItemDto, createNarrowedAndNotNarrowed(overload2, overload1), null);
+
+        verify(symbolFactory, times(2)).createFunctionType(
+                anyString(), any(IBindingCollection.class), anyListOf(IVariable.class));
+    }
+
+    @Test
+    public void inNormalMode_IterativeModeAndSameOverloadsRankedTwice_CopiesAndFixesThemOnlyOnce() {
+        WorkItemDto workItemDto = new WorkItemDto(null, null, 0, true, mock(IBindingCollection.class));
+        workItemDto.isInIterativeMode = true;
+        IFunctionType overload1 = mock(IFunctionType.class);
+        IFunctionType overload2 = mock(IFunctionType.class);
+        ISymbolFactory symbolFactory = createSymbolFactoryCreatingFunctionTypes();
+
+        IMostSpecificOverloadDecider decider = createMostSpecificOverloadDecider(symbolFactory);
+        decider.inNormalMode(workItemDto, createNarrowedAndNotNarrowed(overload1, overload2), null);
+        decider.inNormalMode(workItemDto, createNarrowedAndNotNarrowed(overload1, overload2), null);
+
+        verify(symbolFactory, times(2)).createFunctionType(
+                anyString(), any(IBindingCollection.class), anyListOf(IVariable.class));
+    }
+
+    private ISymbolFactory createSymbolFactoryCreatingFunctionTypes() {
+        ISymbolFactory symbolFactory = mock(ISymbolFactory.class);
+        when(symbolFactory.createBindingCollection(any(IBindingCollection.class)))
+                .thenReturn(mock(IBindingCollection.class));
+        when(symbolFactory.createFunctionType(anyString(), any(IBindingCollection.class), anyListOf(IVariable.class)))
+                .thenAnswer(new Answer<IFunctionType>()
+                {
+                    @Override
+                    public IFunctionType answer(InvocationOnMock invocationOnMock) {
+                        return mock(IFunctionType.class);
+                    }
+                });
+        return symbolFactory;
+    }
+
+    private IFunctionType createSimplifiedOverload() {
+        IFunctionType overload = mock(IFunctionType.class);
+        when(overload.wasSimplified()).thenReturn(true);
+        when(overload.isFixed()).thenReturn(true);
+        return overload;
+    }
+
+    private List<OverloadRankingDto> createNarrowedAndNotNarrowed(IFunctionType narrowed, IFunctionType notNarrowed) {
+        List<OverloadRankingDto> applicableOverloads = new ArrayList<>();
+        applicableOverloads.add(createAppliedOverload(narrowed, true));
+        applicableOverloads.add(createAppliedOverload(notNarrowed, false));
+        return applicableOverloads;
+    }
+
+    private OverloadRankingDto createAppliedOverload(IFunctionType overload, boolean hasNarrowedArguments) {
+        return new OverloadRankingDto(
+                overload, mock(IBindingCollection.class), null, null, null, hasNarrowedArguments, false);
+    }
+
     private OverloadRankingDto createOverloadRankingDto(IFunctionType overloadWithoutConvertible) {
         return new OverloadRankingDto(overloadWithoutConvertible, null, null, null, null, false, false);
     }
 
     protected IMostSpecificOverloadDecider createMostSpecificOverloadDecider() {
-        return new MostSpecificOverloadDecider(mock(ISymbolFactory.class), mock(ITypeHelper.class));
+        return createMostSpecificOverloadDecider(mock(ISymbolFactory.class));
+    }
 
+    protected IMostSpecificOverloadDecider createMostSpecificOverloadDecider(ISymbolFactory symbolFactory) {
+        return new MostSpecificOverloadDecider(symbolFactory, mock(ITypeHelper.class));
     }
 }
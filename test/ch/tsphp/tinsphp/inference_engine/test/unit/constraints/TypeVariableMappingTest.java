@@ -0,0 +1,106 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints;
+
+import ch.tsphp.tinsphp.common.TinsPHPConstants;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.inference_engine.constraints.OverloadTypeVariables;
+import ch.tsphp.tinsphp.inference_engine.constraints.TypeVariableMapping;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TypeVariableMappingTest
+{
+
+    @Test
+    public void put_ParameterTypeVariable_CanBeRetrievedByNameAndIndex() {
+        OverloadTypeVariables overloadTypeVariables = createOverloadTypeVariables();
+        ITypeVariableReference reference = mock(ITypeVariableReference.class);
+
+        TypeVariableMapping mapping = new TypeVariableMapping(overloadTypeVariables);
+        mapping.put("T2", reference);
+
+        assertThat(mapping.containsKey("T2"), is(true));
+        assertThat(mapping.get(overloadTypeVariables.getParameterTypeVariableIndex(0)), is(reference));
+    }
+
+    @Test
+    public void put_TypeVariableOfLowerRefBound_IsInterned() {
+        OverloadTypeVariables overloadTypeVariables = createOverloadTypeVariables();
+        ITypeVariableReference reference = mock(ITypeVariableReference.class);
+
+        TypeVariableMapping mapping = new TypeVariableMapping(overloadTypeVariables);
+        mapping.put("T3", reference);
+
+        assertThat(overloadTypeVariables.getIndex("T3"), is(2));
+        assertThat(mapping.get(2), is(reference));
+    }
+
+    @Test
+    public void put_UnknownTypeVariable_CanBeRetrievedByName() {
+        OverloadTypeVariables overloadTypeVariables = createOverloadTypeVariables();
+        ITypeVariableReference reference = mock(ITypeVariableReference.class);
+
+        TypeVariableMapping mapping = new TypeVariableMapping(overloadTypeVariables);
+        mapping.put("T9", reference);
+
+        assertThat(overloadTypeVariables.getIndex("T9"), is(OverloadTypeVariables.NO_INDEX));
+        assertThat(mapping.get("T9"), is(reference));
+    }
+
+    @Test
+    public void getLowerRefBoundIndices_OfTypeVariableWithLowerRefBound_ReturnsIndexOfBound() {
+        OverloadTypeVariables overloadTypeVariables = createOverloadTypeVariables();
+
+        int[] result = overloadTypeVariables.getLowerRefBoundIndices(overloadTypeVariables.getIndex("T1"));
+
+        assertThat(result, is(new int[]{overloadTypeVariables.getIndex("T3")}));
+        assertThat(overloadTypeVariables.getLowerRefBoundIndices(overloadTypeVariables.getIndex("T2")).length, is(0));
+    }
+
+    @Test
+    public void containsKey_NothingPut_ReturnsFalse() {
+        OverloadTypeVariables overloadTypeVariables = createOverloadTypeVariables();
+
+        TypeVariableMapping mapping = new TypeVariableMapping(overloadTypeVariables);
+
+        assertThat(mapping.containsKey("T1"), is(false));
+        assertThat(mapping.containsKey("T9"), is(false));
+        assertThat(mapping.get(0), is(nullValue()));
+    }
+
+    /**
+     * Creates an overload T2 x T1 -> T1 where T1 > T3.
+     */
+    private OverloadTypeVariables createOverloadTypeVariables() {
+        IBindingCollection bindingCollection = mock(IBindingCollection.class);
+        when(bindingCollection.getTypeVariable(TinsPHPConstants.RETURN_VARIABLE_NAME)).thenReturn("T1");
+        when(bindingCollection.getTypeVariable("$x")).thenReturn("T2");
+        when(bindingCollection.getTypeVariable("$y")).thenReturn("T1");
+        when(bindingCollection.hasLowerRefBounds("T1")).thenReturn(true);
+        when(bindingCollection.getLowerRefBounds("T1")).thenReturn(new HashSet<>(Arrays.asList("T3")));
+        IVariable x = mock(IVariable.class);
+        when(x.getAbsoluteName()).thenReturn("$x");
+        IVariable y = mock(IVariable.class);
+        when(y.getAbsoluteName()).thenReturn("$y");
+        IFunctionType overload = mock(IFunctionType.class);
+        when(overload.getBindingCollection()).thenReturn(bindingCollection);
+        when(overload.getParameters()).thenReturn(Arrays.asList(x, y));
+        return new OverloadTypeVariables(overload);
+    }
+}
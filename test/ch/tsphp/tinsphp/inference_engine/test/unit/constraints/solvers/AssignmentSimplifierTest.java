@@ -0,0 +1,245 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IExpressionVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.AssignmentSimplifier;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.tsphp.tinsphp.common.TinsPHPConstants.RETURN_VARIABLE_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AssignmentSimplifierTest
+{
+
+    @Test
+    public void simplify_ReturnOfVariable_EliminatesHelperVariable() {
+        IVariable a = variable("$a");
+        IVariable returnHelper = expressionVariable("return@1|1");
+        IVariable rtn = variable(RETURN_VARIABLE_NAME);
+        IConstraint first = refConstraint(returnHelper, a);
+        IConstraint second = refConstraint(rtn, returnHelper);
+        IConstraintCollection collection = createCollection(first, second);
+        ISymbolFactory symbolFactory = createSymbolFactory();
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(symbolFactory);
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result, is(map("return@1|1", "$a")));
+        List<IConstraint> constraints = collection.getConstraints();
+        assertThat(constraints.size(), is(1));
+        assertThat(constraints.get(0).getLeftHandSide(), is(rtn));
+        assertThat(constraints.get(0).getArguments(), contains(rtn, a));
+    }
+
+    @Test
+    public void simplify_ReturnOfLiteral_EliminatesHelperVariable() {
+        IVariable literal = expressionVariable("1@1|1");
+        when(literal.getType()).thenReturn(mock(ITypeSymbol.class));
+        IVariable returnHelper = expressionVariable("return@1|1");
+        IVariable rtn = variable(RETURN_VARIABLE_NAME);
+        IConstraintCollection collection = createCollection(
+                refConstraint(returnHelper, literal), refConstraint(rtn, returnHelper));
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result, is(map("return@1|1", "1@1|1")));
+        assertThat(collection.getConstraints().get(0).getArguments(), contains(rtn, literal));
+    }
+
+    @Test
+    public void simplify_ReturnOfExpression_DoesNotEliminate() {
+        IVariable expression = expressionVariable("+@1|1");
+        IVariable returnHelper = expressionVariable("return@1|1");
+        IVariable rtn = variable(RETURN_VARIABLE_NAME);
+        IConstraint first = refConstraint(returnHelper, expression);
+        IConstraint second = refConstraint(rtn, returnHelper);
+        IConstraintCollection collection = createCollection(first, second);
+        ISymbolFactory symbolFactory = createSymbolFactory();
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(symbolFactory);
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(collection.getConstraints(), contains(first, second));
+        verify(symbolFactory, never()).createConstraint(
+                any(ITSPHPAst.class), any(IVariable.class), anyListOf(IVariable.class),
+                any(IMinimalMethodSymbol.class));
+    }
+
+    @Test
+    public void simplify_LeftHandSideDefinedTwice_DoesNotEliminate() {
+        IVariable a = variable("$a");
+        IVariable b = variable("$b");
+        IVariable helper = expressionVariable("return@1|1");
+        IConstraint first = refConstraint(helper, a);
+        IConstraint second = refConstraint(helper, b);
+        IConstraintCollection collection = createCollection(first, second);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(collection.getConstraints(), contains(first, second));
+    }
+
+    @Test
+    public void simplify_LeftHandSideIsNotAnExpressionVariable_DoesNotEliminate() {
+        IVariable a = variable("$a");
+        IVariable constant = variable("A#");
+        IConstraint constraint = refConstraint(constant, a);
+        IConstraintCollection collection = createCollection(constraint);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(collection.getConstraints(), contains(constraint));
+    }
+
+    @Test
+    public void simplify_LiteralAndHelperUsedByOperator_DoesNotEliminate() {
+        IVariable literal = expressionVariable("1@1|1");
+        when(literal.getType()).thenReturn(mock(ITypeSymbol.class));
+        IVariable helper = expressionVariable("return@1|1");
+        IConstraint first = refConstraint(helper, literal);
+        IConstraint second = constraint("+", expressionVariable("+@1|1"), helper, variable("$x"));
+        IConstraintCollection collection = createCollection(first, second);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(collection.getConstraints(), contains(first, second));
+    }
+
+    @Test
+    public void simplify_RightHandSideIsReturnVariable_DoesNotEliminate() {
+        IVariable helper = expressionVariable("foo()@1|1");
+        IConstraint constraint = refConstraint(helper, variable(RETURN_VARIABLE_NAME));
+        IConstraintCollection collection = createCollection(constraint);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        Map<String, String> result = simplifier.simplify(collection);
+
+        assertThat(result.isEmpty(), is(true));
+        assertThat(collection.getConstraints(), contains(constraint));
+    }
+
+    @Test
+    public void addEliminatedVariables_ReplacementIsBound_SharesTypeVariableReference() {
+        IBindingCollection bindings = mock(IBindingCollection.class);
+        ITypeVariableReference reference = mock(ITypeVariableReference.class);
+        when(bindings.containsVariable("$a")).thenReturn(true);
+        when(bindings.getTypeVariableReference("$a")).thenReturn(reference);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        simplifier.addEliminatedVariables(bindings, map("return@1|1", "$a"));
+
+        verify(bindings).addVariable("return@1|1", reference);
+    }
+
+    @Test
+    public void addEliminatedVariables_ReplacementIsNotBound_DoesNotAddVariable() {
+        IBindingCollection bindings = mock(IBindingCollection.class);
+
+        AssignmentSimplifier simplifier = new AssignmentSimplifier(createSymbolFactory());
+        simplifier.addEliminatedVariables(bindings, map("return@1|1", "$a"));
+
+        verify(bindings, never()).addVariable(any(String.class), any(ITypeVariableReference.class));
+    }
+
+    private IConstraint refConstraint(IVariable lhs, IVariable rhs) {
+        return constraint("=", lhs, lhs, rhs);
+    }
+
+    private IConstraint constraint(String methodName, IVariable lhs, IVariable... arguments) {
+        IMinimalMethodSymbol methodSymbol = mock(IMinimalMethodSymbol.class);
+        when(methodSymbol.getAbsoluteName()).thenReturn(methodName);
+        return constraint(mock(ITSPHPAst.class), lhs, Arrays.asList(arguments), methodSymbol);
+    }
+
+    private IConstraint constraint(
+            ITSPHPAst operator, IVariable lhs, List<IVariable> arguments, IMinimalMethodSymbol methodSymbol) {
+        IConstraint constraint = mock(IConstraint.class);
+        when(constraint.getOperator()).thenReturn(operator);
+        when(constraint.getLeftHandSide()).thenReturn(lhs);
+        when(constraint.getArguments()).thenReturn(arguments);
+        when(constraint.getMethodSymbol()).thenReturn(methodSymbol);
+        return constraint;
+    }
+
+    private IVariable variable(String name) {
+        IVariable variable = mock(IVariable.class);
+        when(variable.getAbsoluteName()).thenReturn(name);
+        when(variable.getName()).thenReturn(name);
+        return variable;
+    }
+
+    private IVariable expressionVariable(String name) {
+        IExpressionVariableSymbol variable = mock(IExpressionVariableSymbol.class);
+        when(variable.getAbsoluteName()).thenReturn(name);
+        when(variable.getName()).thenReturn(name);
+        return variable;
+    }
+
+    private IConstraintCollection createCollection(IConstraint... constraints) {
+        IConstraintCollection collection = mock(IConstraintCollection.class);
+        when(collection.getConstraints()).thenReturn(new ArrayList<>(Arrays.asList(constraints)));
+        return collection;
+    }
+
+    private ISymbolFactory createSymbolFactory() {
+        return mock(ISymbolFactory.class, new Answer<Object>()
+        {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                if (invocation.getMethod().getName().equals("createConstraint")) {
+                    Object[] arguments = invocation.getArguments();
+                    @SuppressWarnings("unchecked")
+                    List<IVariable> variables = (List<IVariable>) arguments[2];
+                    return constraint(
+                            (ITSPHPAst) arguments[0], (IVariable) arguments[1], variables,
+                            (IMinimalMethodSymbol) arguments[3]);
+                }
+                return null;
+            }
+        });
+    }
+
+    private Map<String, String> map(String key, String value) {
+        Map<String, String> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.inference.constraints.EBindingCollectionMode;
+import ch.tsphp.tinsphp.common.inference.constraints.FixedTypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.ITypeVariableReference;
+import ch.tsphp.tinsphp.common.inference.constraints.TypeVariableReference;
+import ch.tsphp.tinsphp.common.symbols.IIntersectionTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IUnionTypeSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.BindingCollectionMerger;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BindingCollectionMergerTest
+{
+
+    @Test
+    public void merge_TwoVariablesWithSameTypeVariable_ShareNewTypeVariable() {
+        IBindingCollection source = createSource("$a", "$b");
+        ITypeVariableReference reference = new TypeVariableReference("T1");
+        when(source.getTypeVariableReference("$a")).thenReturn(reference);
+        when(source.getTypeVariableReference("$b")).thenReturn(reference);
+        IBindingCollection target = mock(IBindingCollection.class);
+        ITypeVariableReference newReference = new TypeVariableReference("V3");
+        when(target.getNextTypeVariable()).thenReturn(newReference);
+
+        BindingCollectionMerger merger = createMerger();
+        merger.merge(source, target);
+
+        verify(target).getNextTypeVariable();
+        verify(target).addVariable("$a", newReference);
+        verify(target).addVariable("$b", newReference);
+    }
+
+    @Test
+    public void merge_FixedVariable_AddsFixedReferenceToNewTypeVariable() {
+        IBindingCollection source = createSource("$a");
+        when(source.getTypeVariableReference("$a")).thenReturn(
+                new FixedTypeVariableReference(new TypeVariableReference("T1")));
+        IBindingCollection target = mock(IBindingCollection.class);
+        when(target.getNextTypeVariable()).thenReturn(new TypeVariableReference("V3"));
+
+        BindingCollectionMerger merger = createMerger();
+        merger.merge(source, target);
+
+        ArgumentCaptor<ITypeVariableReference> captor = ArgumentCaptor.forClass(ITypeVariableReference.class);
+        verify(target).addVariable(eq("$a"), captor.capture());
+        assertThat(captor.getValue().hasFixedType(), is(true));
+        assertThat(captor.getValue().getTypeVariable(), is("V3"));
+    }
+
+    @Test
+    public void merge_TypeBounds_SetForNewTypeVariableInModificationMode() {
+        IBindingCollection source = createSource("$a");
+        when(source.getTypeVariableReference("$a")).thenReturn(new TypeVariableReference("T1"));
+        when(source.hasLowerTypeBounds("T1")).thenReturn(true);
+        when(source.getLowerTypeBounds("T1")).thenReturn(mock(IUnionTypeSymbol.class));
+        IBindingCollection target = mock(IBindingCollection.class);
+        when(target.getNextTypeVariable()).thenReturn(new TypeVariableReference("V3"));
+        when(target.getMode()).thenReturn(EBindingCollectionMode.Normal);
+        ISymbolFactory symbolFactory = mock(ISymbolFactory.class);
+        IUnionTypeSymbol lowerBounds = mock(IUnionTypeSymbol.class);
+        when(symbolFactory.createUnionTypeSymbol()).thenReturn(lowerBounds);
+
+        BindingCollectionMerger merger = new BindingCollectionMerger(symbolFactory);
+        merger.merge(source, target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).setMode(EBindingCollectionMode.Modification);
+        inOrder.verify(target).setLowerTypeBounds("V3", lowerBounds);
+        inOrder.verify(target).setMode(EBindingCollectionMode.Normal);
+        verify(target, never()).setUpperTypeBounds(anyString(), any(IIntersectionTypeSymbol.class));
+    }
+
+    @Test
+    public void merge_TypeBounds_CopiedInsteadOfShared() {
+        IBindingCollection source = createSource("$a");
+        when(source.getTypeVariableReference("$a")).thenReturn(new TypeVariableReference("T1"));
+        ITypeSymbol intType = mock(ITypeSymbol.class);
+        ITypeSymbol floatType = mock(ITypeSymbol.class);
+        IUnionTypeSymbol sourceLowerBounds = mock(IUnionTypeSymbol.class);
+        when(sourceLowerBounds.getTypeSymbols()).thenReturn(map("int", intType));
+        when(source.hasLowerTypeBounds("T1")).thenReturn(true);
+        when(source.getLowerTypeBounds("T1")).thenReturn(sourceLowerBounds);
+        IIntersectionTypeSymbol sourceUpperBounds = mock(IIntersectionTypeSymbol.class);
+        when(sourceUpperBounds.getTypeSymbols()).thenReturn(map("float", floatType));
+        when(source.hasUpperTypeBounds("T1")).thenReturn(true);
+        when(source.getUpperTypeBounds("T1")).thenReturn(sourceUpperBounds);
+        IBindingCollection target = mock(IBindingCollection.class);
+        when(target.getNextTypeVariable()).thenReturn(new TypeVariableReference("V3"));
+        ISymbolFactory symbolFactory = mock(ISymbolFactory.class);
+        IUnionTypeSymbol lowerBounds = mock(IUnionTypeSymbol.class);
+        when(symbolFactory.createUnionTypeSymbol()).thenReturn(lowerBounds);
+        IIntersectionTypeSymbol upperBounds = mock(IIntersectionTypeSymbol.class);
+        when(symbolFactory.createIntersectionTypeSymbol()).thenReturn(upperBounds);
+
+        BindingCollectionMerger merger = new BindingCollectionMerger(symbolFactory);
+        merger.merge(source, target);
+
+        verify(lowerBounds).addTypeSymbol(intType);
+        verify(upperBounds).addTypeSymbol(floatType);
+        verify(target).setLowerTypeBounds("V3", lowerBounds);
+        verify(target).setUpperTypeBounds("V3", upperBounds);
+        verify(sourceLowerBounds, never()).addTypeSymbol(any(ITypeSymbol.class));
+        verify(sourceUpperBounds, never()).addTypeSymbol(any(ITypeSymbol.class));
+    }
+
+    @Test
+    public void merge_LowerRefBound_AddedBetweenNewTypeVariables() {
+        IBindingCollection source = createSource("$a", "$b");
+        when(source.getTypeVariableReference("$a")).thenReturn(new TypeVariableReference("T1"));
+        when(source.getTypeVariableReference("$b")).thenReturn(new TypeVariableReference("T2"));
+        when(source.getLowerRefBounds("T1")).thenReturn(new HashSet<>(Arrays.asList("T2")));
+        IBindingCollection target = mock(IBindingCollection.class);
+        ITypeVariableReference newReference = new TypeVariableReference("V3");
+        when(target.getNextTypeVariable()).thenReturn(newReference, new TypeVariableReference("V4"));
+
+        BindingCollectionMerger merger = createMerger();
+        merger.merge(source, target);
+
+        ArgumentCaptor<ITypeVariableReference> captor = ArgumentCaptor.forClass(ITypeVariableReference.class);
+        verify(target).addLowerRefBound(eq("V3"), captor.capture());
+        assertThat(captor.getValue().getTypeVariable(), is("V4"));
+    }
+
+    @Test
+    public void merge_HelperVariable_IsNotTakenOver() {
+        IBindingCollection source = createSource("!help0");
+        when(source.getTypeVariableReference("!help0")).thenReturn(new TypeVariableReference("T1"));
+        IBindingCollection target = mock(IBindingCollection.class);
+        when(target.containsVariable("!help0")).thenReturn(true);
+
+        BindingCollectionMerger merger = createMerger();
+        merger.merge(source, target);
+
+        verify(target, never()).getNextTypeVariable();
+        verify(target, never()).addVariable(anyString(), any(ITypeVariableReference.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_VariableBoundInBothCollections_ThrowsIllegalArgumentException() {
+        IBindingCollection source = createSource("$a");
+        when(source.getTypeVariableReference("$a")).thenReturn(new TypeVariableReference("T1"));
+        IBindingCollection target = mock(IBindingCollection.class);
+        when(target.containsVariable("$a")).thenReturn(true);
+
+        BindingCollectionMerger merger = createMerger();
+        merger.merge(source, target);
+
+        //assert in annotation
+    }
+
+    private BindingCollectionMerger createMerger() {
+        return new BindingCollectionMerger(mock(ISymbolFactory.class));
+    }
+
+    private Map<String, ITypeSymbol> map(String absoluteName, ITypeSymbol typeSymbol) {
+        Map<String, ITypeSymbol> typeSymbols = new HashMap<>();
+        typeSymbols.put(absoluteName, typeSymbol);
+        return typeSymbols;
+    }
+
+    private IBindingCollection createSource(String... variableIds) {
+        IBindingCollection source = mock(IBindingCollection.class);
+        when(source.getVariableIds()).thenReturn(new HashSet<>(Arrays.asList(variableIds)));
+        return source;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.CallGraph;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CallGraphTest
+{
+
+    @Test
+    public void getCallees_CallsOperatorAndMethod_ContainsOnlyMethod() {
+        IMethodSymbol foo = createMethodSymbol("foo");
+        IMethodSymbol bar = createMethodSymbol("bar");
+        IMinimalMethodSymbol plus = mock(IMinimalMethodSymbol.class);
+        when(plus.getAbsoluteName()).thenReturn("+");
+        addCalls(foo, plus, bar);
+
+        CallGraph callGraph = new CallGraph(asList(foo, bar));
+        Set<String> result = callGraph.getCallees("foo");
+
+        assertThat(result, contains("bar"));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_NoCalls_OneComponentPerMethod() {
+        IMethodSymbol foo = createMethodSymbol("foo");
+        IMethodSymbol bar = createMethodSymbol("bar");
+        addCalls(foo);
+        addCalls(bar);
+
+        CallGraph callGraph = new CallGraph(asList(foo, bar));
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0), containsInAnyOrder(foo));
+        assertThat(result.get(1), containsInAnyOrder(bar));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_Chain_CalleesComeFirst() {
+        IMethodSymbol foo = createMethodSymbol("foo");
+        IMethodSymbol bar = createMethodSymbol("bar");
+        IMethodSymbol baz = createMethodSymbol("baz");
+        addCalls(foo, bar);
+        addCalls(bar, baz);
+        addCalls(baz);
+
+        CallGraph callGraph = new CallGraph(asList(foo, bar, baz));
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result.size(), is(3));
+        assertThat(result.get(0), containsInAnyOrder(baz));
+        assertThat(result.get(1), containsInAnyOrder(bar));
+        assertThat(result.get(2), containsInAnyOrder(foo));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_IndirectRecursionAndCaller_RecursiveMethodsInOneComponent() {
+        IMethodSymbol foo = createMethodSymbol("foo");
+        IMethodSymbol bar = createMethodSymbol("bar");
+        IMethodSymbol baz = createMethodSymbol("baz");
+        IMethodSymbol caller = createMethodSymbol("caller");
+        addCalls(caller, foo);
+        addCalls(foo, bar);
+        addCalls(bar, baz, foo);
+        addCalls(baz, foo);
+
+        CallGraph callGraph = new CallGraph(asList(caller, foo, bar, baz));
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0), containsInAnyOrder(foo, bar, baz));
+        assertThat(result.get(1), containsInAnyOrder(caller));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_DirectRecursion_OwnComponent() {
+        IMethodSymbol foo = createMethodSymbol("foo");
+        addCalls(foo, foo);
+
+        CallGraph callGraph = new CallGraph(asList(foo));
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0), containsInAnyOrder(foo));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_LongChain_DoesNotOverflowTheStack() {
+        List<IMethodSymbol> methodSymbols = new ArrayList<>();
+        IMethodSymbol previous = null;
+        for (int i = 0; i < 20000; ++i) {
+            IMethodSymbol methodSymbol = createMethodSymbol("m" + i);
+            if (previous != null) {
+                addCalls(previous, methodSymbol);
+            }
+            methodSymbols.add(methodSymbol);
+            previous = methodSymbol;
+        }
+        addCalls(previous);
+
+        CallGraph callGraph = new CallGraph(methodSymbols);
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result.size(), is(20000));
+        assertThat(result.get(0), containsInAnyOrder(previous));
+    }
+
+    @Test
+    public void getStronglyConnectedComponents_NoMethods_ReturnsEmptyList() {
+        List<IMethodSymbol> methodSymbols = new ArrayList<>();
+
+        CallGraph callGraph = new CallGraph(methodSymbols);
+        List<List<IMethodSymbol>> result = callGraph.getStronglyConnectedComponents();
+
+        assertThat(result, is(empty()));
+    }
+
+    private IMethodSymbol createMethodSymbol(String name) {
+        IMethodSymbol methodSymbol = mock(IMethodSymbol.class);
+        when(methodSymbol.getAbsoluteName()).thenReturn(name);
+        return methodSymbol;
+    }
+
+    private void addCalls(IMethodSymbol methodSymbol, IMinimalMethodSymbol... callees) {
+        List<IConstraint> constraints = new ArrayList<>();
+        for (IMinimalMethodSymbol callee : callees) {
+            IConstraint constraint = mock(IConstraint.class);
+            when(constraint.getMethodSymbol()).thenReturn(callee);
+            constraints.add(constraint);
+        }
+        when(methodSymbol.getConstraints()).thenReturn(constraints);
+    }
+}
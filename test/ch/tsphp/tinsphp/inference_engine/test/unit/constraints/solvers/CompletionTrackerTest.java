@@ -0,0 +1,102 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.CompletionTracker;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class CompletionTrackerTest
+{
+
+    @Test
+    public void awaitCompletion_NothingRegistered_ReturnsImmediately() {
+        CompletionTracker tracker = new CompletionTracker();
+
+        tracker.awaitCompletion();
+
+        assertThat(tracker.getNumberOfPendingTasks(), is(0));
+    }
+
+    @Test
+    public void awaitCompletion_TasksSpawnFurtherTasks_WaitsUntilAllAreDone() {
+        final CompletionTracker tracker = new CompletionTracker();
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final AtomicInteger counter = new AtomicInteger();
+
+        try {
+            for (int i = 0; i < 10; ++i) {
+                executorService.execute(tracker.track(new Runnable()
+                {
+                    @Override
+                    public void run() {
+                        counter.incrementAndGet();
+                        executorService.execute(tracker.track(new Runnable()
+                        {
+                            @Override
+                            public void run() {
+                                counter.incrementAndGet();
+                            }
+                        }));
+                    }
+                }));
+            }
+            tracker.awaitCompletion();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(counter.get(), is(20));
+        assertThat(tracker.getNumberOfPendingTasks(), is(0));
+    }
+
+    @Test
+    public void awaitCompletion_OneTaskFails_ThrowsWithoutWaitingForTheOthers() throws InterruptedException {
+        CompletionTracker tracker = new CompletionTracker();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final IllegalStateException exception = new IllegalStateException();
+
+        try {
+            executorService.execute(tracker.track(new Runnable()
+            {
+                @Override
+                public void run() {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+            executorService.execute(tracker.track(new Runnable()
+            {
+                @Override
+                public void run() {
+                    throw exception;
+                }
+            }));
+
+            tracker.awaitCompletion();
+            fail("no exception thrown");
+        } catch (RuntimeException ex) {
+            assertThat(ex.getCause(), is((Throwable) exception));
+            assertThat(tracker.getNumberOfPendingTasks(), is(1));
+        } finally {
+            blocker.countDown();
+            executorService.shutdownNow();
+        }
+    }
+}
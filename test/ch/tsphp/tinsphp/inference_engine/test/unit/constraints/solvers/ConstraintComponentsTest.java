@@ -0,0 +1,167 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintComponents;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static ch.tsphp.tinsphp.common.TinsPHPConstants.RETURN_VARIABLE_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConstraintComponentsTest
+{
+
+    @Test
+    public void constructor_ConstraintsShareVariablesTransitively_OneComponent() {
+        IConstraintCollection collection = createCollection(
+                constraint("e1", "$a", "$b"),
+                constraint("e2", "$c"),
+                constraint("e3", "e1", "$c"));
+
+        ConstraintComponents result = new ConstraintComponents(collection);
+
+        assertThat(result.getNumberOfComponents(), is(1));
+        assertThat(result.getConstraints(0), is(set(0, 1, 2)));
+    }
+
+    @Test
+    public void constructor_DisjointConstraints_OneComponentPerConstraintInOrder() {
+        IConstraintCollection collection = createCollection(
+                constraint("e1", "$a"),
+                constraint("e2", "$b"),
+                constraint("e3", "$a"));
+
+        ConstraintComponents result = new ConstraintComponents(collection);
+
+        assertThat(result.getNumberOfComponents(), is(2));
+        assertThat(result.getConstraints(0), is(set(0, 2)));
+        assertThat(result.getConstraints(1), is(set(1)));
+    }
+
+    @Test
+    public void isLocal_GlobalDefaultNamespace_AllAreLocal() {
+        IConstraintCollection collection = createCollection(
+                constraint("e1", "$a"),
+                constraint(RETURN_VARIABLE_NAME, "$b"));
+
+        ConstraintComponents components = new ConstraintComponents(collection);
+        boolean result1 = components.isLocal(0);
+        boolean result2 = components.isLocal(1);
+
+        assertThat(result1, is(true));
+        assertThat(result2, is(true));
+    }
+
+    @Test
+    public void isLocal_ComponentWithParameterOrReturnVariable_IsNotLocal() {
+        IMethodSymbol methodSymbol = createMethodSymbol(
+                "foo()$x",
+                constraint("e1", "foo()$x"),
+                constraint("e2", "$a"),
+                constraint(RETURN_VARIABLE_NAME, "$b"));
+
+        ConstraintComponents components = new ConstraintComponents(methodSymbol);
+
+        assertThat(components.isLocal(0), is(false));
+        assertThat(components.isLocal(1), is(true));
+        assertThat(components.isLocal(2), is(false));
+    }
+
+    @Test
+    public void getFinishedLocalVariables_LocalComponentCompleted_ContainsVariablesOfAllCompletedComponents() {
+        IMethodSymbol methodSymbol = createMethodSymbol(
+                "foo()$x",
+                constraint("e1", "$a"),
+                constraint("e2", "foo()$x"),
+                constraint("e3", "$b"),
+                constraint("e4", "e1"),
+                constraint("e5", "e3"));
+
+        ConstraintComponents components = new ConstraintComponents(methodSymbol);
+
+        assertThat(components.getFinishedLocalVariables(4), is(set("e1", "$a", "e4")));
+        assertThat(components.getFinishedLocalConstraints(4), is(set(0, 3)));
+        assertThat(components.getFinishedLocalVariables(5), is(set("e1", "$a", "e4", "e3", "$b", "e5")));
+        assertThat(components.getFinishedLocalConstraints(5), is(set(0, 3, 2, 4)));
+    }
+
+    @Test
+    public void getFinishedLocalVariables_NoLocalComponentCompleted_ReturnsNull() {
+        IMethodSymbol methodSymbol = createMethodSymbol(
+                "foo()$x",
+                constraint("e1", "$a"),
+                constraint("e2", "foo()$x"),
+                constraint("e3", "e1", "e2"));
+
+        ConstraintComponents components = new ConstraintComponents(methodSymbol);
+
+        assertThat(components.getFinishedLocalVariables(1), is(nullValue()));
+        assertThat(components.getFinishedLocalVariables(2), is(nullValue()));
+        assertThat(components.getFinishedLocalConstraints(3), is(nullValue()));
+    }
+
+    private IConstraint constraint(String lhs, String... arguments) {
+        IConstraint constraint = mock(IConstraint.class);
+        IVariable leftHandSide = variable(lhs);
+        when(constraint.getLeftHandSide()).thenReturn(leftHandSide);
+        List<IVariable> variables = new ArrayList<>();
+        for (String argument : arguments) {
+            variables.add(variable(argument));
+        }
+        when(constraint.getArguments()).thenReturn(variables);
+        return constraint;
+    }
+
+    private IVariable variable(String name) {
+        IVariable variable = mock(IVariable.class);
+        when(variable.getAbsoluteName()).thenReturn(name);
+        return variable;
+    }
+
+    private IConstraintCollection createCollection(IConstraint... constraints) {
+        IConstraintCollection collection = mock(IConstraintCollection.class);
+        when(collection.getConstraints()).thenReturn(Arrays.asList(constraints));
+        return collection;
+    }
+
+    private IMethodSymbol createMethodSymbol(String parameterName, IConstraint... constraints) {
+        IMethodSymbol methodSymbol = mock(IMethodSymbol.class);
+        when(methodSymbol.getConstraints()).thenReturn(Arrays.asList(constraints));
+        IVariableSymbol parameter = mock(IVariableSymbol.class);
+        when(parameter.getAbsoluteName()).thenReturn(parameterName);
+        when(methodSymbol.getParameters()).thenReturn(Arrays.asList(parameter));
+        IMinimalVariableSymbol returnVariable = mock(IMinimalVariableSymbol.class);
+        when(returnVariable.getAbsoluteName()).thenReturn(RETURN_VARIABLE_NAME);
+        when(methodSymbol.getReturnVariable()).thenReturn(returnVariable);
+        return methodSymbol;
+    }
+
+    @SafeVarargs
+    private final <T> Set<T> set(T... elements) {
+        Set<T> set = new HashSet<>();
+        for (T element : elements) {
+            set.add(element);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintOrderer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConstraintOrdererTest
+{
+
+    @Test
+    public void order_IndependentConstraintWithoutVariables_ComesFirst() {
+        IConstraint branching = constraint(2, "e1", "$x", "1");
+        IConstraint notBranching = constraint(2, "e2", "1", "2");
+
+        ConstraintOrderer orderer = new ConstraintOrderer();
+        List<IConstraint> result = orderer.order(Arrays.asList(branching, notBranching));
+
+        assertThat(result, contains(notBranching, branching));
+    }
+
+    @Test
+    public void order_CallToUnsolvedMethod_ComesLast() {
+        IConstraint unsolved = constraint(0, "e1", "$x");
+        IConstraint manyOverloads = constraint(10, "e2", "$y", "2");
+
+        ConstraintOrderer orderer = new ConstraintOrderer();
+        List<IConstraint> result = orderer.order(Arrays.asList(unsolved, manyOverloads));
+
+        assertThat(result, contains(manyOverloads, unsolved));
+    }
+
+    @Test
+    public void order_UsesLeftHandSideOfOtherConstraint_StaysBehindIt() {
+        IConstraint definition = constraint(10, "e1", "$x", "1");
+        IConstraint usage = constraint(1, "e2", "e1", "2");
+        IConstraint other = constraint(5, "e3", "1", "3");
+
+        ConstraintOrderer orderer = new ConstraintOrderer();
+        List<IConstraint> result = orderer.order(Arrays.asList(definition, usage, other));
+
+        assertThat(result, contains(other, definition, usage));
+    }
+
+    @Test
+    public void order_SameLeftHandSideDefinedTwice_KeepsOrderOfDefinitions() {
+        IConstraint first = constraint(10, "rtn", "$x");
+        IConstraint second = constraint(1, "rtn", "$y");
+
+        ConstraintOrderer orderer = new ConstraintOrderer();
+        List<IConstraint> result = orderer.order(Arrays.asList(first, second));
+
+        assertThat(result, contains(first, second));
+    }
+
+    @Test
+    public void order_AlreadyOrdered_DoesNotChangeTheOrder() {
+        List<IConstraint> constraints = Arrays.asList(
+                constraint(10, "e1", "$x", "1"),
+                constraint(1, "e2", "e1", "2"),
+                constraint(5, "e3", "$y", "3"),
+                constraint(2, "e4", "1", "2"),
+                constraint(2, "e5", "e4", "e2"));
+
+        ConstraintOrderer orderer = new ConstraintOrderer();
+        List<IConstraint> ordered = orderer.order(constraints);
+        List<IConstraint> result = orderer.order(new ArrayList<>(ordered));
+
+        assertThat(result, is(ordered));
+    }
+
+    private IConstraint constraint(int numberOfOverloads, String lhs, String... arguments) {
+        IConstraint constraint = mock(IConstraint.class);
+        IVariable leftHandSide = variable(lhs);
+        when(constraint.getLeftHandSide()).thenReturn(leftHandSide);
+        List<IVariable> variables = new ArrayList<>();
+        for (String argument : arguments) {
+            variables.add(variable(argument));
+        }
+        when(constraint.getArguments()).thenReturn(variables);
+        IMinimalMethodSymbol methodSymbol = mock(IMinimalMethodSymbol.class);
+        Collection<IFunctionType> overloads = new ArrayList<>();
+        for (int i = 0; i < numberOfOverloads; ++i) {
+            overloads.add(mock(IFunctionType.class));
+        }
+        when(methodSymbol.getOverloads()).thenReturn(overloads);
+        when(constraint.getMethodSymbol()).thenReturn(methodSymbol);
+        return constraint;
+    }
+
+    private IVariable variable(String name) {
+        IVariable variable = mock(IVariable.class);
+        when(variable.getAbsoluteName()).thenReturn(name);
+        when(variable.getName()).thenReturn(name);
+        return variable;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.OverloadApplicabilityCache;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+
+public class OverloadApplicabilityCacheTest
+{
+
+    @Test
+    public void isKnownToBeInapplicable_NothingCached_ReturnsFalseAndCountsMiss() {
+        IFunctionType overload = mock(IFunctionType.class);
+
+        OverloadApplicabilityCache cache = new OverloadApplicabilityCache();
+        boolean result = cache.isKnownToBeInapplicable(overload, description("int"));
+
+        assertThat(result, is(false));
+        assertThat(cache.getNumberOfMisses(), is(1L));
+        assertThat(cache.getNumberOfHits(), is(0L));
+    }
+
+    @Test
+    public void isKnownToBeInapplicable_RememberedAsInapplicable_ReturnsTrueAndCountsHit() {
+        IFunctionType overload = mock(IFunctionType.class);
+
+        OverloadApplicabilityCache cache = new OverloadApplicabilityCache();
+        cache.rememberInapplicable(overload, description("int"));
+        boolean result = cache.isKnownToBeInapplicable(overload, description("int"));
+
+        assertThat(result, is(true));
+        assertThat(cache.getNumberOfHits(), is(1L));
+        assertThat(cache.getNumberOfMisses(), is(0L));
+    }
+
+    @Test
+    public void isKnownToBeInapplicable_OtherArgumentsDescription_ReturnsFalse() {
+        IFunctionType overload = mock(IFunctionType.class);
+
+        OverloadApplicabilityCache cache = new OverloadApplicabilityCache();
+        cache.rememberInapplicable(overload, description("int"));
+        boolean result = cache.isKnownToBeInapplicable(overload, description("float"));
+
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void isKnownToBeInapplicable_OtherOverload_ReturnsFalse() {
+        IFunctionType overload1 = mock(IFunctionType.class);
+        IFunctionType overload2 = mock(IFunctionType.class);
+
+        OverloadApplicabilityCache cache = new OverloadApplicabilityCache();
+        cache.rememberInapplicable(overload1, description("int"));
+        boolean result = cache.isKnownToBeInapplicable(overload2, description("int"));
+
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void rememberInapplicable_MaximumSizeReached_ClearsCacheBeforeAdding() {
+        IFunctionType overload = mock(IFunctionType.class);
+
+        OverloadApplicabilityCache cache = new OverloadApplicabilityCache(2);
+        cache.rememberInapplicable(overload, description("int"));
+        cache.rememberInapplicable(overload, description("float"));
+        cache.rememberInapplicable(overload, description("bool"));
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.isKnownToBeInapplicable(overload, description("int")), is(false));
+        assertThat(cache.isKnownToBeInapplicable(overload, description("bool")), is(true));
+    }
+
+    private List<Object> description(String typeName) {
+        return Collections.<Object>singletonList(typeName);
+    }
+}
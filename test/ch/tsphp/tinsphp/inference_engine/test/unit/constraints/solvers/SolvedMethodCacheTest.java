@@ -0,0 +1,189 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.common.ITSPHPAst;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraint;
+import ch.tsphp.tinsphp.common.inference.constraints.IFunctionType;
+import ch.tsphp.tinsphp.common.inference.constraints.IVariable;
+import ch.tsphp.tinsphp.common.symbols.IMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalMethodSymbol;
+import ch.tsphp.tinsphp.common.symbols.IMinimalVariableSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.IVariableSymbol;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.SolvedMethodCache;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.SolvedMethodDto;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SolvedMethodCacheTest
+{
+
+    @Test
+    public void get_NothingCached_ReturnsNullAndCountsMiss() {
+        SolvedMethodCache cache = createSolvedMethodCache();
+        SolvedMethodDto result = cache.get("\\foo()", "1");
+
+        assertThat(result, is(nullValue()));
+        assertThat(cache.getNumberOfMisses(), is(1L));
+        assertThat(cache.getNumberOfHits(), is(0L));
+    }
+
+    @Test
+    public void get_CachedWithSameFingerprint_ReturnsDetachedOverloadsAndBindingsAndCountsHit() {
+        IBindingCollection overloadBindings = mock(IBindingCollection.class);
+        IFunctionType overload = mock(IFunctionType.class);
+        when(overload.getName()).thenReturn("foo");
+        when(overload.getBindingCollection()).thenReturn(overloadBindings);
+        when(overload.getNumberOfConvertibleApplications()).thenReturn(2);
+        IBindingCollection bindingCollection = mock(IBindingCollection.class);
+
+        SolvedMethodCache cache = createSolvedMethodCache();
+        cache.put("\\foo()", "1", Arrays.asList(overload), Arrays.asList(bindingCollection));
+        SolvedMethodDto result = cache.get("\\foo()", "1");
+
+        assertThat(result.overloads.get(0).name, is("foo"));
+        assertThat(result.overloads.get(0).bindingCollection, is(sameInstance(overloadBindings)));
+        assertThat(result.overloads.get(0).numberOfConvertibleApplications, is(2));
+        assertThat(result.bindingCollections.get(0), is(sameInstance(bindingCollection)));
+        assertThat(cache.getNumberOfHits(), is(1L));
+    }
+
+    @Test
+    public void createOverloads_CachedOverload_UsesParametersOfGivenMethodSymbol() {
+        IBindingCollection overloadBindings = mock(IBindingCollection.class);
+        IFunctionType overload = mock(IFunctionType.class);
+        when(overload.getName()).thenReturn("foo");
+        when(overload.getBindingCollection()).thenReturn(overloadBindings);
+        ITSPHPAst definitionAst = mock(ITSPHPAst.class);
+        IMethodSymbol methodSymbol = createMethodSymbol("$a", createCallee("(int) -> int"));
+        when(methodSymbol.getParameters().get(0).getName()).thenReturn("$x");
+        when(methodSymbol.getParameters().get(0).getDefinitionAst()).thenReturn(definitionAst);
+        IMinimalVariableSymbol parameterVariable = mock(IMinimalVariableSymbol.class);
+        IFunctionType createdOverload = mock(IFunctionType.class);
+        ISymbolFactory symbolFactory = mock(ISymbolFactory.class);
+        when(symbolFactory.createMinimalVariableSymbol(definitionAst, "$x")).thenReturn(parameterVariable);
+        when(symbolFactory.createFunctionType(
+                "foo", overloadBindings, Arrays.<IVariable>asList(parameterVariable))).thenReturn(createdOverload);
+
+        SolvedMethodCache cache = new SolvedMethodCache(symbolFactory);
+        cache.put("\\foo()", "1", Arrays.asList(overload), new ArrayList<IBindingCollection>());
+        List<IFunctionType> result = cache.createOverloads(cache.get("\\foo()", "1"), methodSymbol);
+
+        assertThat(result, is(Arrays.asList(createdOverload)));
+        verify(createdOverload).manuallySimplified(anySetOf(String.class), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void get_CachedWithOtherFingerprint_ReturnsNull() {
+        SolvedMethodCache cache = createSolvedMethodCache();
+        cache.put("\\foo()", "1", new ArrayList<IFunctionType>(), new ArrayList<IBindingCollection>());
+        SolvedMethodDto result = cache.get("\\foo()", "2");
+
+        assertThat(result, is(nullValue()));
+    }
+
+    @Test
+    public void retainAll_OneMethodRemoved_RemovesItsEntry() {
+        SolvedMethodCache cache = createSolvedMethodCache();
+        cache.put("\\foo()", "1", new ArrayList<IFunctionType>(), new ArrayList<IBindingCollection>());
+        cache.put("\\bar()", "2", new ArrayList<IFunctionType>(), new ArrayList<IBindingCollection>());
+        cache.retainAll(Arrays.asList("\\bar()"));
+
+        assertThat(cache.size(), is(1));
+        assertThat(cache.get("\\foo()", "1"), is(nullValue()));
+    }
+
+    @Test
+    public void createFingerprint_SameMethod_ReturnsSameFingerprint() {
+        IMinimalMethodSymbol callee = createCallee("(int) -> int");
+        IMethodSymbol methodSymbol1 = createMethodSymbol("$a", callee);
+        IMethodSymbol methodSymbol2 = createMethodSymbol("$a", callee);
+
+        SolvedMethodCache cache = createSolvedMethodCache();
+        String result = cache.createFingerprint(methodSymbol1);
+
+        assertThat(result, is(cache.createFingerprint(methodSymbol2)));
+    }
+
+    @Test
+    public void createFingerprint_OtherArgument_ReturnsOtherFingerprint() {
+        IMinimalMethodSymbol callee = createCallee("(int) -> int");
+        IMethodSymbol methodSymbol1 = createMethodSymbol("$a", callee);
+        IMethodSymbol methodSymbol2 = createMethodSymbol("$b", callee);
+
+        SolvedMethodCache cache = createSolvedMethodCache();
+        String result = cache.createFingerprint(methodSymbol1);
+
+        assertThat(result, is(not(cache.createFingerprint(methodSymbol2))));
+    }
+
+    @Test
+    public void createFingerprint_OtherSignatureOfCallee_ReturnsOtherFingerprint() {
+        IMethodSymbol methodSymbol1 = createMethodSymbol("$a", createCallee("(int) -> int"));
+        IMethodSymbol methodSymbol2 = createMethodSymbol("$a", createCallee("(float) -> float"));
+
+        SolvedMethodCache cache = createSolvedMethodCache();
+        String result = cache.createFingerprint(methodSymbol1);
+
+        assertThat(result, is(not(cache.createFingerprint(methodSymbol2))));
+    }
+
+    private SolvedMethodCache createSolvedMethodCache() {
+        return new SolvedMethodCache(mock(ISymbolFactory.class));
+    }
+
+    private IMinimalMethodSymbol createCallee(String signature) {
+        IFunctionType overload = mock(IFunctionType.class);
+        when(overload.getSignature()).thenReturn(signature);
+        IMinimalMethodSymbol callee = mock(IMinimalMethodSymbol.class);
+        when(callee.getAbsoluteName()).thenReturn("\\bar()");
+        Collection<IFunctionType> overloads = Arrays.asList(overload);
+        when(callee.getOverloads()).thenReturn(overloads);
+        return callee;
+    }
+
+    private IMethodSymbol createMethodSymbol(String argumentName, IMinimalMethodSymbol callee) {
+        IVariableSymbol parameter = mock(IVariableSymbol.class);
+        when(parameter.getAbsoluteName()).thenReturn("\\foo()$x");
+        IMinimalVariableSymbol returnVariable = mock(IMinimalVariableSymbol.class);
+        when(returnVariable.getAbsoluteName()).thenReturn("\\foo()rtn");
+        IVariable leftHandSide = mock(IVariable.class);
+        when(leftHandSide.getAbsoluteName()).thenReturn("\\foo()bar()@1|2");
+        IVariable argument = mock(IVariable.class);
+        when(argument.getAbsoluteName()).thenReturn("\\foo()" + argumentName);
+        IConstraint constraint = mock(IConstraint.class);
+        when(constraint.getMethodSymbol()).thenReturn(callee);
+        when(constraint.getLeftHandSide()).thenReturn(leftHandSide);
+        when(constraint.getArguments()).thenReturn(Arrays.asList(argument));
+
+        IMethodSymbol methodSymbol = mock(IMethodSymbol.class);
+        when(methodSymbol.getAbsoluteName()).thenReturn("\\foo()");
+        List<IVariableSymbol> parameters = Arrays.asList(parameter);
+        when(methodSymbol.getParameters()).thenReturn(parameters);
+        when(methodSymbol.getReturnVariable()).thenReturn(returnVariable);
+        when(methodSymbol.getConstraints()).thenReturn(Arrays.asList(constraint));
+        return methodSymbol;
+    }
+}
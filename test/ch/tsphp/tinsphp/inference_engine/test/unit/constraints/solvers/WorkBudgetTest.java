@@ -0,0 +1,115 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.ConstraintSolverSettingsDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.WorkBudget;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+
+public class WorkBudgetTest
+{
+    private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+
+    @Test
+    public void isExceeded_NoLimits_IsNeverExceeded() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+
+        ManualClockWorkBudget budget = new ManualClockWorkBudget(settings);
+        budget.start();
+        budget.time = Long.MAX_VALUE / 2;
+        boolean result = budget.isExceeded(mock(WorkItemDto.class));
+
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void isExceeded_MoreWorkItemsThanAllowed_IsExceeded() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.maxWorkItemsPerMethod = 2;
+        WorkItemDto workItemDto = mock(WorkItemDto.class);
+
+        WorkBudget budget = new WorkBudget(settings);
+        budget.start();
+        boolean result1 = budget.isExceeded(workItemDto);
+        boolean result2 = budget.isExceeded(workItemDto);
+        boolean result3 = budget.isExceeded(workItemDto);
+
+        assertThat(result1, is(false));
+        assertThat(result2, is(false));
+        assertThat(result3, is(true));
+    }
+
+    @Test
+    public void isExceeded_MoreTimeThanAllowed_IsExceeded() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.maxSolvingTimePerMethod = 10;
+        WorkItemDto workItemDto = mock(WorkItemDto.class);
+
+        ManualClockWorkBudget budget = new ManualClockWorkBudget(settings);
+        budget.time = 5 * NANOSECONDS_PER_MILLISECOND;
+        budget.start();
+        budget.time += 10 * NANOSECONDS_PER_MILLISECOND;
+        boolean result1 = budget.isExceeded(workItemDto);
+        budget.time += 1;
+        boolean result2 = budget.isExceeded(workItemDto);
+
+        assertThat(result1, is(false));
+        assertThat(result2, is(true));
+    }
+
+    @Test
+    public void isExceeded_MoreTimeThanAllowedInIterativeMode_IsNotExceeded() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.maxSolvingTimePerMethod = 10;
+        WorkItemDto workItemDto = mock(WorkItemDto.class);
+        workItemDto.isInIterativeMode = true;
+
+        ManualClockWorkBudget budget = new ManualClockWorkBudget(settings);
+        budget.start();
+        budget.time += 11 * NANOSECONDS_PER_MILLISECOND;
+        boolean result = budget.isExceeded(workItemDto);
+
+        assertThat(result, is(false));
+    }
+
+    @Test
+    public void start_AfterBeingExceeded_StartsAnew() {
+        ConstraintSolverSettingsDto settings = new ConstraintSolverSettingsDto();
+        settings.maxWorkItemsPerMethod = 1;
+        settings.maxSolvingTimePerMethod = 10;
+        WorkItemDto workItemDto = mock(WorkItemDto.class);
+
+        ManualClockWorkBudget budget = new ManualClockWorkBudget(settings);
+        budget.start();
+        budget.time += 11 * NANOSECONDS_PER_MILLISECOND;
+        budget.isExceeded(workItemDto);
+        budget.isExceeded(workItemDto);
+        budget.start();
+        boolean result = budget.isExceeded(workItemDto);
+
+        assertThat(result, is(false));
+    }
+
+    private static class ManualClockWorkBudget extends WorkBudget
+    {
+        private long time;
+
+        ManualClockWorkBudget(ConstraintSolverSettingsDto settings) {
+            super(settings);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.common.AstHelper;
+import ch.tsphp.common.TSPHPAstAdaptor;
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.TypeVariableReference;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.PrimitiveTypeNames;
+import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.WorkItemDeduplicator;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.WorkItemFingerprinter;
+import ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener;
+import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WorkItemDeduplicatorTest
+{
+    private ISymbolFactory symbolFactory;
+    private Map<String, ITypeSymbol> primitiveTypes;
+    private IConstraintCollection collection;
+    private Deque<WorkItemDto> workDeque;
+    private AggregatingSolverMetricsListener metricsListener;
+
+    @Before
+    public void setUp() {
+        ISymbolsInitialiser symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        symbolFactory = symbolsInitialiser.getSymbolFactory();
+        primitiveTypes = new HardCodedCoreInitialiser(new AstHelper(new TSPHPAstAdaptor()), symbolsInitialiser)
+                .getCore().getPrimitiveTypes();
+        collection = mock(IConstraintCollection.class);
+        when(collection.getAbsoluteName()).thenReturn("foo()");
+        workDeque = new ArrayDeque<>();
+        metricsListener = new AggregatingSolverMetricsListener();
+    }
+
+    @Test
+    public void isDuplicate_EquivalentWorkItemsAtSamePointer_PrunesAllButTheFirst() {
+        WorkItemDto dto1 = createWorkItem(0, "T1", PrimitiveTypeNames.INT);
+        WorkItemDto dto2 = createWorkItem(0, "V2", PrimitiveTypeNames.INT);
+        WorkItemDto dto3 = createWorkItem(0, "T1", PrimitiveTypeNames.FLOAT);
+        WorkItemDto dto4 = createWorkItem(0, "V4", PrimitiveTypeNames.FLOAT);
+        workDeque.add(dto2);
+        workDeque.add(dto3);
+        workDeque.add(dto4);
+
+        WorkItemDeduplicator deduplicator = createDeduplicator();
+        boolean result1 = deduplicator.isDuplicate(dto1);
+        boolean result2 = deduplicator.isDuplicate(workDeque.removeFirst());
+        boolean result3 = deduplicator.isDuplicate(workDeque.removeFirst());
+        boolean result4 = deduplicator.isDuplicate(workDeque.removeFirst());
+
+        assertThat(result1, is(false));
+        assertThat(result2, is(true));
+        assertThat(result3, is(false));
+        assertThat(result4, is(true));
+        assertThat(metricsListener.getMetrics("foo()").getNumberOfPrunedWorkItems(), is(2L));
+    }
+
+    @Test
+    public void isDuplicate_EquivalentWorkItemAtOtherPointer_IsNotPruned() {
+        WorkItemDto dto1 = createWorkItem(0, "T1", PrimitiveTypeNames.INT);
+        WorkItemDto dto2 = createWorkItem(1, "T1", PrimitiveTypeNames.INT);
+        WorkItemDto dto3 = createWorkItem(0, "T1", PrimitiveTypeNames.INT);
+        workDeque.add(dto2);
+        workDeque.add(dto3);
+
+        WorkItemDeduplicator deduplicator = createDeduplicator();
+        deduplicator.isDuplicate(dto1);
+        boolean result2 = deduplicator.isDuplicate(workDeque.removeFirst());
+        boolean result3 = deduplicator.isDuplicate(workDeque.removeFirst());
+
+        //the fingerprints of pointer 0 were dropped when pointer 1 was passed
+        assertThat(result2, is(false));
+        assertThat(result3, is(false));
+        assertThat(metricsListener.getMetrics("foo()"), is(nullValue()));
+    }
+
+    @Test
+    public void isDuplicate_EquivalentWorkItemsInIterativeMode_AreNotPruned() {
+        WorkItemDto dto1 = createWorkItem(0, "T1", PrimitiveTypeNames.INT);
+        WorkItemDto dto2 = createWorkItem(0, "T1", PrimitiveTypeNames.INT);
+        dto1.isInIterativeMode = true;
+        dto2.isInIterativeMode = true;
+        workDeque.add(dto2);
+
+        WorkItemDeduplicator deduplicator = createDeduplicator();
+        deduplicator.isDuplicate(dto1);
+        boolean result = deduplicator.isDuplicate(workDeque.removeFirst());
+
+        assertThat(result, is(false));
+    }
+
+    private WorkItemDeduplicator createDeduplicator() {
+        return new WorkItemDeduplicator(new WorkItemFingerprinter(), metricsListener);
+    }
+
+    private WorkItemDto createWorkItem(int pointer, String typeVariable, String lowerType) {
+        IBindingCollection bindings = symbolFactory.createBindingCollection();
+        bindings.addVariable("$x", new TypeVariableReference(typeVariable));
+        bindings.addLowerTypeBound(typeVariable, primitiveTypes.get(lowerType));
+        return new WorkItemDto(workDeque, collection, pointer, true, bindings);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.constraints.solvers;
+
+import ch.tsphp.common.AstHelper;
+import ch.tsphp.common.TSPHPAstAdaptor;
+import ch.tsphp.common.symbols.ITypeSymbol;
+import ch.tsphp.tinsphp.common.config.ISymbolsInitialiser;
+import ch.tsphp.tinsphp.common.inference.constraints.IBindingCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.common.inference.constraints.TypeVariableReference;
+import ch.tsphp.tinsphp.common.symbols.IConvertibleTypeSymbol;
+import ch.tsphp.tinsphp.common.symbols.ISymbolFactory;
+import ch.tsphp.tinsphp.common.symbols.PrimitiveTypeNames;
+import ch.tsphp.tinsphp.core.config.HardCodedCoreInitialiser;
+import ch.tsphp.tinsphp.inference_engine.constraints.WorkItemDto;
+import ch.tsphp.tinsphp.inference_engine.constraints.solvers.WorkItemFingerprinter;
+import ch.tsphp.tinsphp.symbols.config.HardCodedSymbolsInitialiser;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+
+public class WorkItemFingerprinterTest
+{
+    private ISymbolFactory symbolFactory;
+    private Map<String, ITypeSymbol> primitiveTypes;
+
+    @Before
+    public void setUp() {
+        ISymbolsInitialiser symbolsInitialiser = new HardCodedSymbolsInitialiser();
+        symbolFactory = symbolsInitialiser.getSymbolFactory();
+        primitiveTypes = new HardCodedCoreInitialiser(new AstHelper(new TSPHPAstAdaptor()), symbolsInitialiser)
+                .getCore().getPrimitiveTypes();
+    }
+
+    @Test
+    public void createFingerprint_SameStateWithRenamedTypeVariables_AreEqual() {
+        WorkItemDto dto1 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.INT));
+        WorkItemDto dto2 = createWorkItem(createBindings("V4", "V9", PrimitiveTypeNames.INT));
+
+        WorkItemFingerprinter fingerprinter = new WorkItemFingerprinter();
+        List<Object> result1 = fingerprinter.createFingerprint(dto1);
+        List<Object> result2 = fingerprinter.createFingerprint(dto2);
+
+        assertThat(result1, is(not(nullValue())));
+        assertThat(result1, is(result2));
+    }
+
+    @Test
+    public void createFingerprint_DifferentLowerBounds_AreNotEqual() {
+        WorkItemDto dto1 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.INT));
+        WorkItemDto dto2 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.FLOAT));
+
+        WorkItemFingerprinter fingerprinter = new WorkItemFingerprinter();
+        List<Object> result1 = fingerprinter.createFingerprint(dto1);
+        List<Object> result2 = fingerprinter.createFingerprint(dto2);
+
+        assertThat(result1, is(not(result2)));
+    }
+
+    @Test
+    public void createFingerprint_DifferentLowerBoundsOfIgnoredVariable_AreEqual() {
+        WorkItemDto dto1 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.INT));
+        WorkItemDto dto2 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.FLOAT));
+        Set<String> ignoredVariableIds = new HashSet<>(Arrays.asList("$x"));
+        Set<Integer> ignoredConstraints = new HashSet<>();
+
+        WorkItemFingerprinter fingerprinter = new WorkItemFingerprinter();
+        List<Object> result1 = fingerprinter.createFingerprint(dto1, ignoredVariableIds, ignoredConstraints);
+        List<Object> result2 = fingerprinter.createFingerprint(dto2, ignoredVariableIds, ignoredConstraints);
+
+        assertThat(result1, is(not(nullValue())));
+        assertThat(result1, is(result2));
+    }
+
+    @Test
+    public void createFingerprint_DifferentPointer_AreNotEqual() {
+        WorkItemDto dto1 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.INT));
+        WorkItemDto dto2 = createWorkItem(createBindings("T1", "T2", PrimitiveTypeNames.INT));
+        dto2.pointer = 1;
+
+        WorkItemFingerprinter fingerprinter = new WorkItemFingerprinter();
+        List<Object> result1 = fingerprinter.createFingerprint(dto1);
+        List<Object> result2 = fingerprinter.createFingerprint(dto2);
+
+        assertThat(result1, is(not(result2)));
+    }
+
+    @Test
+    public void createFingerprint_ConvertibleTypeAsBound_ReturnsNull() {
+        IBindingCollection bindings = createBindings("T1", "T2", PrimitiveTypeNames.INT);
+        IConvertibleTypeSymbol asT = symbolFactory.createConvertibleTypeSymbol();
+        bindings.bind(asT, Arrays.asList("T1"));
+        bindings.addVariable("$z", new TypeVariableReference("T3"));
+        bindings.addUpperTypeBound("T3", asT);
+        WorkItemDto dto = createWorkItem(bindings);
+
+        WorkItemFingerprinter fingerprinter = new WorkItemFingerprinter();
+        List<Object> result = fingerprinter.createFingerprint(dto);
+
+        assertThat(result, is(nullValue()));
+    }
+
+    private IBindingCollection createBindings(String typeVariable1, String typeVariable2, String lowerType) {
+        IBindingCollection bindings = symbolFactory.createBindingCollection();
+        bindings.addVariable("$x", new TypeVariableReference(typeVariable1));
+        bindings.addVariable("$y", new TypeVariableReference(typeVariable2));
+        bindings.addLowerTypeBound(typeVariable1, primitiveTypes.get(lowerType));
+        bindings.addUpperTypeBound(typeVariable2, primitiveTypes.get(PrimitiveTypeNames.NUM));
+        return bindings;
+    }
+
+    private WorkItemDto createWorkItem(IBindingCollection bindings) {
+        return new WorkItemDto(
+                new ArrayDeque<WorkItemDto>(), mock(IConstraintCollection.class), 0, true, bindings);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of the TinsPHP project published under the Apache License 2.0
+ * For the full copyright and license information, please have a look at LICENSE in the
+ * root folder or visit the project's website http://tsphp.ch/wiki/display/TINS/License
+ */
+
+package ch.tsphp.tinsphp.inference_engine.test.unit.metrics;
+
+import ch.tsphp.tinsphp.common.inference.constraints.IConstraintCollection;
+import ch.tsphp.tinsphp.inference_engine.metrics.AggregatingSolverMetricsListener;
+import ch.tsphp.tinsphp.inference_engine.metrics.MethodMetrics;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AggregatingSolverMetricsListenerTest
+{
+
+    @Test
+    public void constraintsSolved_CalledTwice_SumsUpTimeAndPasses() {
+        IConstraintCollection collection = createCollection("foo()");
+
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.constraintsSolved(collection, 10);
+        listener.constraintsSolved(collection, 5);
+        MethodMetrics result = listener.getMetrics("foo()");
+
+        assertThat(result.getNanoseconds(), is(15L));
+        assertThat(result.getNumberOfSolvingPasses(), is(2L));
+    }
+
+    @Test
+    public void counters_CalledForSameCollection_CountsPerMetric() {
+        IConstraintCollection collection = createCollection("foo()");
+
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.workItemCreated(collection);
+        listener.overloadTried(collection);
+        listener.overloadTried(collection);
+        listener.overloadRejected(collection);
+        listener.bindingCollectionCopied(collection);
+        listener.bindingCollectionCopied(collection);
+        listener.bindingCollectionCopied(collection);
+        listener.iterativeRound(collection);
+        listener.softTypingFallback(collection);
+        listener.workItemPruned(collection);
+        listener.workItemPruned(collection);
+        listener.workBudgetExceeded(collection);
+        MethodMetrics result = listener.getMetrics("foo()");
+
+        assertThat(result.getNumberOfWorkItems(), is(1L));
+        assertThat(result.getNumberOfTriedOverloads(), is(2L));
+        assertThat(result.getNumberOfRejectedOverloads(), is(1L));
+        assertThat(result.getNumberOfBindingCollectionCopies(), is(3L));
+        assertThat(result.getNumberOfIterativeRounds(), is(1L));
+        assertThat(result.getNumberOfSoftTypingFallbacks(), is(1L));
+        assertThat(result.getNumberOfPrunedWorkItems(), is(2L));
+        assertThat(result.getNumberOfExceededWorkBudgets(), is(1L));
+    }
+
+    @Test
+    public void getMetrics_NothingReported_ReturnsNull() {
+        //no arrange necessary
+
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        MethodMetrics result = listener.getMetrics("foo()");
+
+        assertThat(result, is(nullValue()));
+    }
+
+    @Test
+    public void getSlowestMethods_MoreMethodsThanRequested_ReturnsSlowestFirst() {
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.constraintsSolved(createCollection("foo()"), 20);
+        listener.constraintsSolved(createCollection("bar()"), 30);
+        listener.constraintsSolved(createCollection("baz()"), 10);
+
+        List<MethodMetrics> result = listener.getSlowestMethods(2);
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getName(), is("bar()"));
+        assertThat(result.get(1).getName(), is("foo()"));
+    }
+
+    @Test
+    public void getSlowestMethods_LessMethodsThanRequested_ReturnsAll() {
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.constraintsSolved(createCollection("foo()"), 20);
+
+        List<MethodMetrics> result = listener.getSlowestMethods(5);
+
+        assertThat(result.size(), is(1));
+    }
+
+    @Test
+    public void createReport_TopOne_ContainsOnlySlowestMethod() {
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.constraintsSolved(createCollection("foo()"), 2000000);
+        listener.constraintsSolved(createCollection("bar()"), 1000000);
+
+        String result = listener.createReport(1);
+
+        assertThat(result, containsString("(1 of 2)"));
+        assertThat(result, containsString("foo() 2.000 ms"));
+        assertThat(result, not(containsString("bar()")));
+    }
+
+    @Test
+    public void reset_AfterReporting_RemovesAllMetrics() {
+        AggregatingSolverMetricsListener listener = new AggregatingSolverMetricsListener();
+        listener.constraintsSolved(createCollection("foo()"), 20);
+
+        listener.reset();
+
+        assertThat(listener.getAllMetrics().isEmpty(), is(true));
+    }
+
+    private IConstraintCollection createCollection(String absoluteName) {
+        IConstraintCollection collection = mock(IConstraintCollection.class);
+        when(collection.getAbsoluteName()).thenReturn(absoluteName);
+        return collection;
+    }
+}